@@ -0,0 +1,70 @@
+package org.example.project1;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+// Canvas GraphQL payloads for the benchmarks, in the shape the allCourses and course(id) queries return.
+// Generated from a fixed seed so every run parses the same bytes: names follow real course naming,
+// about one course in ten has no term, and about one assignment in ten has no due date.
+final class CanvasFixtures {
+
+    private static final String[] SUBJECTS = {"CS", "MATH", "PHYS", "ENGL", "CMPE", "BIOL", "CHEM", "HIST", "ECON", "PHIL"};
+    private static final String[] TITLES = {"Data Structures and Algorithms", "Discrete Mathematics", "Calculus II", "Technical Writing",
+            "Operating Systems", "General Biology", "Organic Chemistry", "World History", "Microeconomics", "Ethics in Technology"};
+    private static final String[] TERMS = {"Spring 2024", "Fall 2023", "Spring 2023", "Default Term"};
+    private static final String[] KINDS = {"Homework", "Quiz", "Lab", "Project Milestone", "Reading Response", "Exam"};
+    private static final DateTimeFormatter DUE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX");
+    // Due dates are spread a year either side of this instant
+    static final OffsetDateTime REFERENCE_TIME = OffsetDateTime.of(2024, 3, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    private CanvasFixtures() {
+    }
+
+    // Returns the name of the i-th generated course, so benchmarks can look up courses that exist.
+    static String courseName(int i) {
+        return SUBJECTS[i % SUBJECTS.length] + " " + (100 + i % 90) + " " + TITLES[(i / 7) % TITLES.length] + " Section " + String.format("%02d", i / 90 + 1);
+    }
+
+    // Returns an allCourses response with the given number of courses.
+    static String courses(int count) {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder(count * 96).append("{\"data\":{\"allCourses\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":\"").append(courseName(i)).append("\",\"id\":\"").append(10_000 + i).append("\",\"term\":");
+            if (random.nextInt(10) == 0) {
+                json.append("null");
+            } else {
+                json.append("{\"name\":\"").append(TERMS[random.nextInt(TERMS.length)]).append("\"}");
+            }
+            json.append('}');
+        }
+        return json.append("]}}").toString();
+    }
+
+    // Returns a course(id) response with the given number of assignments.
+    static String assignments(int count) {
+        Random random = new Random(7);
+        StringBuilder json = new StringBuilder(count * 72).append("{\"data\":{\"course\":{\"id\":\"10000\",\"name\":\"")
+                .append(courseName(0)).append("\",\"assignmentsConnection\":{\"nodes\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"dueAt\":");
+            if (random.nextInt(10) == 0) {
+                json.append("null");
+            } else {
+                OffsetDateTime due = REFERENCE_TIME.plusMinutes(random.nextInt(2 * 525_600) - 525_600L);
+                // Canvas answers in UTC or with the account's offset, both are in the recordings
+                json.append('"').append(DUE_FORMAT.format(random.nextBoolean() ? due : due.withOffsetSameInstant(ZoneOffset.ofHours(-7)))).append('"');
+            }
+            json.append(",\"name\":\"").append(KINDS[i % KINDS.length]).append(' ').append(i + 1).append("\"}");
+        }
+        return json.append("]}}}}").toString();
+    }
+}
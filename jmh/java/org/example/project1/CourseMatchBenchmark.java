@@ -0,0 +1,74 @@
+package org.example.project1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Finding the course named on the command line: the original lowercase-and-contains scan over every course,
+// against the CourseIndex lookups list-assignments uses now. Building the index is measured on its own.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CourseMatchBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private List<GetResponses.CourseData.Course> courses;
+    private CourseIndex index;
+    private String query;
+
+    @Setup
+    public void setUp() throws Exception {
+        courses = ObjectMappers.reader(GetResponses.CourseData.class).<GetResponses.CourseData>readValue(CanvasFixtures.courses(size)).getData().getAllCourses();
+        index = new CourseIndex(courses);
+        // A course from the middle of the list, typed the way users do
+        query = CanvasFixtures.courseName(size / 2).toUpperCase();
+    }
+
+    @Benchmark
+    public List<GetResponses.CourseData.Course> linearScan() {
+        List<GetResponses.CourseData.Course> matchingCourses = new ArrayList<>();
+        courses.forEach(course -> {
+            if (course != null && course.getName() != null && course.getName().toLowerCase().contains(query.toLowerCase())) {
+                matchingCourses.add(course);
+            }
+        });
+        return matchingCourses;
+    }
+
+    @Benchmark
+    public List<GetResponses.CourseData.Course> indexSubstring() {
+        return index.find(query, CourseIndex.MatchMode.SUBSTRING);
+    }
+
+    @Benchmark
+    public List<GetResponses.CourseData.Course> indexExact() {
+        return index.find(query, CourseIndex.MatchMode.EXACT);
+    }
+
+    @Benchmark
+    public List<GetResponses.CourseData.Course> indexFuzzy() {
+        return index.find(query.substring(0, query.length() - 1), CourseIndex.MatchMode.FUZZY);
+    }
+
+    @Benchmark
+    public CourseIndex buildIndex() {
+        return new CourseIndex(courses);
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.project1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The due-date filter of list-assignments over every node of a response. filterLegacy is the filter the command
+// used before AssignmentStore: it looks up the UTC zone, copies the formatter and parses a ZonedDateTime per node.
+// filterPreparedZone and filterEpochSeconds keep the per-node parse but prepare what they can once.
+// The store benchmarks measure building an AssignmentStore, which parses every due date once, and the
+// active split and date range queries on a built store.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DueDateFilterBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private List<GetResponses.Root.Data.Course.AssignmentsConnection.Node> nodes;
+    private ZonedDateTime nowUTC;
+    private DateTimeFormatter formatter;
+    private DateTimeFormatter formatterUTC;
+    private long nowEpochSecond;
+    private AssignmentStore store;
+
+    @Setup
+    public void setUp() throws Exception {
+        nodes = ObjectMappers.reader(GetResponses.Root.class).<GetResponses.Root>readValue(CanvasFixtures.assignments(size))
+                .getData().getCourse().getAssignmentsConnection().getNodes();
+        nowUTC = CanvasFixtures.REFERENCE_TIME.atZoneSameInstant(ZoneId.of("UTC"));
+        formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX");
+        formatterUTC = formatter.withZone(ZoneId.of("UTC"));
+        nowEpochSecond = nowUTC.toEpochSecond();
+        store = new AssignmentStore.Builder().addAll(null, nodes).build();
+    }
+
+    @Benchmark
+    public void filterLegacy(Blackhole blackhole) {
+        for (GetResponses.Root.Data.Course.AssignmentsConnection.Node node : nodes) {
+            if (node == null || node.getDueAt() == null || node.getAssignmentName() == null) {
+                blackhole.consume(false);
+                continue;
+            }
+            ZonedDateTime dueDateUTC;
+            try {
+                dueDateUTC = ZonedDateTime.parse(node.getDueAt(), formatter.withZone(ZoneId.of("UTC")));
+            } catch (DateTimeParseException e) {
+                blackhole.consume(false);
+                continue;
+            }
+            blackhole.consume(dueDateUTC.isEqual(nowUTC) || dueDateUTC.isAfter(nowUTC));
+        }
+    }
+
+    @Benchmark
+    public void filterPreparedZone(Blackhole blackhole) {
+        for (GetResponses.Root.Data.Course.AssignmentsConnection.Node node : nodes) {
+            if (node == null || node.getDueAt() == null || node.getAssignmentName() == null) {
+                blackhole.consume(false);
+                continue;
+            }
+            ZonedDateTime dueDateUTC = ZonedDateTime.parse(node.getDueAt(), formatterUTC);
+            blackhole.consume(!dueDateUTC.isBefore(nowUTC));
+        }
+    }
+
+    @Benchmark
+    public void filterEpochSeconds(Blackhole blackhole) {
+        for (GetResponses.Root.Data.Course.AssignmentsConnection.Node node : nodes) {
+            if (node == null || node.getDueAt() == null || node.getAssignmentName() == null) {
+                blackhole.consume(false);
+                continue;
+            }
+            blackhole.consume(OffsetDateTime.parse(node.getDueAt()).toEpochSecond() >= nowEpochSecond);
+        }
+    }
+
+    @Benchmark
+    public AssignmentStore storeBuild() {
+        return new AssignmentStore.Builder().addAll(null, nodes).build();
+    }
+
+    @Benchmark
+    public int storeActiveSplit() {
+        return store.lowerBound(nowEpochSecond);
+    }
+
+    @Benchmark
+    public int storeDueBetween() {
+        return store.upperBound(nowEpochSecond + 7 * 86_400) - store.lowerBound(nowEpochSecond);
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.project1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Binding a whole response with readValue, as the commands did before responses were streamed,
+// against the pre-resolved readers of ObjectMappers.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private String coursesJson;
+    private String assignmentsJson;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        coursesJson = CanvasFixtures.courses(size);
+        assignmentsJson = CanvasFixtures.assignments(size);
+        objectMapper = new ObjectMapper();
+    }
+
+    @Benchmark
+    public GetResponses.CourseData readCourses() throws Exception {
+        return objectMapper.readValue(coursesJson, GetResponses.CourseData.class);
+    }
+
+    @Benchmark
+    public GetResponses.CourseData readCoursesWithReader() throws Exception {
+        return ObjectMappers.reader(GetResponses.CourseData.class).readValue(coursesJson);
+    }
+
+    @Benchmark
+    public GetResponses.Root readAssignments() throws Exception {
+        return objectMapper.readValue(assignmentsJson, GetResponses.Root.class);
+    }
+
+    @Benchmark
+    public GetResponses.Root readAssignmentsWithReader() throws Exception {
+        return ObjectMappers.reader(GetResponses.Root.class).readValue(assignmentsJson);
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.project1;
+
+import java.net.http.HttpHeaders; // Headers of a response, read for the Canvas rate limit values.
+import java.util.concurrent.TimeUnit; // Used for the time-limited wait on the condition.
+import java.util.concurrent.locks.Condition; // Signalled whenever a permit may have become free.
+import java.util.concurrent.locks.ReentrantLock; // Guards the limit and the in-flight count.
+
+// References used:
+// Canvas API throttling: https://canvas.instructure.com/doc/api/file.throttling.html
+// AIMD: https://en.wikipedia.org/wiki/Additive_increase/multiplicative_decrease
+// Netflix concurrency-limits: https://github.com/Netflix/concurrency-limits
+// ReentrantLock and Condition: https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/locks/Condition.html
+
+// AdaptiveLimiter bounds how many requests are in flight, adapting the bound to Canvas's rate limiting.
+// Canvas gives every token a bucket of request cost. Each response reports what is left in
+// X-Rate-Limit-Remaining and what the request cost in X-Request-Cost, and a 429, or a 403 with
+// Retry-After or an empty bucket, means the bucket ran dry. The limit follows AIMD:
+//   - it grows by about one permit per round of responses while the bucket is comfortably full,
+//   - it is cut by a quarter when the bucket drops below the low-water mark,
+//   - it is halved when a request is throttled.
+// Used as a GraphQlConnect.ResponseListener, so it sees the headers of every response.
+public class AdaptiveLimiter implements GraphQlConnect.ResponseListener {
+
+    //Header with the cost units left in the bucket
+    static final String REMAINING_HEADER = "X-Rate-Limit-Remaining";
+    //Header with the cost of the request that was just served
+    static final String COST_HEADER = "X-Request-Cost";
+    //Below this many units left in the bucket the limit is reduced
+    private static final double LOW_WATER_MARK = 200;
+    //Factor applied when the bucket runs low
+    private static final double BACKOFF_LOW = 0.75;
+    //Factor applied when a request is throttled
+    private static final double BACKOFF_THROTTLED = 0.5;
+
+    //Smallest allowed limit
+    private final int minLimit;
+    //Largest allowed limit
+    private final int maxLimit;
+    //Guards limit and inFlight
+    private final ReentrantLock lock = new ReentrantLock();
+    //Signalled when a permit is released or the limit grows
+    private final Condition permitAvailable = lock.newCondition();
+    //Current limit, fractional so additive increase can be spread over many responses
+    private double limit;
+    //Number of permits currently held
+    private int inFlight;
+    //Number of responses that were throttled
+    private long throttled;
+    //Last X-Request-Cost seen, NaN until one has been seen
+    private double lastCost = Double.NaN;
+
+    // AdaptiveLimiter constructor, the limit starts at initialLimit and stays between 1 and maxLimit.
+    public AdaptiveLimiter(final int initialLimit, final int maxLimit) {
+        // Handle case where the limits do not make sense
+        if (maxLimit < 1 || initialLimit < 1 || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= initialLimit <= maxLimit");
+        }
+        this.minLimit = 1;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    // Waits until a request may be sent and takes a permit for it.
+    public void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= (int) limit) {
+                // Time-limited wait, so a lost signal can only delay a request and never block it
+                permitAvailable.await(100, TimeUnit.MILLISECONDS);
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Gives back the permit taken by acquire.
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            permitAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Adapts the limit to the rate limit state reported by the response.
+    @Override
+    public void onResponse(int statusCode, HttpHeaders headers) {
+        double remaining = headerValue(headers, REMAINING_HEADER);
+        double cost = headerValue(headers, COST_HEADER);
+        lock.lock();
+        try {
+            if (!Double.isNaN(cost)) {
+                lastCost = cost;
+            }
+            // Canvas answers 403 (and some proxies 429) once the bucket is empty, other 403s are real permission errors
+            if (statusCode == 429 || GraphQlConnect.isThrottledForbidden(statusCode, headers)) {
+                throttled++;
+                limit = Math.max(minLimit, limit * BACKOFF_THROTTLED);
+            }
+            // The bucket is running low, or would after the requests in flight are charged
+            else if (!Double.isNaN(remaining) && remaining - inFlight * (Double.isNaN(lastCost) ? 0 : lastCost) < LOW_WATER_MARK) {
+                limit = Math.max(minLimit, limit * BACKOFF_LOW);
+            }
+            // Plenty left, add about one permit per full round of responses
+            else {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+                permitAvailable.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns the number of requests currently in flight.
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns the number of requests currently permitted in flight.
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns the number of throttled responses seen so far.
+    public long getThrottled() {
+        lock.lock();
+        try {
+            return throttled;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Reads a numeric header, NaN when it is missing or not a number.
+    private static double headerValue(HttpHeaders headers, String name) {
+        try {
+            return headers.firstValue(name).map(Double::parseDouble).orElse(Double.NaN);
+        }
+        // Handle headers that are not numbers
+        catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package org.example.project1;
+
+import com.fasterxml.jackson.core.JsonProcessingException; // Used for checking JSON exceptions
+import com.fasterxml.jackson.databind.ObjectMapper; // Used for JSON parsing.
+
+import java.util.Collections; // Used for the empty starting page.
+import java.util.ArrayList; // Collects the nodes of a course across its pages.
+import java.util.HashMap; // Holds the variables of the page request.
+import java.util.Iterator; // Interface implemented by the pager to hand out nodes one at a time.
+import java.util.List; // Interface that can be used to create dynamic arrays
+import java.util.Map; // Interface for the variables of the page request.
+import java.util.NoSuchElementException; // Thrown when next() is called after the last node.
+import java.util.Spliterator; // Used to describe the stream built on top of the pager.
+import java.util.Spliterators; // Used to turn the iterator into a spliterator.
+import java.util.concurrent.CompletableFuture; // Used to hold the page being fetched in the background.
+import java.util.stream.Stream; // Lazy stream of assignment nodes.
+import java.util.stream.StreamSupport; // Used to create the stream from the spliterator.
+
+/*Using Java Logging API */
+import java.util.logging.Logger; // The Logger class is a part of the Java Logging API and is used to log messages for a specific system or application component.
+import java.util.logging.Level; // The Level class defines a set of standard logging levels that can be used to control logging output.
+
+// References used:
+// GraphQL pagination: https://graphql.org/learn/pagination/
+// Iterator: https://docs.oracle.com/javase/8/docs/api/java/util/Iterator.html
+// StreamSupport: https://docs.oracle.com/javase/8/docs/api/java/util/stream/StreamSupport.html
+// CompletableFuture: https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/CompletableFuture.html
+
+// AssignmentPager reads a course's assignmentsConnection one page at a time by following pageInfo.endCursor.
+// As soon as a page has been parsed the request for the next page is sent, so the next page is
+// on its way while the caller filters and prints the current one.
+// Only the current page and the one in flight are held in memory.
+// A pager can also pick up where a batched request left off, reading the pages after a given cursor.
+public class AssignmentPager implements Iterator<GetResponses.Root.Data.Course.AssignmentsConnection.Node> {
+
+    //main logger
+    private static final Logger logger = Logger.getLogger(AssignmentPager.class.getName());
+
+    //Connection used to send the page requests
+    private final GraphQlConnect connection;
+    //Operation requesting one page, with the variables courseId, first and after
+    private final GraphQlOperation operation;
+    //Used for parsing each page
+    private final ObjectMapper objectMapper;
+    //Course whose assignments are read
+    private final String courseId;
+    //Number of assignments requested per page
+    private final int pageSize;
+
+    //Nodes of the page currently being handed out
+    private Iterator<GetResponses.Root.Data.Course.AssignmentsConnection.Node> currentPage = Collections.emptyIterator();
+    //Request for the next page, null once the last page has been read
+    private CompletableFuture<String> nextPage;
+    //Next node to hand out, looked up ahead of time by hasNext
+    private GetResponses.Root.Data.Course.AssignmentsConnection.Node nextNode;
+    //Whether the last page has been read, false while pages are left or after a page could not be read
+    private boolean complete;
+
+    // AssignmentPager constructor, the first page is requested right away.
+    public AssignmentPager(final GraphQlConnect connection, final ObjectMapper objectMapper, final String courseId, final int pageSize) {
+        this(connection, objectMapper, QueryRegistry.ASSIGNMENTS_PAGE, courseId, pageSize, null);
+    }
+
+    // AssignmentPager constructor for the pages of the operation after the given cursor, the first of them is requested right away.
+    public AssignmentPager(final GraphQlConnect connection, final ObjectMapper objectMapper, final GraphQlOperation operation,
+                           final String courseId, final int pageSize, final String afterCursor) {
+        // Handle case where course id is null or empty
+        if (courseId == null || courseId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Course id cannot be null or empty");
+        }
+        this.connection = connection;
+        this.objectMapper = objectMapper;
+        this.operation = operation;
+        this.courseId = courseId;
+        this.pageSize = pageSize;
+        this.nextPage = requestPage(afterCursor);
+    }
+
+    // Returns the nodes of an aliased course from a batched response followed by the nodes of its later pages,
+    // which are requested with the operation one page at a time. Returns null if a later page could not be read.
+    public static List<GetResponses.Root.Data.Course.AssignmentsConnection.Node> allPages(final GraphQlConnect connection, final ObjectMapper objectMapper,
+            final GraphQlOperation operation, final String courseId, final int pageSize, final GetResponses.Root.Data.Course.AssignmentsConnection firstPage) {
+        List<GetResponses.Root.Data.Course.AssignmentsConnection.Node> nodes = new ArrayList<>();
+        if (firstPage.getNodes() != null) {
+            firstPage.getNodes().forEach(node -> {
+                if (node != null) {
+                    nodes.add(node);
+                }
+            });
+        }
+        var pageInfo = firstPage.getPageInfo();
+        // Handle courses whose assignments fit on the first page
+        if (pageInfo == null || !pageInfo.hasNextPage() || pageInfo.getEndCursor() == null) {
+            return nodes;
+        }
+        AssignmentPager pager = new AssignmentPager(connection, objectMapper, operation, courseId, pageSize, pageInfo.getEndCursor());
+        pager.forEachRemaining(nodes::add);
+        return pager.isComplete() ? nodes : null;
+    }
+
+    // Returns the assignments as a lazy stream, pages are only fetched as the stream is consumed.
+    public Stream<GetResponses.Root.Data.Course.AssignmentsConnection.Node> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public boolean hasNext() {
+        // Move on to the following page whenever the current one is used up, skipping null nodes
+        while (nextNode == null) {
+            if (currentPage.hasNext()) {
+                nextNode = currentPage.next();
+            } else if (nextPage != null) {
+                currentPage = readPage();
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public GetResponses.Root.Data.Course.AssignmentsConnection.Node next() {
+        // Handle case where there are no nodes left
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more assignments");
+        }
+        GetResponses.Root.Data.Course.AssignmentsConnection.Node node = nextNode;
+        nextNode = null;
+        return node;
+    }
+
+    // Drops the page in flight, used when the assignments turn out not to be needed.
+    public void cancel() {
+        if (nextPage != null) {
+            nextPage.cancel(false);
+            nextPage = null;
+        }
+        currentPage = Collections.emptyIterator();
+        nextNode = null;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    // Returns whether every page was read, so the assignments handed out are all the course has.
+    public boolean isComplete() {
+        return complete;
+    }
+
+    // Sends the request for the page after the given cursor.
+    private CompletableFuture<String> requestPage(String afterCursor) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("courseId", courseId);
+        variables.put("first", pageSize);
+        // The first page has no cursor, $after is then left out
+        variables.put("after", afterCursor);
+        return connection.sendAsync(operation, variables);
+    }
+
+    // Waits for the page in flight, requests the one after it and returns the page's nodes.
+    private Iterator<GetResponses.Root.Data.Course.AssignmentsConnection.Node> readPage() {
+        String response = nextPage.join();
+        nextPage = null;
+        // Handle failed requests, the error has already been logged by GraphQlConnect
+        if (response == null) {
+            return Collections.emptyIterator();
+        }
+        try {
+            Metrics.Timer parse = Metrics.start(Metrics.Metric.PARSE);
+            GetResponses.Root root;
+            try {
+                root = objectMapper.readValue(response, GetResponses.Root.class);
+            } finally {
+                parse.stop();
+            }
+            //Ensure the page has nodes
+            if (root == null || root.getData() == null || root.getData().getCourse() == null || root.getData().getCourse().getAssignmentsConnection() == null) {
+                return Collections.emptyIterator();
+            }
+            var assignmentsConnection = root.getData().getCourse().getAssignmentsConnection();
+            var pageInfo = assignmentsConnection.getPageInfo();
+            // Prefetch the next page before the caller starts on this one
+            if (pageInfo != null && pageInfo.hasNextPage() && pageInfo.getEndCursor() != null) {
+                nextPage = requestPage(pageInfo.getEndCursor());
+            } else {
+                complete = true;
+            }
+            List<GetResponses.Root.Data.Course.AssignmentsConnection.Node> nodes = assignmentsConnection.getNodes();
+            return nodes == null ? Collections.emptyIterator() : nodes.iterator();
+        }
+        // Handle JSONProcessingException
+        catch (JsonProcessingException e) {
+            logger.log(Level.SEVERE, "A JSONProcessingException error occurred while reading an assignments page", e); // Log the error that occurred alongside the type of exception, this is severe
+        }
+        return Collections.emptyIterator();
+    }
+}
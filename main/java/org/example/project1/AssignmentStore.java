@@ -0,0 +1,253 @@
+package org.example.project1;
+
+import java.time.OffsetDateTime; // Used for due dates the fast parser does not handle.
+import java.time.format.DateTimeParseException; // Thrown for due dates that cannot be parsed.
+import java.util.ArrayList; // Used while the store is being built.
+import java.util.Arrays; // Used to sort the assignments by due date.
+import java.util.List; // Interface that can be used to create dynamic arrays
+
+/*Using Java Logging API */
+import java.util.logging.Logger; // The Logger class is a part of the Java Logging API and is used to log messages for a specific system or application component.
+import java.util.logging.Level; // The Level class defines a set of standard logging levels that can be used to control logging output.
+
+// References used:
+// Column-oriented storage: https://en.wikipedia.org/wiki/Column-oriented_DBMS
+// Days from civil algorithm: https://howardhinnant.github.io/date_algorithms.html#days_from_civil
+// Binary search: https://docs.oracle.com/javase/8/docs/api/java/util/Arrays.html
+// Logger: https://www.vogella.com/tutorials/Logging/article.html
+
+// AssignmentStore holds assignments in columns sorted by due date, so due date filters are binary searches.
+// Due dates are parsed once, into epoch seconds, when the store is built. Names, course names and the
+// original due date text are kept in arrays parallel to the due dates, in the same order.
+// Queries return positions: everything due from lowerBound(t1) up to upperBound(t2) is due between t1 and t2,
+// so active/past splits and ranges cost two binary searches and allocate nothing.
+// The store is immutable once built and can be shared by any number of threads.
+public class AssignmentStore {
+
+    //main logger
+    private static final Logger logger = Logger.getLogger(AssignmentStore.class.getName());
+    //Number of days in each month of a non-leap year
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    //Due dates in epoch seconds, ascending
+    private final long[] dueEpochSeconds;
+    //Assignment names, parallel to dueEpochSeconds
+    private final String[] names;
+    //Due dates as Canvas sent them, parallel to dueEpochSeconds
+    private final String[] dueAts;
+    //Names of the courses the assignments belong to, parallel to dueEpochSeconds, null entries if unknown
+    private final String[] courseNames;
+
+    // Private constructor, stores are created through a Builder
+    private AssignmentStore(final long[] dueEpochSeconds, final String[] names, final String[] dueAts, final String[] courseNames) {
+        this.dueEpochSeconds = dueEpochSeconds;
+        this.names = names;
+        this.dueAts = dueAts;
+        this.courseNames = courseNames;
+    }
+
+    // Returns the number of assignments in the store.
+    public int size() {
+        return dueEpochSeconds.length;
+    }
+
+    // Returns the position of the first assignment due at or after the given time, size() if there is none.
+    public int lowerBound(long epochSecond) {
+        int low = 0;
+        int high = dueEpochSeconds.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (dueEpochSeconds[middle] < epochSecond) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Returns the position of the first assignment due after the given time, size() if there is none.
+    public int upperBound(long epochSecond) {
+        int low = 0;
+        int high = dueEpochSeconds.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (dueEpochSeconds[middle] <= epochSecond) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public long getDueEpochSecond(int position) {
+        return dueEpochSeconds[position];
+    }
+
+    public String getName(int position) {
+        return names[position];
+    }
+
+    public String getDueAt(int position) {
+        return dueAts[position];
+    }
+
+    public String getCourseName(int position) {
+        return courseNames[position];
+    }
+
+    // Parses a Canvas due date such as 2024-05-10T06:59:59Z or 2024-05-10T06:59:59-07:00 into epoch seconds.
+    // The usual form is read directly from the characters, anything else goes through OffsetDateTime.
+    public static long parseEpochSecond(String dueAt) {
+        long epochSecond = parseFast(dueAt);
+        if (epochSecond != Long.MIN_VALUE) {
+            return epochSecond;
+        }
+        return OffsetDateTime.parse(dueAt).toEpochSecond();
+    }
+
+    // Returns the due date of an assignment in epoch seconds, or Long.MIN_VALUE for an assignment that is not listed:
+    // one without a name or due date, or with a due date that cannot be parsed.
+    public static long dueEpochSecond(GetResponses.Root.Data.Course.AssignmentsConnection.Node node) {
+        // check if node is null or node due date is null
+        if (node == null || node.getDueAt() == null || node.getAssignmentName() == null) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return parseEpochSecond(node.getDueAt());
+        } catch (DateTimeParseException e) {
+            logger.log(Level.WARNING, "Failed to parse date: " + node.getDueAt(), e); // warning level set as warning for error
+            return Long.MIN_VALUE;
+        }
+    }
+
+    // Reads yyyy-MM-ddTHH:mm:ss[.fraction](Z|+HH:mm|-HH:mm) without creating any objects.
+    // Returns Long.MIN_VALUE if the text is in any other form or out of range.
+    private static long parseFast(String text) {
+        int length = text.length();
+        if (length < 20 || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T' || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return Long.MIN_VALUE;
+        }
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        if (day > DAYS_IN_MONTH[month - 1] + (month == 2 && leap ? 1 : 0)) {
+            return Long.MIN_VALUE;
+        }
+        // Skip a fraction of a second, due dates are compared to the second
+        int position = 19;
+        if (text.charAt(position) == '.') {
+            position++;
+            while (position < length && Character.isDigit(text.charAt(position))) {
+                position++;
+            }
+        }
+        int offsetSeconds;
+        if (position == length - 1 && text.charAt(position) == 'Z') {
+            offsetSeconds = 0;
+        } else if (position == length - 6 && (text.charAt(position) == '+' || text.charAt(position) == '-') && text.charAt(position + 3) == ':') {
+            int offsetHours = digits(text, position + 1, 2);
+            int offsetMinutes = digits(text, position + 4, 2);
+            if (offsetHours < 0 || offsetHours > 18 || offsetMinutes < 0 || offsetMinutes > 59) {
+                return Long.MIN_VALUE;
+            }
+            offsetSeconds = (offsetHours * 3600 + offsetMinutes * 60) * (text.charAt(position) == '-' ? -1 : 1);
+        } else {
+            return Long.MIN_VALUE;
+        }
+        return epochDay(year, month, day) * 86_400L + hour * 3600L + minute * 60L + second - offsetSeconds;
+    }
+
+    // Reads a run of decimal digits, -1 if any of them is not a digit.
+    private static int digits(String text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // Days between 1970-01-01 and the given date in the proleptic Gregorian calendar.
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    // Collects assignments and builds the store from them. Not thread-safe, the store it builds is.
+    public static class Builder {
+        //Due dates in the order the assignments were added
+        private long[] dueEpochSeconds = new long[64];
+        //Names in the order the assignments were added
+        private final List<String> names = new ArrayList<>();
+        //Due dates as sent, in the order the assignments were added
+        private final List<String> dueAts = new ArrayList<>();
+        //Course names in the order the assignments were added
+        private final List<String> courseNames = new ArrayList<>();
+
+        // Adds an assignment of the given course. Assignments without a name or due date, or with a due date
+        // that cannot be parsed, are left out and false is returned.
+        public boolean add(String courseName, GetResponses.Root.Data.Course.AssignmentsConnection.Node node) {
+            long epochSecond = dueEpochSecond(node);
+            if (epochSecond == Long.MIN_VALUE) {
+                return false;
+            }
+            int count = names.size();
+            if (count == dueEpochSeconds.length) {
+                dueEpochSeconds = Arrays.copyOf(dueEpochSeconds, count * 2);
+            }
+            dueEpochSeconds[count] = epochSecond;
+            names.add(node.getAssignmentName());
+            dueAts.add(node.getDueAt());
+            courseNames.add(courseName);
+            return true;
+        }
+
+        // Adds every assignment of the given course.
+        public Builder addAll(String courseName, List<GetResponses.Root.Data.Course.AssignmentsConnection.Node> nodes) {
+            if (nodes != null) {
+                nodes.forEach(node -> add(courseName, node));
+            }
+            return this;
+        }
+
+        // Builds the store, assignments due at the same time keep the order they were added in.
+        public AssignmentStore build() {
+            int count = names.size();
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            // Stable sort, so ties stay in the order they were added
+            long[] added = dueEpochSeconds;
+            Arrays.sort(order, (left, right) -> Long.compare(added[left], added[right]));
+            long[] sortedDue = new long[count];
+            String[] sortedNames = new String[count];
+            String[] sortedDueAts = new String[count];
+            String[] sortedCourseNames = new String[count];
+            for (int i = 0; i < count; i++) {
+                int from = order[i];
+                sortedDue[i] = added[from];
+                sortedNames[i] = names.get(from);
+                sortedDueAts[i] = dueAts.get(from);
+                sortedCourseNames[i] = courseNames.get(from);
+            }
+            return new AssignmentStore(sortedDue, sortedNames, sortedDueAts, sortedCourseNames);
+        }
+    }
+}
@@ -1,21 +1,69 @@
 package org.example.project1;
 
 import com.fasterxml.jackson.core.JsonProcessingException; // Used for checking JSON exceptions
-import com.fasterxml.jackson.databind.ObjectMapper; // Used for JSON parsing.
-import org.springframework.boot.autoconfigure.SpringBootApplication; // Spring Boot's annotation to mark this class as the application's entry point.
 
 import picocli.CommandLine; // Picocli is a framework for building command-line applications in Java.
 import picocli.CommandLine.Command; // Annotation to mark a class as a command with picocli.
+import picocli.CommandLine.Mixin; // Annotation to share the mock server options between commands.
 import picocli.CommandLine.Option; // Annotation to mark a field as a command option.
 import picocli.CommandLine.Parameters; // Annotation to mark a field as command parameters.
+import picocli.CommandLine.Model.CommandSpec; // Model of a command, used to report invalid input.
+import picocli.CommandLine.Spec; // Annotation to inject the command's CommandSpec.
 
-import java.time.ZoneId; // Used for handling time zones.
-import java.time.ZonedDateTime; // Used for handling dates and times with time zone information.
-import java.time.format.DateTimeFormatter; // Used for formatting and parsing date-time objects.
+import java.io.BufferedReader; // Reads the output of the load test daemon.
+import java.io.File; // Separator of the class path the load test daemon is started with.
+import java.io.IOException; // Thrown when reading a response stream fails.
+import java.io.FileDescriptor; // Standard output, written through its own stream by the output sinks.
+import java.io.FileOutputStream; // Raw stream on standard output.
+import java.io.InputStream; // Used for reading responses while they arrive.
+import java.io.InputStreamReader; // Decodes the output of the load test daemon.
+import java.io.OutputStream; // Raw destination of the command output.
+import java.io.OutputStreamWriter; // Encodes the text output as UTF-8.
+import java.io.PrintWriter; // Destination of the command output.
+import java.io.Writer; // Destination of the export lines.
+
+import java.nio.ByteBuffer; // Buffers handed to the command output channel.
+import java.nio.channels.Channels; // Used to write the output sinks to the command output stream.
+import java.nio.channels.FileChannel; // Used to write --output files.
+import java.nio.channels.WritableByteChannel; // Destination of an output sink.
+import java.nio.charset.StandardCharsets; // Export files are UTF-8.
+import java.nio.file.Files; // Used to create and move the export files.
+import java.nio.file.Path; // Location of the local course cache.
+import java.nio.file.StandardCopyOption; // Used to move finished export files into place atomically.
+import java.nio.file.StandardOpenOption; // Used to create or truncate --output files.
+
+import java.time.Duration; // Used for the connect and request timeouts.
+import java.time.Instant; // Used for the current time the due dates are compared to.
+import java.time.LocalDate; // Used for --due-between bounds given as plain dates.
+import java.time.ZoneOffset; // Plain dates are taken as UTC days.
 
 import java.time.format.DateTimeParseException; // Used for handling date time parse exceptions
 import java.util.ArrayList; // Used for creating dynamic arrays.
+import java.util.Arrays; // Used to drop the --via-daemon argument before forwarding.
+import java.util.Comparator; // Used to delete the load test cache directory deepest paths first.
+import java.util.EnumSet; // Used to choose the course fields an export requests.
+import java.util.HashSet; // Used for the assignment ids seen by a sync.
+import java.util.LinkedHashMap; // Keeps the courses and changed assignments of a sync in order.
 import java.util.List; // Interface that can be used to create dynamic arrays
+import java.util.Locale; // Used for locale independent lowercasing.
+import java.util.Map; // Interface for the maps of a sync.
+import java.util.Set; // Interface for the assignment ids seen by a sync.
+import java.util.concurrent.Callable; // A batched request for the fan-out executor.
+import java.util.concurrent.CompletableFuture; // Result of a request running on the fan-out executor.
+import java.util.concurrent.ConcurrentHashMap; // Thread-safe map for the course indexes kept between runs.
+import java.util.concurrent.ConcurrentMap; // Interface for the course index map.
+import java.util.concurrent.ExecutionException; // Wraps the error of a failed tenant export.
+import java.util.concurrent.ExecutorCompletionService; // Hands out the tenant exports as they finish.
+import java.util.concurrent.ExecutorService; // Fixed pool of export workers.
+import java.util.concurrent.Executors; // Factory for the export worker pool.
+import java.util.concurrent.ThreadFactory; // Used to name the export workers and mark them as daemons.
+import java.util.concurrent.TimeUnit; // Used to wait for the load test daemon to exit.
+import java.util.concurrent.atomic.AtomicInteger; // Used to number the export workers.
+import java.util.concurrent.atomic.AtomicReference; // Holds the assignment request started while the course list streams.
+import java.util.function.Consumer; // Receives the courses that pass a filter.
+import java.util.function.IntFunction; // Returns the batched operation for a chunk size.
+import java.util.function.Predicate; // Filter applied to the courses.
+import java.util.stream.Stream; // Paths of the load test cache directory.
 
 /*Using Java Logging API */
 import java.util.logging.Logger; // The Logger class is a part of the Java Logging API and is used to log messages for a specific system or application component.
@@ -33,9 +81,12 @@ import java.util.logging.Level; // The Level class defines a set of standard log
 
 // Logging levels available: OFF, FINE, FINER, FINEST, CONFIG, INFO, WARNING, SEVERE, ALL
 
-@SpringBootApplication // Marks this class as a Spring Boot application.
+// The Spring Boot annotation lives on CanvasGraphQlSpringConfiguration, so picocli's reflection over this class does not load Spring.
 @Command(name = "canvasgraphql", description = "Canvas GraphQL application", mixinStandardHelpOptions = true, subcommands = {
-        CanvasGraphQlApplication.ListCoursesCommand.class, CanvasGraphQlApplication.ListAssignmentsCommand.class
+        CanvasGraphQlApplication.ListCoursesCommand.class, CanvasGraphQlApplication.ListAssignmentsCommand.class,
+        CanvasGraphQlApplication.SyncCommand.class, CanvasGraphQlApplication.ExportCommand.class,
+        CanvasGraphQlApplication.DaemonCommand.class, CanvasGraphQlApplication.MockServerCommand.class,
+        CanvasGraphQlApplication.LoadCommand.class
 })
 
 //File handles all exceptions
@@ -43,22 +94,378 @@ import java.util.logging.Level; // The Level class defines a set of standard log
 public class CanvasGraphQlApplication {
     //main logger
     private static final Logger logger = Logger.getLogger(CanvasGraphQlApplication.class.getName());
-    //main endpoint for sending graphQL query
-    private static final String endpoint = "https://sjsu.instructure.com/api/graphql";
+    //default endpoint for sending graphQL query
+    static final String DEFAULT_ENDPOINT = "https://sjsu.instructure.com/api/graphql";
+
+    // Option to specify the GraphQL endpoint, e.g. another Canvas instance or a mock-server.
+    @Option(names = "--endpoint", description = "Canvas GraphQL endpoint, or $CANVAS_GRAPHQL_ENDPOINT (default: " + DEFAULT_ENDPOINT + ")",
+            defaultValue = "${env:CANVAS_GRAPHQL_ENDPOINT:-" + DEFAULT_ENDPOINT + "}")
+    private static String endpoint;
 
     // Option to specify the Canvas API token required for authentication.
-    @Option(names = {"-t", "--token"}, description = "Canvas API Token", required = true)
+    // Checked by the commands that talk to Canvas, so the daemon can be started without one.
+    @Option(names = {"-t", "--token"}, description = "Canvas API Token")
     private static String token;
 
+    // Option to specify how long to wait when opening the connection to Canvas.
+    @Option(names = "--connect-timeout", description = "Connect timeout in seconds (default: ${DEFAULT-VALUE})", defaultValue = "10")
+    private static long connectTimeoutSeconds;
+
+    // Option to specify how long to wait for a single GraphQL request.
+    @Option(names = "--request-timeout", description = "Request timeout in seconds (default: ${DEFAULT-VALUE})", defaultValue = "30")
+    private static long requestTimeoutSeconds;
+
+    // Option to specify how often a throttled, unavailable or failed request is retried.
+    @Option(names = "--retries", description = "Retries of a throttled or failed request (default: ${DEFAULT-VALUE})", defaultValue = "2")
+    private static int retries;
+
+    // Option to send a duplicate of a request that is slower than the p95 latency of earlier requests.
+    @Option(names = "--hedge", description = "Send a hedged duplicate of requests slower than the p95 latency")
+    private static boolean isHedge;
+
+    // Option to specify where the course list is cached between runs.
+    @Option(names = "--cache-dir", description = "Directory for the local course cache (default: ~/.canvasgraphql/cache)")
+    private static Path cacheDirectory;
+
+    // Option to specify how long a cached course list stays valid.
+    @Option(names = "--cache-ttl", description = "Minutes a cached course list stays valid (default: ${DEFAULT-VALUE})", defaultValue = "1440")
+    private static long cacheTtlMinutes;
+
+    // Option to ignore the cached course list and fetch it again.
+    @Option(names = "--refresh", description = "Fetch the course list again and refresh the local cache")
+    private static boolean isRefresh;
+
+    // Option to use only the cached course list, whatever its age, without contacting Canvas for it.
+    @Option(names = "--offline", description = "Use the cached course list only")
+    private static boolean isOffline;
+
+    // Option to send operations as the hash of their document first, for endpoints with automatic persisted queries.
+    @Option(names = "--persisted-queries", description = "Send the hash of each query instead of the query once the endpoint knows it")
+    private static boolean isPersistedQueries;
+
+    // Option to hand a response to identical requests made shortly after it arrived, requests in flight are always shared.
+    @Option(names = "--reuse-window-ms", description = "Milliseconds a response is reused for identical requests (default: ${DEFAULT-VALUE})", defaultValue = "0")
+    private static long reuseWindowMillis;
+
+    // Option to print where the time and bytes of the command went once it has finished.
+    @Option(names = "--stats", description = "Print the time spent per phase and the bytes received")
+    private static boolean isStats;
+
+    // Option to print the time spent in each startup phase once the command has finished.
+    @Option(names = "--startup-trace", description = "Print the time spent in each startup phase")
+    private static boolean isStartupTrace;
+
+    // Course indexes kept for reuse by later runs in the same process, keyed by course cache file
+    private static final ConcurrentMap<Path, CourseIndex> courseIndexes = new ConcurrentHashMap<>();
+
+    // Destination of the command output, replaced per command when running inside the daemon
+    private static PrintWriter out = new PrintWriter(System.out, true);
+    // Raw stream under out, the output sinks write to it directly
+    private static OutputStream outStream = System.out;
+
+    // Command model, built by reflection once per process and reused for every command line
+    private static CommandLine commandLine;
+
+    // Directory relative path options are resolved against, the client's working directory inside the daemon
+    private static Path workingDirectory = Path.of("");
+
+    // Subcommands the daemon does not run for its clients
+    private static final Set<String> NOT_FOR_DAEMON = Set.of("daemon", "mock-server", "load");
+
     public static void main(String[] args) {
         // The main method that serves as the entry point of the application.
-        new CommandLine(new CanvasGraphQlApplication()).execute(args);
+        StartupTrace.mainEntered();
+        // A leading --via-daemon[=<socket path or port>] forwards the rest of the arguments to a running daemon.
+        if (args.length > 0 && (args[0].equals("--via-daemon") || args[0].startsWith("--via-daemon="))) {
+            String address = args[0].contains("=") ? args[0].substring(args[0].indexOf('=') + 1) : null;
+            String[] forwarded = Arrays.copyOfRange(args, 1, args.length);
+            Integer exitCode = DaemonClient.forward(address == null ? DaemonServer.defaultSocket().toString() : address, forwarded);
+            // Run the command in this process when no daemon is reachable
+            System.exit(exitCode != null ? exitCode : execute(forwarded, new FileOutputStream(FileDescriptor.out), new PrintWriter(System.err, true)));
+        }
+        execute(args, new FileOutputStream(FileDescriptor.out), new PrintWriter(System.err, true));
+    }
+
+    // Parses and runs one command line, writing its output to the given stream and writer, and returns the exit code.
+    // The options are held in static fields, so callers running several commands (the daemon) run them one at a time.
+    static int execute(String[] args, OutputStream commandOut, PrintWriter commandErr) {
+        return execute(args, Path.of(""), commandOut, commandErr);
+    }
+
+    // Like execute, resolving relative path options (--output, --cache-dir, ...) against the given directory.
+    static int execute(String[] args, Path directory, OutputStream commandOut, PrintWriter commandErr) {
+        StartupTrace.executeStarted();
+        workingDirectory = directory;
+        outStream = commandOut;
+        out = StartupTrace.watchFirstOutput(new PrintWriter(new OutputStreamWriter(commandOut, StandardCharsets.UTF_8)));
+        // What the metrics held before this command, so --stats only shows this command
+        Map<Metrics.Metric, Histogram.Snapshot> before = Metrics.snapshot();
+        Metrics.Timer command = Metrics.start(Metrics.Metric.COMMAND);
+        try {
+            return commandLine()
+                    .setOut(out)
+                    .setErr(commandErr)
+                    .execute(args);
+        } finally {
+            out.flush();
+            command.stop();
+            // The reports go to the error output so they never mix with the command output
+            if (isStartupTrace) {
+                StartupTrace.report(commandErr);
+            }
+            if (isStats) {
+                Metrics.report(commandErr, before);
+            }
+            commandErr.flush();
+        }
+    }
+
+    // Runs a command line sent by a daemon client like execute, refusing the subcommands the daemon does not run:
+    // daemon and mock-server never finish and load starts its own runs, so they would hold up every other client.
+    static int executeForClient(String[] args, Path directory, OutputStream commandOut, PrintWriter commandErr) {
+        String subcommand = subcommandOf(args);
+        // Handle subcommands that only run in their own process
+        if (subcommand != null && NOT_FOR_DAEMON.contains(subcommand)) {
+            commandErr.println("The daemon does not run " + subcommand + ", run it without --via-daemon.");
+            commandErr.flush();
+            return 2;
+        }
+        return execute(args, directory, commandOut, commandErr);
+    }
+
+    // Returns the name of the subcommand of the command line, null if it has none or cannot be parsed.
+    private static String subcommandOf(String[] args) {
+        try {
+            CommandLine.ParseResult result = commandLine().parseArgs(args);
+            return result.hasSubcommand() ? result.subcommand().commandSpec().name() : null;
+        }
+        // Handle command lines that cannot be parsed, execute reports them
+        catch (CommandLine.PicocliException e) {
+            return null;
+        }
+    }
+
+    // Returns the command model, building it on first use.
+    private static synchronized CommandLine commandLine() {
+        if (commandLine == null) {
+            commandLine = new CommandLine(new CanvasGraphQlApplication()).setCaseInsensitiveEnumValuesAllowed(true);
+            // Path options are relative to the directory of the command, which is not the daemon's own
+            commandLine.registerConverter(Path.class, value -> workingDirectory.resolve(value));
+        }
+        return commandLine;
+    }
+
+    // Checks that a token was given, commands that talk to Canvas call this before doing anything else.
+    private static void requireToken(CommandSpec spec) {
+        // Handle case where token is null or empty
+        if (token == null || token.trim().isEmpty()) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Missing required option: '--token=<token>'");
+        }
+    }
+
+    // Creates a connection on the shared transport for the endpoint using the configured timeouts.
+    private static GraphQlConnect connect() {
+        return connect(token);
+    }
+
+    // Creates a connection for the given token, used by export to give every tenant its own connection.
+    private static GraphQlConnect connect(String token) {
+        GraphQlConnect connection = new GraphQlConnect(token, endpoint, Duration.ofSeconds(connectTimeoutSeconds), Duration.ofSeconds(requestTimeoutSeconds));
+        connection.setResiliencePolicy(ResiliencePolicy.defaults().withMaxRetries(retries).withHedging(isHedge));
+        connection.setPersistedQueries(isPersistedQueries);
+        connection.setReuseWindow(Duration.ofMillis(Math.max(0, reuseWindowMillis)));
+        return connection;
+    }
+
+    // Returns the directory of the local course cache and sync snapshot.
+    private static Path cacheDirectory() {
+        return cacheDirectory != null ? cacheDirectory : Path.of(System.getProperty("user.home"), ".canvasgraphql", "cache");
+    }
+
+    // Returns the local course cache for the query, endpoint and token.
+    private static CourseCache courseCache(String query) {
+        return new CourseCache(cacheDirectory(), endpoint, token, query);
+    }
+
+    // Receives the response to the request at the given position of sendAll, null if the request failed.
+    private interface ResponseHandler {
+        void handle(int index, String response) throws IOException;
+    }
+
+    // Sends the batched operation once per chunk of ids, as many at a time as Canvas's rate limit headers allow and at most maxConcurrency.
+    // batch returns the operation for a chunk size, the ids are passed as the alias variables prefix1, prefix2, ...
+    // next to the shared variables every chunk gets (e.g. $first).
+    // The responses are handed to the handler on this thread in the order of the chunks, while later ones are still in flight.
+    private static void sendAll(GraphQlConnect connection, IntFunction<GraphQlOperation> batch, String prefix, List<List<String>> chunks, Map<String, ?> shared,
+                                int maxConcurrency, ResponseHandler handler) throws IOException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(Math.min(2, maxConcurrency), maxConcurrency);
+        connection.setResponseListener(limiter);
+        Metrics.addLimiter(limiter);
+        List<Callable<String>> requests = new ArrayList<>(chunks.size());
+        chunks.forEach(chunk -> {
+            Map<String, Object> variables = QueryRegistry.aliasVariables(prefix, chunk);
+            variables.putAll(shared);
+            requests.add(() -> connection.send(batch.apply(chunk.size()), variables));
+        });
+        try (FanOutExecutor fanOut = new FanOutExecutor(limiter)) {
+            List<CompletableFuture<String>> responses = fanOut.submitAll(requests);
+            for (int i = 0; i < responses.size(); i++) {
+                handler.handle(i, responses.get(i).join());
+            }
+        } finally {
+            connection.setResponseListener(null);
+            Metrics.removeLimiter(limiter);
+            logger.log(Level.FINE, "Fan-out finished with limit " + limiter.getLimit() + ", " + limiter.getThrottled() + " throttled responses"); // Logging the final concurrency
+        }
+    }
+
+    // Parses a response that was received in full, timed as the parse phase.
+    private static <T> T parse(Class<T> type, String response) throws IOException {
+        Metrics.Timer parse = Metrics.start(Metrics.Metric.PARSE);
+        try {
+            return ObjectMappers.reader(type).readValue(response);
+        } finally {
+            parse.stop();
+        }
+    }
+
+    // Logs the GraphQL errors of a batched response, the aliases that resolved are used anyway.
+    private static void logBatchErrors(List<GetResponses.GraphQlError> errors) {
+        // Handle case where every alias resolved
+        if (errors == null || errors.isEmpty()) {
+            return;
+        }
+        errors.forEach(error -> logger.log(Level.WARNING, "Part of a batched request failed: " + error)); //log as warning, only the failed aliases are missing
+    }
+
+    // Splits the values into consecutive chunks of at most chunkSize values.
+    private static List<List<String>> chunks(List<String> values, int chunkSize) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int start = 0; start < values.size(); start += chunkSize) {
+            chunks.add(values.subList(start, Math.min(start + chunkSize, values.size())));
+        }
+        return chunks;
+    }
+
+    // Returns an index over the course list, reusing the one built by an earlier run in this process while it is fresh.
+    // When the list is streamed from Canvas, every course is also passed to the observer (if any) as soon as it is parsed.
+    // Lists from the cache or an index kept in memory are already complete and never reach the observer.
+    // Returns null if no course list could be read, the reason has already been printed or logged.
+    private static CourseIndex loadCourseIndex(GraphQlConnect connection, Consumer<GetResponses.CourseData.Course> observer) throws IOException {
+        CourseCache cache = courseCache(QueryRegistry.COURSES.getDocument());
+        Path key = cache.getFile();
+        CourseIndex index = courseIndexes.get(key);
+        // Reuse the index under the same rules as the on-disk cache
+        if (index != null && !isRefresh && (isOffline || index.getAge().compareTo(Duration.ofMinutes(cacheTtlMinutes)) < 0)) {
+            return index;
+        }
+        List<GetResponses.CourseData.Course> allCourses = new ArrayList<>();
+        if (!streamCourses(connection, isRefresh, course -> true, allCourses::add, observer, cache)) {
+            return null;
+        }
+        // The index is as fresh as the list it was built from, which may have come from the cache
+        index = new CourseIndex(allCourses, cache.getWrittenAt());
+        courseIndexes.put(key, index);
+        return index;
+    }
+
+    // Opens a sink writing the format to the output file, or to the command output when there is none.
+    // Lines already printed to the command output are flushed first so the sink's output comes after them.
+    private static OutputSink openSink(OutputSink.Format format, Path output) throws IOException {
+        // The sink owns a file channel and closes it with itself
+        if (output != null) {
+            return OutputSink.open(format, FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), true);
+        }
+        out.flush();
+        WritableByteChannel channel = Channels.newChannel(outStream);
+        return OutputSink.open(format, new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer source) throws IOException {
+                StartupTrace.outputWritten();
+                int written = channel.write(source);
+                outStream.flush();
+                return written;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return channel.isOpen();
+            }
+
+            @Override
+            public void close() {
+                // Nothing to close, the command output stays open for the next command
+            }
+        }, false);
+    }
+
+    // Streams the course list to the sink, taking it from the local cache while it is fresh.
+    // Otherwise the list is streamed from Canvas and the cache is refreshed.
+    // The ObjectMapper is only built when the list has to be parsed, cached runs never load it.
+    // Returns false if no course list could be read, the reason has already been printed or logged.
+    private static boolean streamCourses(GraphQlConnect connection, Predicate<GetResponses.CourseData.Course> filter, Consumer<GetResponses.CourseData.Course> sink) throws IOException {
+        return streamCourses(connection, isRefresh, filter, sink);
+    }
+
+    // Streams the course list to the sink, from Canvas when refresh is set and otherwise as above.
+    private static boolean streamCourses(GraphQlConnect connection, boolean refresh, Predicate<GetResponses.CourseData.Course> filter, Consumer<GetResponses.CourseData.Course> sink) throws IOException {
+        return streamCourses(connection, refresh, filter, sink, null, courseCache(QueryRegistry.COURSES.getDocument()));
+    }
+
+    // Streams the course list as above through the given cache, also passing every course streamed from Canvas to the observer (if any) as it arrives.
+    // Afterwards the cache's write time is the time the streamed list was written.
+    private static boolean streamCourses(GraphQlConnect connection, boolean refresh, Predicate<GetResponses.CourseData.Course> filter,
+            Consumer<GetResponses.CourseData.Course> sink, Consumer<GetResponses.CourseData.Course> observer, CourseCache cache) throws IOException {
+        // Use the cached list unless a refresh was asked for, offline runs accept it at any age
+        if (!refresh) {
+            List<GetResponses.CourseData.Course> cached = cache.read(isOffline ? null : Duration.ofMinutes(cacheTtlMinutes));
+            if (cached != null) {
+                cached.stream().filter(filter).forEach(sink);
+                return true;
+            }
+        }
+        // Handle offline runs without a cached list
+        if (isOffline) {
+            out.println("No cached course list is available for offline use.");
+            return false;
+        }
+        // Sending the GraphQL query and reading the response as it arrives.
+        try (InputStream response = connection.sendStream(QueryRegistry.COURSES, Map.of())) {
+            // Ensuring the response is not null, the error has already been logged
+            if (response == null) {
+                return false;
+            }
+            // Keep every course for the cache while passing the matching ones on straight away
+            List<GetResponses.CourseData.Course> allCourses = new ArrayList<>();
+            int count = new StreamingResponseParser(ObjectMappers.get()).streamCourses(response, course -> true, course -> {
+                allCourses.add(course);
+                if (observer != null) {
+                    observer.accept(course);
+                }
+                if (filter.test(course)) {
+                    sink.accept(course);
+                }
+            });
+            // Handle responses without a course list, e.g. GraphQL errors, they must not be cached as an empty list
+            if (count < 0) {
+                logger.log(Level.SEVERE, "The course list response has no data.allCourses"); //log as severe
+                return false;
+            }
+            cache.write(allCourses);
+            // An index built from an older list is out of date now
+            courseIndexes.remove(cache.getFile());
+            return true;
+        }
     }
     // Subcommand to list courses.
     @Command(name = "list-courses", description = "Lists courses")
     // set class as protected to be only accessed within the current package
     protected static class ListCoursesCommand implements Runnable {
         // Implements Runnable to be executed as a command.
+        // Injected by picocli, used to report invalid input.
+        @Spec
+        private CommandSpec spec;
+
         @Option(names = "--active", description = "List only active courses")
         // Option to filter and list only active courses.
         private static boolean isCourseActive;
@@ -66,63 +473,63 @@ public class CanvasGraphQlApplication {
         // Option to filter and list only non-active courses.
         private static boolean isCourseNonactive;
 
-        // Variable to keep track of activeCourses
-        private static boolean activeterm;
-        
-        // Variable to keep track of default term
-        private static boolean defaultterm;
+        // Option to choose how the courses are written.
+        @Option(names = "--format", description = "Output format: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})", defaultValue = "TEXT")
+        private static OutputSink.Format format;
 
-        // Variable to keep track of termName
-        private static String termName;
+        // Option to write the courses to a file instead of the standard output.
+        @Option(names = "--output", description = "File the courses are written to instead of the standard output")
+        private static Path output;
 
         @Override
         // The core logic for listing courses based on the specified filters.
         public void run() {
-            // ObjectMapper instance for parsing JSON responses.
-            ObjectMapper objectMapper = new ObjectMapper();
-            try {
-                // Preparing the GraphQL query to fetch courses.
-                String query = new GraphQlQueries().GetCoursesquery();
-                // Sending the GraphQL query and receiving the response.
-                String response = new GraphQlConnect(token, endpoint).sendCourseQuery(query);
-                // Parsing the JSON response into Java objects.
-                var data = objectMapper.readValue(response, GetResponses.CourseData.class);
-                // Ensuring data is not null
-                if(data != null) {
-                    // Extracting the list of courses from the parsed data.
-                    var allCourses = data.getData().getAllCourses();
-                    // Ensuring allCourses is not null
-                    if(allCourses != null) {
-                        // Looping through each course to filter and print based on the active status.
-                        allCourses.forEach(course -> {
-                            // get term name and see if its null
-                            if (course != null && course.getTerm() != null && course.getTerm().getName() != null) {
-                                // Checking if the course term is "Spring 2024" to determine if it's active
-                                activeterm = course.getTerm().getName().equals("Spring 2024");
-                                // Checking if the course term is "Default"
-                                defaultterm = course.getTerm().getName().equals("Default Term");
-                                // Get the current term name
-                                termName = course.getTerm().getName();
-                                //check whether we need to print or not
-                                boolean shouldPrintData = !defaultterm && (isCourseNonactive ? !activeterm : activeterm);
-                                if (shouldPrintData && (course.getName() != null)) {
-                                    // Filtering courses based on the active/non-active flags and printing them.
-                                    System.out.println(course.getName());
-                                }
-                            }
-                        });
-                    }
-                }
+            StartupTrace.commandStarted();
+            requireToken(spec);
+            try (OutputSink sink = openSink(format, output)) {
+                // Filtering courses based on the active/non-active flags and writing them while the courses are read.
+                long now = Instant.now().getEpochSecond();
+                streamCourses(connect(), course -> isCourseWanted(course, now),
+                        course -> sink.course(course.getName(), course.getId(), course.getTerm().getName()));
                 // Handling exceptions that might occur during the operation.
                 // Handle JSONProcessingException
             } catch (JsonProcessingException  e) {
-                logger.log(Level.SEVERE, "A JSONProcessingException error occurred", e.getMessage()); // Log the error that occurred alongside the type of exception, this is severe
+                logger.log(Level.SEVERE, "A JSONProcessingException error occurred", e); // Log the error that occurred alongside the type of exception, this is severe
             }   // Handle general exception
               catch (Exception e) {
-                logger.log(Level.SEVERE, "Unexpected error occurred when getting courses", e.getMessage()); // Log the error that occurred alongside the type of exception, this is severe
+                logger.log(Level.SEVERE, "Unexpected error occurred when getting courses", e); // Log the error that occurred alongside the type of exception, this is severe
             }
 
         }
+
+        // Checks whether a course should be printed based on its term and the active flags.
+        private static boolean isCourseWanted(GetResponses.CourseData.Course course, long now) {
+            // get term name and see if its null
+            if (course.getName() == null || course.getTerm() == null || course.getTerm().getName() == null) {
+                return false;
+            }
+            // Checking if the course term is running now to determine if it's active
+            boolean activeterm = isTermActive(course.getTerm(), now);
+            // Checking if the course term is "Default"
+            boolean defaultterm = course.getTerm().getName().equals("Default Term");
+            //check whether we need to print or not
+            return !defaultterm && (isCourseNonactive ? !activeterm : activeterm);
+        }
+
+        // A term is active from its start to its end, a missing date leaves that side open.
+        // Terms without any dates never end, so they count as active.
+        static boolean isTermActive(GetResponses.CourseData.Course.Term term, long now) {
+            try {
+                boolean started = term.getStartAt() == null || AssignmentStore.parseEpochSecond(term.getStartAt()) <= now;
+                boolean ended = term.getEndAt() != null && AssignmentStore.parseEpochSecond(term.getEndAt()) < now;
+                return started && !ended;
+            }
+            // Handle term dates in a form that is not understood
+            catch (DateTimeParseException e) {
+                logger.log(Level.WARNING, "Ignoring unreadable dates of term " + term.getName(), e); //log as warning, the term is treated as inactive
+                return false;
+            }
+        }
     }
 
     // Subcommand to list assignments for a specific course.
@@ -133,15 +540,38 @@ public class CanvasGraphQlApplication {
     // set class as protected to be only accessed within the current package
     protected static class ListAssignmentsCommand implements Runnable {
         // Implements Runnable to be executed as a command.
-
-        private static String id; // Holds the ID of a course once it's determined.
-        // A list to store courses that match the user input.
-        private static final List<GetResponses.CourseData.Course> matchingCourses = new ArrayList<>();
+        // Injected by picocli, used to report invalid input.
+        @Spec
+        private CommandSpec spec;
 
         // Marks the first CLI parameter as the course name. Picocli uses this to parse command-line inputs.
-        @Parameters(index = "0", description = "Course name")
+        @Parameters(index = "0", arity = "0..1", description = "Course name")
         private static String courseNameEntered;
 
+        // Defines a command-line option to give the course id, the assignments are then the only request.
+        @Option(names = {"--course-id"}, description = "Id of the course, skips looking the course up by name")
+        private static String courseIdEntered;
+
+        // Defines a command-line option to list the assignments of every course instead of one.
+        @Option(names = {"--all-courses"}, description = "List assignments for all courses")
+        private static boolean isAllCourses;
+
+        // Defines how many courses are fetched together in one batched request.
+        @Option(names = {"--chunk-size"}, description = "Courses per batched request with --all-courses (default: ${DEFAULT-VALUE})", defaultValue = "10")
+        private static int chunkSize;
+
+        // Defines the most batched requests that may be in flight at once.
+        @Option(names = {"--max-concurrency"}, description = "Most requests in flight at once with --all-courses (default: ${DEFAULT-VALUE})", defaultValue = "8")
+        private static int maxConcurrency;
+
+        // Defines how many assignments are requested per page.
+        @Option(names = {"--page-size"}, description = "Assignments per page (default: ${DEFAULT-VALUE})", defaultValue = "50")
+        private static int pageSize;
+
+        // Defines how the course name is matched against the course list.
+        @Option(names = {"--match"}, description = "How the course name is matched: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})", defaultValue = "SUBSTRING")
+        private static CourseIndex.MatchMode matchMode;
+
         // Defines a command-line option to filter for only active assignments.
         @Option(names = {"--active"}, description = "List only active assignments")
         private static boolean isAssignmentActive;
@@ -150,99 +580,878 @@ public class CanvasGraphQlApplication {
         @Option(names = {"--no-active"}, description = "List non active assignments")
         private static boolean isAssignmentNonactive;
 
+        // Defines a command-line option to list the assignments due between two dates or date-times.
+        @Option(names = {"--due-between"}, arity = "2", paramLabel = "<date>",
+                description = "List assignments due between two dates (2024-03-01) or date-times (2024-03-01T12:00:00Z), both inclusive")
+        private static String[] dueBetween;
+
+        // Due date range of --due-between in epoch seconds, null without it
+        private static long[] dueRange;
+
+        // Defines how the assignments are written.
+        @Option(names = {"--format"}, description = "Output format: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})", defaultValue = "TEXT")
+        private static OutputSink.Format format;
+
+        // Defines a file the assignments are written to instead of the standard output.
+        @Option(names = {"--output"}, description = "File the assignments are written to instead of the standard output")
+        private static Path output;
+
         @Override
         // This method contains the logic executed by the command.
         public void run() {
-            // ObjectMapper is used for parsing JSON data.
-            ObjectMapper objectMapper = new ObjectMapper();
+            StartupTrace.commandStarted();
+            requireToken(spec);
+            // Check the due date range before any request is sent
+            dueRange = dueBetween == null ? null : new long[]{parseDueBound(dueBetween[0], false), parseDueBound(dueBetween[1], true)};
+            // Handle case where neither a course name, a course id nor --all-courses is given
+            if (courseNameEntered == null && courseIdEntered == null && !isAllCourses) {
+                out.println("Enter a course name or use --course-id or --all-courses.");
+                return;
+            }
             try {
-                // Prepares the GraphQL query to fetch courses.
-                String Coursesquery = new GraphQlQueries().GetCoursesquery();
-                // Executes the GraphQL query using a custom client and stores the response.
-                String init_response = new GraphQlConnect(token, endpoint).sendCourseQuery(Coursesquery);
-                // Parses the JSON response into Java objects.
-                var data = objectMapper.readValue(init_response, GetResponses.CourseData.class);
-                //Ensuring data is not null
-                if(data != null) {
-                    // Extracts the courses from the response data.
-                    var allCourses = data.getData().getAllCourses();
-                    //Ensuring all courses is not null
-                    if (allCourses != null) {
-                        // Filtering logic to find courses that match the user's input.
-                        allCourses.forEach(course -> {
-                            if (course != null && course.getName() != null && course.getName().toLowerCase().contains(courseNameEntered.toLowerCase())) {
-                                matchingCourses.add(course);
+                // One connection for both requests so they share the same HTTP/2 session.
+                GraphQlConnect connection = connect();
+                // Every course was requested, so fetch them in batches and stop here.
+                if (isAllCourses) {
+                    List<GetResponses.CourseData.Course> allCourses = new ArrayList<>();
+                    if (streamCourses(connection, course -> true, allCourses::add)) {
+                        listAllCourseAssignments(connection, allCourses);
+                    }
+                    return;
+                }
+                // A known course id needs no course lookup, its assignments are the only request
+                AssignmentPager pager = courseIdEntered != null
+                        ? new AssignmentPager(connection, ObjectMappers.get(), courseIdEntered, pageSize)
+                        : findCourse(connection);
+                // Handle case where the course could not be found, the reason has already been reported
+                if (pager == null) {
+                    return;
+                }
+
+                // Without --due-between the assignments are written as each page arrives, in the order Canvas sends them
+                if (dueRange == null) {
+                    printAssignments(pager);
+                    return;
+                }
+                // A due date range is looked up in the assignments sorted by due date, so they are collected first
+                AssignmentStore.Builder assignments = new AssignmentStore.Builder();
+                pager.stream().forEach(node -> assignments.add(null, node));
+                // Filtering and printing assignments based on their active status.
+                printAssignments(assignments.build());
+            // Handling exceptions that might occur during the operation.
+            // Handle JSONProcessingException
+            } catch (JsonProcessingException  e) {
+                logger.log(Level.SEVERE, "A JSONProcessingException error occurred", e); // Log the error that occurred alongside the type of exception, this is severe
+            }   // Handle general exception
+            catch (Exception e) {
+                logger.log(Level.SEVERE, "Unexpected error occurred when geting assignments", e); // Log the error that occurred alongside the type of exception, this is severe
+            }
+        }
+
+        // Finds the one course matching the name entered and returns a pager over its assignments.
+        // While the course list streams in from Canvas, the first page of the first matching course is requested
+        // right away, so it is on its way while the rest of the list arrives. The request is dropped if that
+        // course turns out not to be the only match. A cached list is matched first and needs no early request.
+        // Returns null when there is no single match, after saying why.
+        private static AssignmentPager findCourse(GraphQlConnect connection) throws IOException {
+            String query = CourseIndex.normalize(courseNameEntered);
+            // Pager of the first match seen while the list was streamed, null until then
+            AtomicReference<AssignmentPager> speculative = new AtomicReference<>();
+            // Fuzzy matches are only known once every course has been seen, so they are not requested early
+            Consumer<GetResponses.CourseData.Course> observer = matchMode == CourseIndex.MatchMode.FUZZY ? null : course -> {
+                if (speculative.get() == null && course.getId() != null && CourseIndex.matches(course.getName(), query, matchMode)) {
+                    speculative.set(new AssignmentPager(connection, ObjectMappers.get(), course.getId(), pageSize));
+                }
+            };
+            // Index over the course list, used to find the courses that match the user's input.
+            CourseIndex courseIndex = loadCourseIndex(connection, observer);
+            // A list to store courses that match the user input.
+            List<GetResponses.CourseData.Course> matchingCourses = courseIndex == null ? List.of() : courseIndex.find(courseNameEntered, matchMode);
+            // Get the id from matchingCourses List
+            String id = matchingCourses.size() == 1 ? matchingCourses.get(0).getId() : null;
+            AssignmentPager pager = speculative.get();
+            // Use the early request when it was for the right course, drop it otherwise
+            if (pager != null && pager.getCourseId().equals(id)) {
+                return pager;
+            }
+            if (pager != null) {
+                pager.cancel();
+            }
+            // Handle case where the course list could not be read, the reason has already been reported
+            if (courseIndex == null) {
+                return null;
+            }
+            // Handle multiple matches for course names.
+            if (matchingCourses.size() > 1) {
+                out.println("Matches are not unique");
+                matchingCourses.forEach(course -> out.println(course.getName()));
+                return null;
+            }
+            // Handle no matches for course names.
+            if (matchingCourses.isEmpty()) {
+                out.println("Course could not be found with the course substring entered.");
+                return null;
+            }
+            // Handle no course ID found
+            if (id == null) {
+                out.println("No course ID found.");
+                return null;
+            }
+            return new AssignmentPager(connection, ObjectMappers.get(), id, pageSize);
+        }
+
+        // Writes the assignments of the store that pass the active flags and --due-between, in due date order,
+        // in the --format to the --output. Assignments due now or later are active, the others are not.
+        private static void printAssignments(AssignmentStore store) throws IOException {
+            Metrics.Timer timer = Metrics.start(Metrics.Metric.OUTPUT);
+            // First assignment that is still active, everything before it is past
+            int firstActive = store.lowerBound(Instant.now().getEpochSecond());
+            int from = 0;
+            int to = store.size();
+            // Without --due-between only active assignments are listed unless --no-active is given
+            if (isAssignmentNonactive) {
+                to = firstActive;
+            } else if (isAssignmentActive || dueRange == null) {
+                from = firstActive;
+            }
+            if (dueRange != null) {
+                from = Math.max(from, store.lowerBound(dueRange[0]));
+                to = Math.min(to, store.upperBound(dueRange[1]));
+            }
+            try (OutputSink sink = openSink(format, output)) {
+                for (int i = from; i < to; i++) {
+                    sink.assignment(store.getCourseName(i), store.getName(i), store.getDueAt(i));
+                }
+            } finally {
+                timer.stop();
+            }
+        }
+
+        // Writes the assignments of one course that pass the active flags in the --format to the --output, one page at a time
+        // as the pager reads them. Assignments due now or later are active, the others are not.
+        private static void printAssignments(AssignmentPager pager) throws IOException {
+            long now = Instant.now().getEpochSecond();
+            // Time spent filtering and printing, without the time spent waiting for pages
+            long busyNanos = 0;
+            try (OutputSink sink = openSink(format, output)) {
+                while (pager.hasNext()) {
+                    long start = System.nanoTime();
+                    GetResponses.Root.Data.Course.AssignmentsConnection.Node node = pager.next();
+                    long dueEpochSecond = AssignmentStore.dueEpochSecond(node);
+                    // Skip assignments that cannot be listed and those on the other side of now
+                    if (dueEpochSecond != Long.MIN_VALUE && (isAssignmentNonactive ? dueEpochSecond < now : dueEpochSecond >= now)) {
+                        sink.assignment(null, node.getAssignmentName(), node.getDueAt());
+                    }
+                    busyNanos += System.nanoTime() - start;
+                }
+            } finally {
+                Metrics.record(Metrics.Metric.OUTPUT, busyNanos);
+            }
+        }
+
+        // Reads a --due-between bound, a plain date covers the whole UTC day.
+        private long parseDueBound(String value, boolean isEnd) {
+            try {
+                // A plain date starts (or ends) at midnight UTC
+                if (value.length() == 10) {
+                    LocalDate date = LocalDate.parse(value);
+                    return (isEnd ? date.plusDays(1) : date).atStartOfDay().toEpochSecond(ZoneOffset.UTC) - (isEnd ? 1 : 0);
+                }
+                return AssignmentStore.parseEpochSecond(value);
+            }
+            // Handle dates in a form that is not understood
+            catch (DateTimeParseException e) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "Invalid --due-between value: '" + value + "'");
+            }
+        }
+
+        // Lists the assignments of every course, fetching chunkSize courses per aliased request.
+        private static void listAllCourseAssignments(GraphQlConnect connection, List<GetResponses.CourseData.Course> allCourses) throws IOException {
+            // Handle case where the chunk size, concurrency or page size is not usable
+            if (chunkSize < 1 || maxConcurrency < 1 || pageSize < 1) {
+                out.println("Chunk size, concurrency and page size must be at least 1.");
+                return;
+            }
+            // Collect the ids of all courses that have one
+            List<String> courseIds = new ArrayList<>();
+            allCourses.forEach(course -> {
+                if (course != null && course.getId() != null) {
+                    courseIds.add(course.getId());
+                }
+            });
+            // Send one batched request per chunk of courses and collect the chunks in the order they were requested,
+            // while later chunks are still in flight
+            AssignmentStore.Builder assignments = new AssignmentStore.Builder();
+            sendAll(connection, QueryRegistry::batchAssignments, "c", chunks(courseIds, chunkSize), Map.of("first", pageSize), maxConcurrency, (index, response) -> {
+                // Skip the chunk if the request failed, the error has already been logged
+                if (response == null) {
+                    return;
+                }
+                GetResponses.BatchRoot batch = parse(GetResponses.BatchRoot.class, response);
+                logBatchErrors(batch == null ? null : batch.getErrors());
+                // Ensure the batch and its data are not null
+                if (batch == null || batch.getData() == null) {
+                    return;
+                }
+                // Add the assignments of each aliased course in the order they were requested
+                batch.getData().values().forEach(course -> {
+                    if (course == null || course.getAssignmentsConnection() == null) {
+                        return;
+                    }
+                    // The batch only holds the first page, the later ones are requested for this course alone
+                    List<GetResponses.Root.Data.Course.AssignmentsConnection.Node> nodes = AssignmentPager.allPages(connection, ObjectMappers.get(),
+                            QueryRegistry.ASSIGNMENTS_PAGE, course.getId(), pageSize, course.getAssignmentsConnection());
+                    // Handle courses whose later pages could not be read, their first page is still listed
+                    if (nodes == null) {
+                        logger.log(Level.WARNING, "Could not read every assignment of course " + course.getId() + ", only the first page is listed"); //log as warning
+                        nodes = course.getAssignmentsConnection().getNodes();
+                    }
+                    assignments.addAll(course.getName(), nodes);
+                });
+            });
+            // Print the assignments of every course together, in due date order
+            printAssignments(assignments.build());
+        }
+    }
+
+    // Subcommand to sync courses and assignments into a local snapshot and list what changed.
+    // Canvas's GraphQL schema cannot filter assignments by update time, so a sync first asks for the id and
+    // updatedAt of every assignment only, then fetches the assignments that are new or changed by id.
+    @Command(name = "sync", description = "Syncs courses and assignments into a local snapshot and lists what changed since the last sync")
+    // set class as protected to be only accessed within the current package
+    protected static class SyncCommand implements Runnable {
+        //Assignments fetched per request in the second pass
+        private static final int ASSIGNMENTS_PER_REQUEST = 50;
+
+        // Injected by picocli, used to report invalid input.
+        @Spec
+        private CommandSpec spec;
+
+        // Defines how many courses are checked together in one batched request.
+        @Option(names = {"--chunk-size"}, description = "Courses per batched request (default: ${DEFAULT-VALUE})", defaultValue = "10")
+        private static int chunkSize;
+
+        // Defines the most batched requests that may be in flight at once.
+        @Option(names = {"--max-concurrency"}, description = "Most requests in flight at once (default: ${DEFAULT-VALUE})", defaultValue = "8")
+        private static int maxConcurrency;
+
+        // Defines how many assignment versions are requested per page of a course.
+        @Option(names = {"--page-size"}, description = "Assignment versions per page (default: ${DEFAULT-VALUE})", defaultValue = "100")
+        private static int pageSize;
+
+        @Override
+        // Syncs the snapshot and prints one line per added, changed or removed assignment.
+        public void run() {
+            StartupTrace.commandStarted();
+            requireToken(spec);
+            // Handle case where the chunk size or concurrency is not usable
+            if (chunkSize < 1 || maxConcurrency < 1 || pageSize < 1) {
+                out.println("Chunk size, concurrency and page size must be at least 1.");
+                return;
+            }
+            // Handle offline runs, the changes can only come from Canvas
+            if (isOffline) {
+                out.println("Sync needs Canvas and cannot run with --offline.");
+                return;
+            }
+            try {
+                GraphQlConnect connection = connect();
+                // Names of the courses by id, in course list order
+                // Always from Canvas, a cached list would hide added and dropped courses until it expires, the cache is refreshed on the way
+                Map<String, String> courseNames = new LinkedHashMap<>();
+                if (!streamCourses(connection, true, course -> course.getId() != null, course -> courseNames.put(course.getId(), course.getName()))) {
+                    return;
+                }
+                SyncSnapshot snapshot = new SyncSnapshot(cacheDirectory(), endpoint, token);
+                snapshot.load();
+                List<SyncSnapshot.Delta> deltas = new ArrayList<>();
+                // Courses that are no longer in the course list lose all their assignments
+                snapshot.getCourseIds().stream().filter(id -> !courseNames.containsKey(id)).forEach(id -> deltas.addAll(snapshot.removeCourse(id)));
+
+                // First pass, ids and update times only
+                List<List<String>> courseChunks = chunks(new ArrayList<>(courseNames.keySet()), chunkSize);
+                // Course ids of the assignments that are new or changed, by assignment id
+                Map<String, String> changed = new LinkedHashMap<>();
+                sendAll(connection, QueryRegistry::assignmentVersions, "c", courseChunks, Map.of("first", pageSize), maxConcurrency, (index, response) -> {
+                    // Skip the chunk if the request failed, its courses are checked again by the next sync
+                    if (response == null) {
+                        return;
+                    }
+                    GetResponses.BatchRoot batch = parse(GetResponses.BatchRoot.class, response);
+                    logBatchErrors(batch == null ? null : batch.getErrors());
+                    // Ensure the batch and its data are not null
+                    if (batch == null || batch.getData() == null) {
+                        return;
+                    }
+                    for (Map.Entry<String, GetResponses.Root.Data.Course> aliased : batch.getData().entrySet()) {
+                        GetResponses.Root.Data.Course course = aliased.getValue();
+                        if (course == null || course.getAssignmentsConnection() == null) {
+                            continue;
+                        }
+                        // Aliases are c1, c2, ... in the order of the chunk
+                        String courseId = courseChunks.get(index).get(Integer.parseInt(aliased.getKey().substring(1)) - 1);
+                        snapshot.putCourse(courseId, courseNames.get(courseId));
+                        // The batch only holds the first page, the later ones are requested for this course alone
+                        List<GetResponses.Root.Data.Course.AssignmentsConnection.Node> nodes = AssignmentPager.allPages(connection, ObjectMappers.get(),
+                                QueryRegistry.ASSIGNMENT_VERSIONS_PAGE, courseId, pageSize, course.getAssignmentsConnection());
+                        // Handle courses whose later pages could not be read, removals are only known once every page was seen
+                        boolean complete = nodes != null;
+                        if (!complete) {
+                            logger.log(Level.WARNING, "Could not read every assignment of course " + courseId + ", removals are checked by the next sync"); // Logging the incomplete course
+                            nodes = course.getAssignmentsConnection().getNodes() == null ? List.of() : course.getAssignmentsConnection().getNodes();
+                        }
+                        Set<String> assignmentIds = new HashSet<>();
+                        for (GetResponses.Root.Data.Course.AssignmentsConnection.Node node : nodes) {
+                            if (node == null || node.getId() == null) {
+                                continue;
+                            }
+                            assignmentIds.add(node.getId());
+                            // Fetch assignments that are new, or whose update time moved (or is unknown)
+                            if (node.getUpdatedAt() == null || !node.getUpdatedAt().equals(snapshot.getUpdatedAt(courseId, node.getId()))) {
+                                changed.put(node.getId(), courseId);
                             }
-                        });
-                        // Handle multiple matches for course names.
-                        if (matchingCourses.size() > 1) {
-                            System.out.println("Matches are not unique");
-                            matchingCourses.forEach(course -> System.out.println(course.getName()));
-                            return;
                         }
-                        // Handle no matches for course names.
-                        if (matchingCourses.isEmpty()) {
-                            System.out.println("Course could not be found with the course substring entered.");
+                        if (complete) {
+                            deltas.addAll(snapshot.retainAssignments(courseId, assignmentIds));
+                        }
+                    }
+                });
+
+                // Second pass, the new and changed assignments by id
+                List<List<String>> assignmentChunks = chunks(new ArrayList<>(changed.keySet()), ASSIGNMENTS_PER_REQUEST);
+                sendAll(connection, QueryRegistry::assignmentsById, "a", assignmentChunks, Map.of(), maxConcurrency, (index, response) -> {
+                    // Skip the chunk if the request failed, its assignments are fetched again by the next sync
+                    if (response == null) {
+                        return;
+                    }
+                    GetResponses.AssignmentBatchRoot batch = parse(GetResponses.AssignmentBatchRoot.class, response);
+                    logBatchErrors(batch == null ? null : batch.getErrors());
+                    // Ensure the batch and its data are not null
+                    if (batch == null || batch.getData() == null) {
+                        return;
+                    }
+                    for (Map.Entry<String, GetResponses.Root.Data.Course.AssignmentsConnection.Node> aliased : batch.getData().entrySet()) {
+                        // Skip assignments deleted since the first pass, the next sync removes them
+                        if (aliased.getValue() == null) {
+                            continue;
+                        }
+                        GetResponses.Root.Data.Course.AssignmentsConnection.Node node = aliased.getValue();
+                        // Aliases are a1, a2, ... in the order of the chunk
+                        String assignmentId = assignmentChunks.get(index).get(Integer.parseInt(aliased.getKey().substring(1)) - 1);
+                        SyncSnapshot.Delta delta = snapshot.putAssignment(changed.get(assignmentId),
+                                new SyncSnapshot.Assignment(assignmentId, node.getAssignmentName(), node.getDueAt(), node.getUpdatedAt()));
+                        if (delta != null) {
+                            deltas.add(delta);
+                        }
+                    }
+                });
+
+                // Print the changes, then keep the snapshot for the next sync
+                deltas.forEach(delta -> out.println(delta.getChange().name().toLowerCase(Locale.ROOT) + ": " + delta.getCourseName() + ": "
+                        + delta.getAssignment().getName() + (delta.getAssignment().getDueAt() == null ? "" : " due at " + delta.getAssignment().getDueAt())));
+                snapshot.save();
+                logger.log(Level.FINE, "Sync fetched " + changed.size() + " of " + snapshot.size() + " assignments, " + deltas.size() + " changes"); // Logging how much had to be fetched
+            }
+            // Handle JSONProcessingException
+            catch (JsonProcessingException e) {
+                logger.log(Level.SEVERE, "A JSONProcessingException error occurred", e); // Log the error that occurred alongside the type of exception, this is severe
+            }
+            // Handle general exception
+            catch (Exception e) {
+                logger.log(Level.SEVERE, "Unexpected error occurred during sync", e); // Log the error that occurred alongside the type of exception, this is severe
+            }
+        }
+    }
+
+    // Subcommand to export the courses and assignments of many tenants, each with its own token.
+    // Every tenant is an independent unit on a fixed pool of workers, with its own connection, rate limiter,
+    // circuit breaker and output, so a failing or throttled tenant does not hold up the others. The shared options are only read.
+    // A run takes about (tenants / workers) times the time of one tenant.
+    // Output lines are tab-separated: course, assignment, due date (empty if none), prefixed by the tenant
+    // name in the combined file. Only tenants that finished completely are written: per-tenant files are moved
+    // into place and the lines of a tenant are added to the combined file in one piece at the end.
+    @Command(name = "export", description = "Exports the courses and assignments of every tenant in a token manifest")
+    // set class as protected to be only accessed within the current package
+    protected static class ExportCommand implements Runnable {
+
+        // Injected by picocli, used to report invalid input.
+        @Spec
+        private CommandSpec spec;
+
+        // Defines the manifest with the tenants and their tokens.
+        @Option(names = {"--manifest"}, required = true, description = "File with one '<tenant name> <token>' line per tenant")
+        private static Path manifest;
+
+        // Defines how many tenants are exported at once.
+        @Option(names = {"--workers"}, description = "Tenants exported at once (default: ${DEFAULT-VALUE})", defaultValue = "8")
+        private static int workers;
+
+        // Defines the directory for one output file per tenant.
+        @Option(names = {"--output-dir"}, description = "Directory for one <tenant>.tsv file per tenant")
+        private static Path outputDirectory;
+
+        // Defines one output file for all tenants.
+        @Option(names = {"--output"}, description = "File for the output of all tenants, each line starting with the tenant name")
+        private static Path outputFile;
+
+        // Defines how many courses are requested together in one batched request.
+        @Option(names = {"--chunk-size"}, description = "Courses per batched request (default: ${DEFAULT-VALUE})", defaultValue = "10")
+        private static int chunkSize;
+
+        // Defines the most batched requests of one tenant that may be in flight at once.
+        @Option(names = {"--max-concurrency"}, description = "Most requests in flight at once per tenant (default: ${DEFAULT-VALUE})", defaultValue = "4")
+        private static int maxConcurrency;
+
+        // Defines how many assignments of a course are requested per page.
+        @Option(names = {"--page-size"}, description = "Assignments per page (default: ${DEFAULT-VALUE})", defaultValue = "100")
+        private static int pageSize;
+
+        @Override
+        // Exports every tenant of the manifest and prints one line per tenant as it finishes.
+        public void run() {
+            StartupTrace.commandStarted();
+            // Handle case where the worker count, chunk size, concurrency or page size is not usable
+            if (workers < 1 || chunkSize < 1 || maxConcurrency < 1 || pageSize < 1) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "Workers, chunk size, concurrency and page size must be at least 1");
+            }
+            // Handle case where there is no output, or two of them
+            if ((outputDirectory == null) == (outputFile == null)) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "Give exactly one of --output-dir and --output");
+            }
+            // Handle offline runs, an export always needs Canvas
+            if (isOffline) {
+                out.println("Export needs Canvas and cannot run with --offline.");
+                return;
+            }
+            List<TokenManifest.Tenant> tenants;
+            try {
+                tenants = TokenManifest.read(manifest).getTenants();
+            }
+            //Handle manifests that cannot be used
+            catch (IllegalArgumentException e) {
+                throw new CommandLine.ParameterException(spec.commandLine(), e.getMessage());
+            }
+            //For I/O errors while reading the manifest
+            catch (IOException e) {
+                logger.log(Level.SEVERE, "Could not read the manifest: " + manifest, e); //log as severe
+                return;
+            }
+            long start = System.nanoTime();
+            int exported = 0;
+            ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(workers, tenants.size())), exportWorkers());
+            try (Writer combined = outputFile != null ? Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8) : null) {
+                if (outputDirectory != null) {
+                    Files.createDirectories(outputDirectory);
+                }
+                ExecutorCompletionService<String> exports = new ExecutorCompletionService<>(pool);
+                for (TokenManifest.Tenant tenant : tenants) {
+                    exports.submit(() -> tenant.getName() + ": " + exportTenant(tenant, combined));
+                }
+                // Report the tenants in the order they finish
+                for (int i = 0; i < tenants.size(); i++) {
+                    try {
+                        out.println(exports.take().get());
+                        exported++;
+                    }
+                    // The tenant failed, its error names the tenant
+                    catch (ExecutionException e) {
+                        out.println(e.getCause().getMessage());
+                        logger.log(Level.FINE, "Tenant export failed", e.getCause()); // Logging the cause of the failure
+                    }
+                }
+            }
+            //For I/O errors on the combined output or the output directory
+            catch (IOException e) {
+                logger.log(Level.SEVERE, "I/O error while writing the export", e); //log as severe
+            }
+            //When the thread is interrupted while waiting for the tenants
+            catch (InterruptedException e) {
+                logger.log(Level.SEVERE, "Export was interrupted", e); //log as severe
+                Thread.currentThread().interrupt(); // Proper handling by re-interrupting the thread
+            } finally {
+                pool.shutdownNow();
+            }
+            out.printf("Exported %d of %d tenants in %.1f s%n", exported, tenants.size(), (System.nanoTime() - start) / 1e9);
+        }
+
+        // Exports one tenant and returns a summary of what was written.
+        // Throws an IOException naming the tenant when any of its requests failed.
+        private static String exportTenant(TokenManifest.Tenant tenant, Writer combined) throws IOException {
+            GraphQlConnect connection = connect(tenant.getToken());
+            // An outage behind one token must not open the circuit for the other tenants on the same endpoint
+            connection.useOwnResilienceState();
+            List<String> courseIds = new ArrayList<>();
+            // Only the course ids are needed here, so the names and terms are not requested
+            try (InputStream response = connection.sendStream(QueryRegistry.courses(EnumSet.of(QueryRegistry.CourseField.ID)), Map.of())) {
+                // Ensuring the response is not null, the error has already been logged
+                if (response == null) {
+                    throw new IOException(tenant.getName() + ": failed, the course list request failed");
+                }
+                // Handle responses without a course list, e.g. GraphQL errors
+                if (new StreamingResponseParser(ObjectMappers.get()).streamCourses(response, course -> course.getId() != null, course -> courseIds.add(course.getId())) < 0) {
+                    throw new IOException(tenant.getName() + ": failed, the course list response has no courses");
+                }
+            }
+            Path file = outputDirectory != null ? outputDirectory.resolve(tenant.getName() + ".tsv") : null;
+            Path temporary = file != null ? file.resolveSibling(file.getFileName() + ".tmp") : null;
+            String prefix = combined != null ? tenant.getName() + "\t" : "";
+            // Assignments written, and assignment requests that failed
+            int[] counts = new int[2];
+            // Lines for the combined file, held back until every request of the tenant succeeded
+            StringBuilder buffered = new StringBuilder();
+            try (Writer own = temporary != null ? Files.newBufferedWriter(temporary, StandardCharsets.UTF_8) : null) {
+                sendAll(connection, QueryRegistry::batchAssignments, "c", chunks(courseIds, chunkSize), Map.of("first", pageSize), maxConcurrency, (index, response) -> {
+                    // Count the failed chunk, the tenant is reported as failed at the end
+                    if (response == null) {
+                        counts[1]++;
+                        return;
+                    }
+                    GetResponses.BatchRoot batch = parse(GetResponses.BatchRoot.class, response);
+                    logBatchErrors(batch == null ? null : batch.getErrors());
+                    // Ensure the batch and its data are not null
+                    if (batch == null || batch.getData() == null) {
+                        return;
+                    }
+                    StringBuilder lines = new StringBuilder();
+                    batch.getData().values().forEach(course -> {
+                        if (course == null || course.getAssignmentsConnection() == null) {
                             return;
                         }
-                        // Get the id from matchingCourses List
-                        id = matchingCourses.get(0).getId();
-                        // Handle no course ID found
-                        if (id == null) {
-                            System.out.println("No course ID found.");
+                        // The batch only holds the first page, the later ones are requested for this course alone
+                        List<GetResponses.Root.Data.Course.AssignmentsConnection.Node> nodes = AssignmentPager.allPages(connection, ObjectMappers.get(),
+                                QueryRegistry.ASSIGNMENTS_PAGE, course.getId(), pageSize, course.getAssignmentsConnection());
+                        // Count a course whose later pages could not be read as a failed request, the tenant is reported as failed at the end
+                        if (nodes == null) {
+                            counts[1]++;
                             return;
                         }
+                        nodes.forEach(node -> {
+                            if (node == null) {
+                                return;
+                            }
+                            lines.append(prefix).append(field(course.getName())).append('\t').append(field(node.getAssignmentName()))
+                                    .append('\t').append(field(node.getDueAt())).append('\n');
+                            counts[0]++;
+                        });
+                    });
+                    if (own != null) {
+                        own.write(lines.toString());
+                    } else {
+                        buffered.append(lines);
                     }
+                });
+            }
+            // Keep partial per-tenant output out of the way of complete files
+            if (counts[1] > 0) {
+                if (temporary != null) {
+                    Files.deleteIfExists(temporary);
+                }
+                throw new IOException(tenant.getName() + ": failed, " + counts[1] + " assignment requests failed");
+            }
+            if (temporary != null) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                // The lines of a tenant go out together, so tenants never interleave
+                synchronized (combined) {
+                    combined.write(buffered.toString());
+                }
+            }
+            return courseIds.size() + " courses, " + counts[0] + " assignments";
+        }
+
+        // Returns a value as a tab-separated field: tabs and line breaks become spaces, null becomes empty.
+        private static String field(String value) {
+            return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+        }
+
+        // Returns the factory of the export workers, numbered daemon threads.
+        private static ThreadFactory exportWorkers() {
+            AtomicInteger count = new AtomicInteger();
+            return runnable -> {
+                Thread thread = new Thread(runnable, "export-worker-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+
+    // Subcommand to run as a long-lived daemon that executes the other subcommands for thin clients.
+    @Command(name = "daemon", description = "Keeps a warm process running and executes commands sent by --via-daemon clients")
+    // set class as protected to be only accessed within the current package
+    protected static class DaemonCommand implements Runnable {
+        // Option to listen on a Unix domain socket at the given path.
+        @Option(names = "--socket", description = "Unix domain socket to listen on (default: ~/.canvasgraphql/daemon.sock)")
+        private static Path socket;
+
+        // Option to listen on a loopback port instead of a Unix domain socket.
+        @Option(names = "--port", description = "Loopback port to listen on instead of a Unix domain socket")
+        private static Integer port;
+
+        // Option to serve the metrics of the daemon in Prometheus text format on a loopback port.
+        @Option(names = "--metrics-port", description = "Loopback port serving the metrics at /metrics in Prometheus text format")
+        private static Integer metricsPort;
+
+        @Override
+        // Serves client requests until the process is stopped.
+        public void run() {
+            try {
+                if (metricsPort != null) {
+                    Metrics.serve(metricsPort);
+                    out.println("Metrics served on http://127.0.0.1:" + metricsPort + "/metrics");
                 }
-                // Process the matching course to list its assignments.
-                String Assignmentsquery = new GraphQlQueries().GetAssignmentsquery(id);
-                String final_response = new GraphQlConnect(token, endpoint).sendAssignmentQuery(Assignmentsquery);
-
-                // Date-time handling to filter assignments based on their due date. Consider UTC format
-                ZonedDateTime nowUTC = ZonedDateTime.now(ZoneId.of("UTC"));
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX");
-
-                //Root to get objectMapper head
-                var root = objectMapper.readValue(final_response, GetResponses.Root.class);
-                //Ensure root is not null
-                if(root != null) {
-                    //Nodes to get from root
-                    if (root.getData() != null && root.getData().getCourse() != null && root.getData().getCourse().getAssignmentsConnection() != null && root.getData().getCourse().getAssignmentsConnection().getNodes() != null) {
-                        //Ensure nodes is not null
-                        var nodes = root.getData().getCourse().getAssignmentsConnection().getNodes();
-                        // Filtering and printing assignments based on their active status.
-                        nodes.stream().
-                                filter(node -> {
-                                    // check if node is null or node due date is null
-                                    if (node == null || node.getDueAt() == null || node.getAssignmentName() == null) {
-                                        return false;
-                                    }
-                                    // try catch for date-time parse exceptions
-                                    ZonedDateTime dueDateUTC;
-                                    try {
-                                        // get the due date in UTC format and check appropriate format
-                                        dueDateUTC = ZonedDateTime.parse(node.getDueAt(), formatter.withZone(ZoneId.of("UTC")));
-                                    } catch (DateTimeParseException e) {
-                                        logger.log(Level.WARNING, "Failed to parse date: " + node.getDueAt(), e.getMessage()); // warning level set as warning for error
-                                        return false;
-                                    }
-                                    // if Assignment is Non-Active, due date is before UTC, else due date is after UTC
-                                    return isAssignmentNonactive ? dueDateUTC.isBefore(nowUTC) : dueDateUTC.isEqual(nowUTC) || dueDateUTC.isAfter(nowUTC);
-                                })
-                                .forEach(node ->
-                                {
-                                    // print the assignment name
-                                    System.out.println(node.getAssignmentName() + " due at " + node.getDueAt());
-                                });
+                DaemonServer server = port != null ? DaemonServer.onLoopbackPort(port) : DaemonServer.onSocket(socket != null ? socket : DaemonServer.defaultSocket());
+                out.println("Daemon listening on " + server.getAddress());
+                out.flush();
+                server.serve(CanvasGraphQlApplication::executeForClient);
+            }
+            //For I/O errors while setting up or running the daemon.
+            catch (IOException e) {
+                logger.log(Level.SEVERE, "I/O error in daemon", e); //log as severe
+            }
+        }
+    }
+
+    // Options of the embedded mock Canvas, shared by mock-server and load.
+    protected static class MockServerOptions {
+        // Option to specify how many courses are generated.
+        @Option(names = "--courses", description = "Courses generated by the mock (default: ${DEFAULT-VALUE})", defaultValue = "200")
+        private int courses;
+
+        // Option to specify how many assignments each generated course has.
+        @Option(names = "--assignments", description = "Assignments per generated course (default: ${DEFAULT-VALUE})", defaultValue = "50")
+        private int assignments;
+
+        // Option to replay recorded responses instead of generated ones.
+        @Option(names = "--fixtures", description = "Directory with a recorded courses.json and assignments/<course id>.json")
+        private Path fixtures;
+
+        // Option to delay every response.
+        @Option(names = "--latency-ms", description = "Milliseconds every response is delayed (default: ${DEFAULT-VALUE})", defaultValue = "0")
+        private long latencyMillis;
+
+        // Option to add a random delay of up to the given milliseconds on top of the latency.
+        @Option(names = "--jitter-ms", description = "Random extra delay of up to this many milliseconds (default: ${DEFAULT-VALUE})", defaultValue = "0")
+        private long jitterMillis;
+
+        // Option to fail a share of the requests with a 500.
+        @Option(names = "--error-rate", description = "Share of requests failed with a 500, 0 to 1 (default: ${DEFAULT-VALUE})", defaultValue = "0")
+        private double errorRate;
+
+        // Option to throttle a share of the requests with a 429.
+        @Option(names = "--throttle-rate", description = "Share of requests throttled with a 429, 0 to 1 (default: ${DEFAULT-VALUE})", defaultValue = "0")
+        private double throttleRate;
+
+        // Returns the settings of the mock, invalid values are reported on the command.
+        private MockCanvasServer.Settings settings(CommandSpec spec) {
+            try {
+                return MockCanvasServer.Settings.defaults()
+                        .withSizes(courses, assignments)
+                        .withFixtures(fixtures)
+                        .withLatency(Duration.ofMillis(latencyMillis), Duration.ofMillis(jitterMillis))
+                        .withErrorRate(errorRate)
+                        .withThrottleRate(throttleRate);
+            }
+            // Handle settings the mock cannot serve
+            catch (IllegalArgumentException e) {
+                throw new CommandLine.ParameterException(spec.commandLine(), e.getMessage());
+            }
+        }
+    }
+
+    // Subcommand to serve a mock Canvas GraphQL endpoint, for running the other commands against with --endpoint.
+    @Command(name = "mock-server", description = "Serves a mock Canvas GraphQL endpoint with generated or recorded courses and assignments")
+    // set class as protected to be only accessed within the current package
+    protected static class MockServerCommand implements Runnable {
+        // Option to specify the loopback port to listen on.
+        @Option(names = "--port", description = "Loopback port to listen on (default: ${DEFAULT-VALUE})", defaultValue = "8765")
+        private static int port;
+
+        @Mixin
+        private MockServerOptions mock;
+
+        @Spec
+        private CommandSpec spec;
+
+        @Override
+        // Serves requests until the process is stopped.
+        public void run() {
+            MockCanvasServer.Settings settings = mock.settings(spec);
+            try {
+                MockCanvasServer server = MockCanvasServer.start(port, settings);
+                out.println("Mock Canvas serving " + server.getCourseCount() + " courses on " + server.getEndpoint());
+                out.flush();
+                Thread.currentThread().join();
+            }
+            //For I/O errors while starting the server, e.g. the port being in use.
+            catch (IOException e) {
+                logger.log(Level.SEVERE, "Could not start the mock server", e); //log as severe
+            }
+            // Handle the process being stopped
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Subcommand to run another command repeatedly against an embedded mock Canvas and report its throughput and latency.
+    // The commands run one after another in this process, like in the daemon, since their options are held in static fields.
+    @Command(name = "load", description = "Runs a command repeatedly on a daemon against an embedded mock Canvas and reports throughput and latency, "
+            + "e.g. load --latency-ms 50 -- list-assignments \"Data Structures\"")
+    // set class as protected to be only accessed within the current package
+    protected static class LoadCommand implements Runnable {
+        // Option to specify how many measured runs are made.
+        @Option(names = "--iterations", description = "Measured runs of the command (default: ${DEFAULT-VALUE})", defaultValue = "50")
+        private static int iterations;
+
+        // Option to specify how many runs are made before measuring, to warm up the JIT, caches and connections.
+        @Option(names = "--warmup", description = "Runs before measuring (default: ${DEFAULT-VALUE})", defaultValue = "5")
+        private static int warmup;
+
+        // Command to run, with its own and the global options
+        @Parameters(arity = "1..*", paramLabel = "COMMAND", description = "Command line to run, after --, e.g. -- --refresh list-courses --active")
+        private static List<String> command;
+
+        @Mixin
+        private MockServerOptions mock;
+
+        @Spec
+        private CommandSpec spec;
+
+        @Override
+        // Starts the mock and a daemon, runs the command on the daemon and prints the report.
+        // The runs go to a daemon in a child process, like --via-daemon clients, so they never re-enter the
+        // command line of this process and its static options and output stay untouched.
+        public void run() {
+            int iterationCount = iterations;
+            int warmupCount = warmup;
+            List<String> commandArgs = new ArrayList<>(command);
+            MockCanvasServer.Settings settings = mock.settings(spec);
+            PrintWriter report = out;
+            // Handle counts that cannot be measured
+            if (iterationCount < 1 || warmupCount < 0) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "Iterations must be at least 1 and warmup at least 0");
+            }
+            // Handle commands that do not finish or would start another mock
+            for (String argument : List.of("load", "mock-server", "daemon")) {
+                if (commandArgs.contains(argument)) {
+                    throw new CommandLine.ParameterException(spec.commandLine(), "Cannot run " + argument + " under load");
+                }
+            }
+            Path cache = null;
+            Process daemon = null;
+            try (MockCanvasServer server = MockCanvasServer.start(0, settings)) {
+                cache = Files.createTempDirectory("canvasgraphql-load");
+                String socket = cache.resolve("daemon.sock").toString();
+                daemon = startDaemon(socket);
+                // Handle daemons that could not be started, the reason has already been logged
+                if (daemon == null) {
+                    return;
+                }
+                List<String> args = new ArrayList<>(List.of("--endpoint", server.getEndpoint(), "--token", "mock-token", "--cache-dir", cache.toString()));
+                args.addAll(commandArgs);
+                String[] commandLine = args.toArray(new String[0]);
+                report.println("Running " + String.join(" ", commandArgs) + " against " + server.getEndpoint()
+                        + " (" + server.getCourseCount() + " courses), " + warmupCount + " warmup and " + iterationCount + " measured runs");
+                report.flush();
+                for (int i = 0; i < warmupCount; i++) {
+                    runOnDaemon(socket, commandLine);
+                }
+                long requestsBefore = server.getRequests();
+                long errorsBefore = server.getErrors();
+                long throttledBefore = server.getThrottled();
+                Histogram latencies = new Histogram();
+                int failed = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < iterationCount; i++) {
+                    long runStart = System.nanoTime();
+                    if (runOnDaemon(socket, commandLine) != 0) {
+                        failed++;
                     }
+                    latencies.record(System.nanoTime() - runStart);
                 }
-            // Handling exceptions that might occur during the operation.
-            // Handle JSONProcessingException
-            } catch (JsonProcessingException  e) {
-                logger.log(Level.SEVERE, "A JSONProcessingException error occurred", e.getMessage()); // Log the error that occurred alongside the type of exception, this is severe
-            }   // Handle general exception
-            catch (Exception e) {
-                logger.log(Level.SEVERE, "Unexpected error occurred when geting assignments", e.getMessage()); // Log the error that occurred alongside the type of exception, this is severe
+                double seconds = (System.nanoTime() - start) / 1e9;
+                Histogram.Snapshot snapshot = latencies.snapshot();
+                long requests = server.getRequests() - requestsBefore;
+                report.printf(Locale.ROOT, "  commands  %d in %.2f s, %.1f commands/s, %d failed%n", iterationCount, seconds, iterationCount / seconds, failed);
+                report.printf(Locale.ROOT, "  latency   p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                        snapshot.percentile(50) / 1e6, snapshot.percentile(99) / 1e6, snapshot.percentile(100) / 1e6);
+                report.printf(Locale.ROOT, "  server    %d requests, %.1f requests/s, %d errors, %d throttled%n",
+                        requests, requests / seconds, server.getErrors() - errorsBefore, server.getThrottled() - throttledBefore);
+            }
+            //For I/O errors while starting the mock or the daemon, or creating the cache directory.
+            catch (IOException e) {
+                logger.log(Level.SEVERE, "I/O error while running the load test", e); //log as severe
+            } finally {
+                report.flush();
+                stopDaemon(daemon);
+                deleteDirectory(cache);
+            }
+        }
+
+        // Starts a daemon in a child process on the socket and waits until it accepts clients.
+        // It is started the way this process was, from its jar or its class path.
+        // Returns null if it exited before listening, after logging it.
+        private static Process startDaemon(String socket) throws IOException {
+            List<String> processCommand = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+            String classPath = System.getProperty("java.class.path");
+            // A single jar knows its main class and dependencies, anything else is a class path
+            if (classPath.endsWith(".jar") && !classPath.contains(File.pathSeparator)) {
+                processCommand.addAll(List.of("-jar", classPath));
+            } else {
+                processCommand.addAll(List.of("-cp", classPath, CanvasGraphQlApplication.class.getName()));
+            }
+            processCommand.addAll(List.of("daemon", "--socket", socket));
+            // The commands log every injected error and throttled request, the counts are in the report instead
+            Process daemon = new ProcessBuilder(processCommand).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+            // The daemon prints its address once its socket and secret are in place
+            BufferedReader daemonOut = new BufferedReader(new InputStreamReader(daemon.getInputStream(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = daemonOut.readLine()) != null) {
+                if (line.startsWith("Daemon listening on")) {
+                    return daemon;
+                }
+            }
+            logger.log(Level.SEVERE, "The load test daemon exited before listening on " + socket); //log as severe
+            stopDaemon(daemon);
+            return null;
+        }
+
+        // Runs the command line once on the daemon, discarding its output, and returns its exit code.
+        private static int runOnDaemon(String socket, String[] commandLine) {
+            Integer exitCode = DaemonClient.forward(socket, commandLine, Path.of(""), OutputStream.nullOutputStream(), OutputStream.nullOutputStream());
+            // Handle a daemon that could not be reached, the run counts as failed
+            return exitCode == null ? 1 : exitCode;
+        }
+
+        // Stops the daemon and waits briefly for it to exit.
+        private static void stopDaemon(Process daemon) {
+            if (daemon == null) {
+                return;
+            }
+            daemon.destroy();
+            try {
+                if (!daemon.waitFor(5, TimeUnit.SECONDS)) {
+                    daemon.destroyForcibly();
+                }
+            }
+            //When the thread is interrupted while waiting, the daemon is killed instead
+            catch (InterruptedException e) {
+                daemon.destroyForcibly();
+                Thread.currentThread().interrupt(); // Proper handling by re-interrupting the thread
+            }
+        }
+
+        // Deletes the cache directory of the load test and everything in it.
+        private static void deleteDirectory(Path directory) {
+            if (directory == null) {
+                return;
+            }
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+            //For I/O errors while listing the directory, it is left for the system to clean up.
+            catch (IOException e) {
+                logger.log(Level.WARNING, "Could not delete " + directory, e); //log as warning
             }
         }
     }
@@ -0,0 +1,13 @@
+package org.example.project1;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication; // Spring Boot's annotation to mark this class as the application's entry point.
+
+//References used:
+//SpringBoot: https://docs.spring.io/spring-boot/docs/current/reference/htmlsingle/#using.spring-boot.structuring-your-code
+
+// Spring Boot configuration of the application.
+// Kept apart from CanvasGraphQlApplication: the command line never starts a Spring context,
+// and picocli reads the annotations of the command class, which would otherwise load Spring at every start.
+@SpringBootApplication // Marks this class as a Spring Boot application.
+public class CanvasGraphQlSpringConfiguration {
+}
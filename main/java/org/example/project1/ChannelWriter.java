@@ -0,0 +1,174 @@
+package org.example.project1;
+
+import java.io.Closeable; // The writer closes its channel when it owns it.
+import java.io.IOException; // Thrown when the channel cannot be written.
+import java.nio.ByteBuffer; // Wraps the buffer for the channel writes.
+import java.nio.channels.WritableByteChannel; // Destination of the output.
+import java.nio.charset.StandardCharsets; // Used for the hex digits.
+
+// References used:
+// UTF-8: https://en.wikipedia.org/wiki/UTF-8#Encoding
+// JSON strings: https://www.rfc-editor.org/rfc/rfc8259#section-7
+// CSV: https://www.rfc-editor.org/rfc/rfc4180
+
+// ChannelWriter encodes text as UTF-8 straight into a large byte buffer and writes the buffer to a channel
+// only when it is full or flush() is called, so output costs a channel write per buffer instead of per line.
+// Strings are encoded character by character, so records are written without building a String per line.
+// Not thread-safe, each command writes its output from one thread.
+public class ChannelWriter implements Closeable {
+
+    //Default buffer size
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+    //Hex digits for \\u escapes
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    //Destination of the output
+    private final WritableByteChannel channel;
+    //Whether close() closes the channel
+    private final boolean ownsChannel;
+    //Encoded output not written yet
+    private final byte[] buffer;
+    //Number of bytes in the buffer
+    private int position;
+
+    // ChannelWriter constructor, the channel is closed with the writer only when ownsChannel is set.
+    public ChannelWriter(final WritableByteChannel channel, final boolean ownsChannel, final int bufferSize) {
+        // Handle case where the buffer could not hold a single character
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("Buffer size must be at least 16 bytes");
+        }
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+        this.buffer = new byte[bufferSize];
+    }
+
+    // Writes one ASCII character.
+    public ChannelWriter write(char c) throws IOException {
+        ensure(1);
+        buffer[position++] = (byte) c;
+        return this;
+    }
+
+    // Writes a string as UTF-8, null is written as nothing.
+    public ChannelWriter write(String text) throws IOException {
+        if (text == null) {
+            return this;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            i = writeChar(text, i);
+        }
+        return this;
+    }
+
+    // Writes a string as a quoted JSON string, null as the JSON null.
+    public ChannelWriter writeJson(String text) throws IOException {
+        if (text == null) {
+            return write('n').write('u').write('l').write('l');
+        }
+        write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                write('\\').write(c);
+            } else if (c == '\n') {
+                write('\\').write('n');
+            } else if (c == '\r') {
+                write('\\').write('r');
+            } else if (c == '\t') {
+                write('\\').write('t');
+            } else if (c < 0x20) {
+                // Other control characters have no short escape
+                ensure(6);
+                buffer[position++] = '\\';
+                buffer[position++] = 'u';
+                buffer[position++] = '0';
+                buffer[position++] = '0';
+                buffer[position++] = HEX[c >> 4];
+                buffer[position++] = HEX[c & 0xF];
+            } else {
+                i = writeChar(text, i);
+            }
+        }
+        return write('"');
+    }
+
+    // Writes a string as a CSV field, quoted only when it contains a comma, quote or line break. Null is empty.
+    public ChannelWriter writeCsv(String text) throws IOException {
+        if (text == null) {
+            return this;
+        }
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        // Handle fields that need no quoting
+        if (!quote) {
+            return write(text);
+        }
+        write('"');
+        for (int i = 0; i < text.length(); i++) {
+            // Quotes inside a quoted field are doubled
+            if (text.charAt(i) == '"') {
+                write('"');
+            }
+            i = writeChar(text, i);
+        }
+        return write('"');
+    }
+
+    // Writes the buffered output to the channel.
+    public void flush() throws IOException {
+        ByteBuffer pending = ByteBuffer.wrap(buffer, 0, position);
+        while (pending.hasRemaining()) {
+            channel.write(pending);
+        }
+        position = 0;
+    }
+
+    // Flushes the output, and closes the channel if the writer owns it.
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            if (ownsChannel) {
+                channel.close();
+            }
+        }
+    }
+
+    // Encodes the character at index as UTF-8 and returns the index of its last char (surrogate pairs take two).
+    private int writeChar(String text, int index) throws IOException {
+        char c = text.charAt(index);
+        ensure(4);
+        if (c < 0x80) {
+            buffer[position++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[position++] = (byte) (0xC0 | (c >> 6));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && index + 1 < text.length() && Character.isLowSurrogate(text.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, text.charAt(index + 1));
+            buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            return index + 1;
+        } else if (Character.isSurrogate(c)) {
+            // A lone surrogate cannot be encoded, the same replacement String.getBytes uses
+            buffer[position++] = '?';
+        } else {
+            buffer[position++] = (byte) (0xE0 | (c >> 12));
+            buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return index;
+    }
+
+    // Makes room for the given number of bytes, flushing the buffer when it is too full.
+    private void ensure(int bytes) throws IOException {
+        if (position + bytes > buffer.length) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.project1;
+
+import java.util.concurrent.ConcurrentHashMap; // Thread-safe map holding one breaker per endpoint.
+import java.util.concurrent.ConcurrentMap; // Interface for the breaker map.
+
+// References used:
+// Circuit breaker: https://martinfowler.com/bliki/CircuitBreaker.html
+
+// CircuitBreaker stops requests to an endpoint that keeps failing, so callers fail fast instead of waiting for timeouts.
+//   CLOSED: requests go through, consecutive failures are counted.
+//   OPEN: requests fail straight away until the open time has passed.
+//   HALF_OPEN: one trial request goes through, its outcome closes or reopens the circuit.
+// One breaker is shared per endpoint.
+public class CircuitBreaker {
+
+    // States of the breaker
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    //One breaker per endpoint
+    private static final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    //Current state
+    private State state = State.CLOSED;
+    //Failures in a row while closed
+    private int consecutiveFailures;
+    //Time the circuit was opened
+    private long openedAtNanos;
+
+    // Returns the shared breaker for the endpoint.
+    public static CircuitBreaker forEndpoint(String endpoint) {
+        return breakers.computeIfAbsent(endpoint, key -> new CircuitBreaker());
+    }
+
+    // Checks whether a request may be sent now under the policy's settings.
+    public synchronized boolean allowRequest(ResiliencePolicy policy) {
+        switch (state) {
+            case OPEN:
+                // Let one trial request through once the open time has passed
+                if (System.nanoTime() - openedAtNanos >= policy.getBreakerOpenTime().toNanos()) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            case HALF_OPEN:
+                // The trial request is still running
+                return false;
+            case CLOSED:
+            default:
+                return true;
+        }
+    }
+
+    // Records a successful request, closing the circuit.
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    // Records a failed request, opening the circuit once there were too many in a row.
+    public synchronized void recordFailure(ResiliencePolicy policy) {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= policy.getBreakerThreshold()) {
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,204 @@
+package org.example.project1;
+
+import java.io.IOException; // Thrown when the cache file cannot be read or written.
+
+import java.nio.BufferUnderflowException; // Thrown when a cache file is shorter than its header says.
+import java.nio.ByteBuffer; // Used to encode and decode the binary cache format.
+import java.nio.MappedByteBuffer; // Memory-mapped view of the cache file.
+import java.nio.channels.FileChannel; // Used to map the cache file and to write it.
+import java.nio.charset.StandardCharsets; // Strings are stored as UTF-8.
+import java.nio.file.Files; // Used for creating directories and moving files.
+import java.nio.file.NoSuchFileException; // Thrown when there is no cache file yet.
+import java.nio.file.Path; // Location of the cache files.
+import java.nio.file.StandardCopyOption; // Used for the atomic replacement of the cache file.
+import java.nio.file.StandardOpenOption; // Options used to open the cache file.
+import java.security.MessageDigest; // Used to hash the endpoint, token and query into the cache key.
+import java.security.NoSuchAlgorithmException; // Thrown if SHA-256 is not available.
+import java.time.Duration; // Used for the time to live of the cache.
+import java.util.ArrayList; // Used for creating dynamic arrays.
+import java.util.HexFormat; // Used to turn hashes into file names.
+import java.util.List; // Interface that can be used to create dynamic arrays
+
+/*Using Java Logging API */
+import java.util.logging.Logger; // The Logger class is a part of the Java Logging API and is used to log messages for a specific system or application component.
+import java.util.logging.Level; // The Level class defines a set of standard logging levels that can be used to control logging output.
+
+// References used:
+// FileChannel.map: https://docs.oracle.com/javase/8/docs/api/java/nio/channels/FileChannel.html#map-java.nio.channels.FileChannel.MapMode-long-long-
+// Files.move: https://docs.oracle.com/javase/8/docs/api/java/nio/file/Files.html#move-java.nio.file.Path-java.nio.file.Path-java.nio.file.CopyOption...-
+// MessageDigest: https://docs.oracle.com/javase/8/docs/api/java/security/MessageDigest.html
+// Logger: https://www.vogella.com/tutorials/Logging/article.html
+
+// CourseCache keeps the allCourses list on disk so it does not have to be fetched on every run.
+// Each cache file is keyed by a hash of the endpoint, the token hash and the query, so different users
+// and queries never share an entry.
+// File layout (big endian):
+//   int magic, int version, long writtenAtMillis, int courseCount,
+//   then for every course: name, id, term name, term start, term end, each as int length + UTF-8 bytes (length -1 for null).
+// Files are written to a temporary file and moved into place atomically, and read through a memory map.
+public class CourseCache {
+
+    //main logger
+    private static final Logger logger = Logger.getLogger(CourseCache.class.getName());
+    //Marks a file as a course cache file ("CGC1")
+    private static final int MAGIC = 0x43474331;
+    //Version of the file layout, bump when the layout changes
+    private static final int VERSION = 2;
+    //Size of the fixed header in bytes
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+
+    //Path of the cache file for this endpoint, token and query
+    private final Path file;
+    //Write time of the list last read or written through this cache, 0 before either
+    private long writtenAtMillis;
+
+    // CourseCache constructor, works out the cache file for the endpoint, token and query.
+    public CourseCache(final Path directory, final String endpoint, final String token, final String query) {
+        // Handle case where directory is missing
+        if (directory == null) {
+            throw new IllegalArgumentException("Cache directory cannot be null");
+        }
+        // The token is hashed on its own first so it never ends up in a file name, even partially
+        String key = sha256(endpoint + "\n" + sha256(token) + "\n" + sha256(query));
+        this.file = directory.resolve(key + ".courses");
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // Returns when the list last read or written through this cache was written, in epoch milliseconds.
+    public long getWrittenAt() {
+        return writtenAtMillis;
+    }
+
+    // Reads the cached courses, returns null if there is no usable entry.
+    // A null time to live accepts an entry of any age (used for offline runs).
+    public List<GetResponses.CourseData.Course> read(Duration timeToLive) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            // Handle files that are too short or were not written by this class
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                logger.log(Level.WARNING, "Ignoring unreadable course cache: " + file);
+                return null;
+            }
+            // Handle files written with an older layout, they are replaced by the next fetch
+            if (buffer.getInt() != VERSION) {
+                return null;
+            }
+            long writtenAt = buffer.getLong();
+            // Handle entries that are older than the time to live
+            if (timeToLive != null && System.currentTimeMillis() - writtenAt > timeToLive.toMillis()) {
+                return null;
+            }
+            int count = buffer.getInt();
+            // Handle counts that cannot be right, every course takes at least five string lengths
+            if (count < 0 || count > buffer.remaining() / 20) {
+                throw new IllegalArgumentException("Invalid course count: " + count);
+            }
+            List<GetResponses.CourseData.Course> courses = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String name = readString(buffer);
+                String id = readString(buffer);
+                String termName = readString(buffer);
+                String termStart = readString(buffer);
+                String termEnd = readString(buffer);
+                // A course without a term has no term fields at all
+                GetResponses.CourseData.Course.Term term = termName == null && termStart == null && termEnd == null
+                        ? null : new GetResponses.CourseData.Course.Term(termName, termStart, termEnd);
+                courses.add(new GetResponses.CourseData.Course(name, id, term));
+            }
+            writtenAtMillis = writtenAt;
+            return courses;
+        }
+        // No cache entry yet
+        catch (NoSuchFileException e) {
+            return null;
+        }
+        // Handle truncated and corrupt files
+        catch (BufferUnderflowException | IllegalArgumentException e) {
+            logger.log(Level.WARNING, "Ignoring truncated course cache: " + file);
+        }
+        //For I/O errors while reading the cache.
+        catch (IOException e) {
+            logger.log(Level.WARNING, "I/O error while reading course cache", e); //log as warning, the courses are fetched instead
+        }
+        return null;
+    }
+
+    // Writes the courses to the cache, replacing the previous entry atomically.
+    public void write(List<GetResponses.CourseData.Course> courses) {
+        // Encode every string once, so the exact file size is known up front
+        List<byte[]> fields = new ArrayList<>(courses.size() * 5);
+        int size = HEADER_SIZE;
+        for (GetResponses.CourseData.Course course : courses) {
+            GetResponses.CourseData.Course.Term term = course.getTerm();
+            String[] values = term == null
+                    ? new String[]{course.getName(), course.getId(), null, null, null}
+                    : new String[]{course.getName(), course.getId(), term.getName(), term.getStartAt(), term.getEndAt()};
+            for (String value : values) {
+                byte[] bytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+                fields.add(bytes);
+                size += 4 + (bytes == null ? 0 : bytes.length);
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        writtenAtMillis = System.currentTimeMillis();
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(writtenAtMillis).putInt(courses.size());
+        for (byte[] bytes : fields) {
+            buffer.putInt(bytes == null ? -1 : bytes.length);
+            if (bytes != null) {
+                buffer.put(bytes);
+            }
+        }
+        buffer.flip();
+        try {
+            Files.createDirectories(file.getParent());
+            // Write next to the target and move it into place, readers never see a half written file
+            Path temporary = Files.createTempFile(file.getParent(), "courses", ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
+        //For I/O errors while writing the cache.
+        catch (IOException e) {
+            logger.log(Level.WARNING, "I/O error while writing course cache", e); //log as warning, the run itself still succeeds
+        }
+    }
+
+    // Reads a length-prefixed UTF-8 string, a length of -1 stands for null.
+    // Throws IllegalArgumentException for a length that cannot be right, e.g. in a corrupt file.
+    static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        // Handle null strings
+        if (length == -1) {
+            return null;
+        }
+        // Handle lengths that run past the end of the buffer or are negative
+        if (length < -1 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid string length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Returns the SHA-256 hash of the value as a hex string.
+    static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(String.valueOf(value).getBytes(StandardCharsets.UTF_8)));
+        }
+        // Every Java platform is required to support SHA-256
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
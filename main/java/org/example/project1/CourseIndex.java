@@ -0,0 +1,300 @@
+package org.example.project1;
+
+import java.text.Normalizer; // Used to normalise course names before indexing.
+import java.time.Duration; // Used to report the age of the index.
+import java.util.ArrayList; // Used for creating dynamic arrays.
+import java.util.Arrays; // Used for sorting and searching the index arrays.
+import java.util.Collections; // Used for returning empty and read-only lists.
+import java.util.Comparator; // Used to order the posting lists and names.
+import java.util.HashMap; // Used while the index is being built.
+import java.util.LinkedHashSet; // Used to collect the distinct trigrams of a name in order.
+import java.util.List; // Interface that can be used to create dynamic arrays
+import java.util.Locale; // Used for locale independent lowercasing.
+import java.util.Map; // Interface for the trigram and name maps.
+import java.util.Set; // Interface for the distinct trigrams of a name.
+
+// References used:
+// N-gram indexes: https://en.wikipedia.org/wiki/N-gram
+// Trigram search in PostgreSQL (pg_trgm): https://www.postgresql.org/docs/current/pgtrgm.html
+// Normalizer: https://docs.oracle.com/javase/8/docs/api/java/text/Normalizer.html
+// Binary search: https://docs.oracle.com/javase/8/docs/api/java/util/Arrays.html
+
+// CourseIndex answers course-name lookups without scanning every course.
+// Names are normalised once (Unicode NFKC, lowercase, single spaces) and indexed by their trigrams,
+// so a substring lookup only checks the courses that contain every trigram of the query.
+// Prefix lookups use a sorted array of names and binary search, and exact lookups a hash map.
+// The index is immutable once built, so it can be shared by any number of threads and reused across runs.
+public class CourseIndex {
+
+    // The ways a course name can be matched
+    public enum MatchMode {
+        EXACT, // The whole name equals the query
+        PREFIX, // The name starts with the query
+        SUBSTRING, // The name contains the query
+        FUZZY // The names sharing the most trigrams with the query, tolerates typos
+    }
+
+    //Length of the n-grams used by the index
+    private static final int GRAM = 3;
+    //Share of the query trigrams a name needs for a fuzzy match
+    private static final double FUZZY_THRESHOLD = 0.6;
+    //Empty posting list
+    private static final int[] NONE = new int[0];
+
+    //Indexed courses, positions in this list are used throughout the index
+    private final List<GetResponses.CourseData.Course> courses;
+    //Normalised name of every course, null when the course has no name
+    private final String[] names;
+    //Positions of the named courses sorted by normalised name, used for prefix lookups
+    private final int[] sortedByName;
+    //Sorted positions of the courses containing each trigram
+    private final Map<String, int[]> postings;
+    //Positions of the courses for each normalised name
+    private final Map<String, int[]> exactNames;
+    //Number of distinct trigrams in every name, used to rank fuzzy matches
+    private final int[] gramCounts;
+    //Time the course list was written, the index is as old as the list it was built from
+    private final long writtenAtMillis;
+
+    // CourseIndex constructor, builds the index over the given courses written just now.
+    public CourseIndex(final List<GetResponses.CourseData.Course> courses) {
+        this(courses, System.currentTimeMillis());
+    }
+
+    // CourseIndex constructor, builds the index over the given courses written at the given time (epoch milliseconds).
+    public CourseIndex(final List<GetResponses.CourseData.Course> courses, final long writtenAtMillis) {
+        // Handle case where courses is null
+        if (courses == null) {
+            throw new IllegalArgumentException("Courses cannot be null");
+        }
+        this.writtenAtMillis = writtenAtMillis;
+        this.courses = List.copyOf(courses.stream().filter(course -> course != null).toList());
+        int size = this.courses.size();
+        this.names = new String[size];
+        this.gramCounts = new int[size];
+        Map<String, List<Integer>> gramBuilder = new HashMap<>();
+        Map<String, List<Integer>> nameBuilder = new HashMap<>();
+        List<Integer> named = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            String name = normalize(this.courses.get(i).getName());
+            names[i] = name;
+            // Skip courses without a name, they can never match
+            if (name == null) {
+                continue;
+            }
+            named.add(i);
+            nameBuilder.computeIfAbsent(name, key -> new ArrayList<>()).add(i);
+            Set<String> grams = trigrams(name);
+            gramCounts[i] = grams.size();
+            for (String gram : grams) {
+                gramBuilder.computeIfAbsent(gram, key -> new ArrayList<>()).add(i);
+            }
+        }
+        // Positions were added in increasing order, so every posting list is already sorted
+        this.postings = toArrays(gramBuilder);
+        this.exactNames = toArrays(nameBuilder);
+        this.sortedByName = named.stream()
+                .sorted(Comparator.comparing((Integer i) -> names[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    // Normalises a name or query the same way for indexing and lookups.
+    public static String normalize(String value) {
+        // Handle null values
+        if (value == null) {
+            return null;
+        }
+        String normalized = Normalizer.normalize(value, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT).trim();
+        return normalized.replaceAll("\\s+", " ");
+    }
+
+    public int size() {
+        return courses.size();
+    }
+
+    // Returns how long ago the course list behind the index was written.
+    public Duration getAge() {
+        return Duration.ofMillis(System.currentTimeMillis() - writtenAtMillis);
+    }
+
+    // Returns the id of the course with exactly this name, or null when there is no single such course.
+    public String getIdByName(String name) {
+        int[] positions = exactNames.getOrDefault(normalize(name), NONE);
+        return positions.length == 1 ? courses.get(positions[0]).getId() : null;
+    }
+
+    // Checks one course name against a query already passed through normalize(), the same way find() matches it.
+    // Fuzzy matches depend on the other names, so they cannot be checked one name at a time.
+    public static boolean matches(String name, String normalizedQuery, MatchMode mode) {
+        String normalizedName = normalize(name);
+        // Handle case where the name or the query is missing
+        if (normalizedName == null || normalizedQuery == null || normalizedQuery.isEmpty()) {
+            return false;
+        }
+        switch (mode) {
+            case EXACT:
+                return normalizedName.equals(normalizedQuery);
+            case PREFIX:
+                return normalizedName.startsWith(normalizedQuery);
+            case SUBSTRING:
+                return normalizedName.contains(normalizedQuery);
+            case FUZZY:
+            default:
+                throw new IllegalArgumentException("Fuzzy matches need the whole course list");
+        }
+    }
+
+    // Returns the courses matching the query in the given mode, in the order they were indexed.
+    // Fuzzy matches are ordered from the best match down instead.
+    public List<GetResponses.CourseData.Course> find(String query, MatchMode mode) {
+        String normalized = normalize(query);
+        // Handle case where query is null or empty
+        if (normalized == null || normalized.isEmpty()) {
+            return Collections.emptyList();
+        }
+        switch (mode) {
+            case EXACT:
+                return toCourses(exactNames.getOrDefault(normalized, NONE));
+            case PREFIX:
+                return findPrefix(normalized);
+            case FUZZY:
+                return findFuzzy(normalized);
+            case SUBSTRING:
+            default:
+                return findSubstring(normalized);
+        }
+    }
+
+    // Finds the names starting with the query with a binary search over the sorted names.
+    private List<GetResponses.CourseData.Course> findPrefix(String query) {
+        // Lower bound: first name that is not smaller than the query
+        int low = 0;
+        int high = sortedByName.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (names[sortedByName[middle]].compareTo(query) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        // Every name from the lower bound on that starts with the query is a match
+        List<Integer> matches = new ArrayList<>();
+        for (int i = low; i < sortedByName.length && names[sortedByName[i]].startsWith(query); i++) {
+            matches.add(sortedByName[i]);
+        }
+        Collections.sort(matches);
+        return toCourses(matches.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    // Finds the names containing the query, only checking the courses that share every trigram with it.
+    private List<GetResponses.CourseData.Course> findSubstring(String query) {
+        int[] candidates;
+        // Queries shorter than a trigram cannot use the index
+        if (query.length() < GRAM) {
+            candidates = sortedByName.clone();
+            Arrays.sort(candidates);
+        } else {
+            candidates = null;
+            // Intersect the posting lists, starting with the shortest to keep the work small
+            List<int[]> lists = new ArrayList<>();
+            for (String gram : trigrams(query)) {
+                lists.add(postings.getOrDefault(gram, NONE));
+            }
+            lists.sort(Comparator.comparingInt(list -> list.length));
+            for (int[] list : lists) {
+                candidates = candidates == null ? list : intersect(candidates, list);
+                if (candidates.length == 0) {
+                    break;
+                }
+            }
+        }
+        // Trigrams only narrow the candidates down, confirm every one of them
+        List<GetResponses.CourseData.Course> matches = new ArrayList<>();
+        for (int position : candidates) {
+            if (names[position].contains(query)) {
+                matches.add(courses.get(position));
+            }
+        }
+        return matches;
+    }
+
+    // Finds the names sharing the largest share of the query's trigrams, ties are all returned.
+    private List<GetResponses.CourseData.Course> findFuzzy(String query) {
+        // Queries shorter than a trigram fall back to a substring match
+        if (query.length() < GRAM) {
+            return findSubstring(query);
+        }
+        Set<String> grams = trigrams(query);
+        int[] shared = new int[courses.size()];
+        for (String gram : grams) {
+            for (int position : postings.getOrDefault(gram, NONE)) {
+                shared[position]++;
+            }
+        }
+        // Find the best score
+        int best = 0;
+        for (int count : shared) {
+            best = Math.max(best, count);
+        }
+        // Handle case where even the best name shares too few trigrams
+        if (best == 0 || best < FUZZY_THRESHOLD * grams.size()) {
+            return Collections.emptyList();
+        }
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < shared.length; i++) {
+            if (shared[i] == best) {
+                matches.add(i);
+            }
+        }
+        // Among equal scores, shorter names come first
+        matches.sort(Comparator.comparingInt((Integer i) -> gramCounts[i]));
+        return toCourses(matches.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    // Returns the courses at the given positions.
+    private List<GetResponses.CourseData.Course> toCourses(int[] positions) {
+        List<GetResponses.CourseData.Course> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(courses.get(position));
+        }
+        return result;
+    }
+
+    // Returns the distinct trigrams of a normalised name.
+    private static Set<String> trigrams(String name) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= name.length(); i++) {
+            grams.add(name.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    // Intersects two sorted arrays of positions.
+    private static int[] intersect(int[] first, int[] second) {
+        int[] result = new int[Math.min(first.length, second.length)];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // Turns the lists gathered while building into compact arrays.
+    private static Map<String, int[]> toArrays(Map<String, List<Integer>> lists) {
+        Map<String, int[]> arrays = new HashMap<>(lists.size() * 2);
+        lists.forEach((key, list) -> arrays.put(key, list.stream().mapToInt(Integer::intValue).toArray()));
+        return Collections.unmodifiableMap(arrays);
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.project1;
+
+import java.io.BufferedInputStream; // Buffers the frames read from the daemon.
+import java.io.BufferedOutputStream; // Buffers the request written to the daemon.
+import java.io.DataInputStream; // Used to read the response frames.
+import java.io.DataOutputStream; // Used to write the request.
+import java.io.IOException; // Thrown when a socket operation fails.
+import java.io.OutputStream; // Local output the frames are copied to.
+
+import java.net.InetAddress; // Used for the loopback address.
+import java.net.InetSocketAddress; // Address of a loopback port.
+import java.net.UnixDomainSocketAddress; // Address of a Unix domain socket.
+import java.nio.channels.Channels; // Used to read and write the socket channel as streams.
+import java.nio.channels.SocketChannel; // Connection to the daemon.
+import java.nio.charset.StandardCharsets; // The secret file is UTF-8.
+import java.nio.file.Files; // Used to read the secret of the daemon.
+import java.nio.file.Path; // Working directory sent with the command.
+
+/*Using Java Logging API */
+import java.util.logging.Logger; // The Logger class is a part of the Java Logging API and is used to log messages for a specific system or application component.
+import java.util.logging.Level; // The Level class defines a set of standard logging levels that can be used to control logging output.
+
+// References used:
+// Unix domain socket channels (JEP 380): https://openjdk.org/jeps/380
+// SocketChannel: https://docs.oracle.com/en/java/javase/17/docs/api/java.base/java/nio/channels/SocketChannel.html
+// Logger: https://www.vogella.com/tutorials/Logging/article.html
+
+// DaemonClient forwards a command line to a running DaemonServer and copies its output to this process.
+// See DaemonServer for the protocol and the secret a client has to send.
+public final class DaemonClient {
+
+    //main logger
+    private static final Logger logger = Logger.getLogger(DaemonClient.class.getName());
+
+    // Private constructor, the class only has static helpers
+    private DaemonClient() {
+    }
+
+    // Sends the arguments and the working directory to the daemon at the address (a socket path or a loopback port number)
+    // and copies the output to System.out and System.err.
+    // Returns the exit code of the command, or null if no daemon could be reached.
+    public static Integer forward(final String address, final String[] args) {
+        return forward(address, args, Path.of("").toAbsolutePath(), System.out, System.err);
+    }
+
+    // Like forward, running the command in the given working directory and copying its output to the given streams.
+    public static Integer forward(final String address, final String[] args, final Path workingDirectory, final OutputStream out, final OutputStream err) {
+        SocketChannel channel;
+        String secret;
+        try {
+            // Only the user running the daemon can read its secret
+            secret = Files.readString(DaemonServer.secretFile(address), StandardCharsets.UTF_8).trim();
+            channel = open(address);
+        }
+        // No daemon is listening, or its secret cannot be read, the caller runs the command itself
+        catch (IOException e) {
+            return null;
+        }
+        try (channel) {
+            DataOutputStream request = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            request.writeUTF(secret);
+            // Relative path options are resolved against the client's directory, not the daemon's
+            request.writeUTF(workingDirectory.toAbsolutePath().toString());
+            request.writeInt(args.length);
+            for (String arg : args) {
+                request.writeUTF(arg);
+            }
+            request.flush();
+            DataInputStream frames = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            // Copy output frames until the exit code arrives
+            while (true) {
+                byte kind = frames.readByte();
+                if (kind == DaemonServer.FRAME_EXIT) {
+                    out.flush();
+                    err.flush();
+                    return frames.readInt();
+                }
+                byte[] data = new byte[frames.readInt()];
+                frames.readFully(data);
+                OutputStream target = kind == DaemonServer.FRAME_ERR ? err : out;
+                target.write(data, 0, data.length);
+            }
+        }
+        //For I/O errors after the request was sent, running the command again could repeat its work
+        catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error while talking to the daemon", e); //log as severe
+            return 1;
+        }
+    }
+
+    // Checks whether a daemon is accepting connections at the address.
+    public static boolean isReachable(final String address) {
+        try (SocketChannel channel = open(address)) {
+            return channel.isConnected();
+        }
+        // Nothing is listening at the address
+        catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Connects to a loopback port when the address is a number, otherwise to a Unix domain socket.
+    private static SocketChannel open(final String address) throws IOException {
+        if (address.matches("\\d+")) {
+            return SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address)));
+        }
+        return SocketChannel.open(UnixDomainSocketAddress.of(address));
+    }
+}
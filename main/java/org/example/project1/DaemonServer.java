@@ -0,0 +1,303 @@
+package org.example.project1;
+
+import java.io.BufferedInputStream; // Buffers the requests read from a client.
+import java.io.BufferedOutputStream; // Buffers the frames written to a client.
+import java.io.Closeable; // The server is closed when the daemon stops.
+import java.io.DataInputStream; // Used to read the request of a client.
+import java.io.DataOutputStream; // Used to write the response frames.
+import java.io.IOException; // Thrown when a socket operation fails.
+import java.io.OutputStream; // Base class of the stream that turns output into frames.
+import java.io.OutputStreamWriter; // Encodes the command output as UTF-8.
+import java.io.PrintWriter; // Writer handed to the command for its output.
+
+import java.net.InetAddress; // Used for the loopback address.
+import java.net.InetSocketAddress; // Address of the loopback port.
+import java.net.StandardProtocolFamily; // Used to open a Unix domain socket.
+import java.net.UnixDomainSocketAddress; // Address of the Unix domain socket.
+import java.nio.channels.Channels; // Used to read and write the socket channels as streams.
+import java.nio.channels.ClosedChannelException; // Thrown by accept once the server is closed.
+import java.nio.channels.ServerSocketChannel; // Listening socket of the daemon.
+import java.nio.channels.SocketChannel; // Connection to one client.
+import java.nio.charset.StandardCharsets; // Output is sent as UTF-8.
+import java.nio.file.Files; // Used to clean up the socket file.
+import java.nio.file.Path; // Location of the socket file.
+import java.nio.file.StandardCopyOption; // Used to move the restricted socket into place.
+import java.nio.file.attribute.PosixFilePermissions; // Used to restrict the socket and the secret file to the current user.
+import java.security.MessageDigest; // Compares the secret sent by a client in constant time.
+import java.security.SecureRandom; // Generates the secret of the daemon.
+import java.util.HexFormat; // Used to write the secret as text.
+import java.util.concurrent.ExecutorService; // Handles the client connections.
+import java.util.concurrent.Executors; // Factory for the connection executor.
+import java.util.concurrent.ThreadFactory; // Used to name the connection threads and mark them as daemons.
+import java.util.concurrent.atomic.AtomicInteger; // Used to number the connection threads.
+
+/*Using Java Logging API */
+import java.util.logging.Logger; // The Logger class is a part of the Java Logging API and is used to log messages for a specific system or application component.
+import java.util.logging.Level; // The Level class defines a set of standard logging levels that can be used to control logging output.
+
+// References used:
+// Unix domain socket channels (JEP 380): https://openjdk.org/jeps/380
+// ServerSocketChannel: https://docs.oracle.com/en/java/javase/17/docs/api/java.base/java/nio/channels/ServerSocketChannel.html
+// Channels: https://docs.oracle.com/javase/8/docs/api/java/nio/channels/Channels.html
+// Logger: https://www.vogella.com/tutorials/Logging/article.html
+
+// DaemonServer keeps one warm process that runs commands on behalf of thin clients.
+// The HTTP clients, course indexes and JIT-compiled code stay in memory between commands,
+// so a command costs about one network round trip instead of a JVM start.
+// Commands run with the daemon owner's token and can write files, so every client has to prove it runs as the same user:
+// the daemon writes a random secret to a file only its user can read (see secretFile) and a client has to send it first.
+// Protocol (big endian, over a Unix domain socket or a loopback port):
+//   request:  the secret, the client's absolute working directory, int argument count, then every argument,
+//             all strings as modified UTF-8 (DataOutputStream.writeUTF)
+//   response: frames of byte kind + data, kind FRAME_OUT / FRAME_ERR carry int length + bytes,
+//             and a final FRAME_EXIT carries the int exit code.
+public class DaemonServer implements Closeable {
+
+    //main logger
+    private static final Logger logger = Logger.getLogger(DaemonServer.class.getName());
+    //Final frame, carries the exit code of the command
+    static final byte FRAME_EXIT = 0;
+    //Frame with standard output of the command
+    static final byte FRAME_OUT = 1;
+    //Frame with error output of the command
+    static final byte FRAME_ERR = 2;
+    //Largest number of arguments accepted in one request
+    private static final int MAX_ARGUMENTS = 1024;
+    //Random bytes in the secret of a daemon
+    private static final int SECRET_BYTES = 32;
+
+    // Runs one command line for a client in its working directory and returns its exit code.
+    public interface CommandRunner {
+        int run(String[] args, Path workingDirectory, OutputStream out, PrintWriter err);
+    }
+
+    //Listening socket
+    private final ServerSocketChannel server;
+    //Socket file to remove on shutdown, null for a loopback port
+    private final Path socketFile;
+    //Printable address the daemon listens on
+    private final String address;
+    //File holding the secret, readable by the current user only
+    private final Path secretFile;
+    //Secret every client has to send before its command
+    private final String secret;
+    //Commands share static state, so only one runs at a time
+    private final Object commandLock = new Object();
+    //Threads that read requests and write responses, one per connected client
+    private final ExecutorService connections = Executors.newCachedThreadPool(new ThreadFactory() {
+        // Counter used to give every connection thread a readable name
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "daemon-client-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    // Private constructor, servers are created through onSocket or onLoopbackPort. Writes a new secret to the secret file.
+    private DaemonServer(final ServerSocketChannel server, final Path socketFile, final String address, final Path secretFile) throws IOException {
+        this.server = server;
+        this.socketFile = socketFile;
+        this.address = address;
+        this.secretFile = secretFile;
+        this.secret = writeSecret(secretFile);
+    }
+
+    // Returns the default socket path, ~/.canvasgraphql/daemon.sock.
+    public static Path defaultSocket() {
+        return Path.of(System.getProperty("user.home"), ".canvasgraphql", "daemon.sock");
+    }
+
+    // Returns the secret file of the daemon at the address (a socket path or a loopback port number):
+    // <socket path>.secret, or ~/.canvasgraphql/daemon-<port>.secret for a port.
+    public static Path secretFile(final String address) {
+        if (address.matches("\\d+")) {
+            return Path.of(System.getProperty("user.home"), ".canvasgraphql", "daemon-" + address + ".secret");
+        }
+        return Path.of(address + ".secret");
+    }
+
+    // Opens a daemon listening on a Unix domain socket that only the current user can use.
+    public static DaemonServer onSocket(final Path socket) throws IOException {
+        Files.createDirectories(socket.toAbsolutePath().getParent());
+        // Remove a socket file left behind by a daemon that did not shut down cleanly
+        if (Files.exists(socket)) {
+            if (DaemonClient.isReachable(socket.toString())) {
+                throw new IOException("A daemon is already listening on " + socket);
+            }
+            Files.delete(socket);
+        }
+        ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        Path directory;
+        // Bind inside a new directory only the current user can enter, so nobody can connect before the socket is restricted
+        try {
+            directory = Files.createTempDirectory(socket.toAbsolutePath().getParent(), "daemon",
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } catch (UnsupportedOperationException e) {
+            logger.log(Level.WARNING, "Could not restrict permissions of " + socket);
+            channel.bind(UnixDomainSocketAddress.of(socket));
+            return new DaemonServer(channel, socket, socket.toString(), secretFile(socket.toString()));
+        }
+        Path bound = directory.resolve("daemon.sock");
+        try {
+            channel.bind(UnixDomainSocketAddress.of(bound));
+            Files.setPosixFilePermissions(bound, PosixFilePermissions.fromString("rw-------"));
+            // The socket keeps listening when it is moved, clients then find it at its real path
+            Files.move(bound, socket, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        } finally {
+            Files.deleteIfExists(bound);
+            Files.delete(directory);
+        }
+        return new DaemonServer(channel, socket, socket.toString(), secretFile(socket.toString()));
+    }
+
+    // Opens a daemon listening on a port of the loopback interface.
+    public static DaemonServer onLoopbackPort(final int port) throws IOException {
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        InetSocketAddress bound = (InetSocketAddress) channel.getLocalAddress();
+        return new DaemonServer(channel, null, bound.getHostString() + ":" + bound.getPort(), secretFile(String.valueOf(bound.getPort())));
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    // Accepts clients and runs their commands until the server is closed.
+    public void serve(final CommandRunner runner) throws IOException {
+        // Remove the socket file when the process is stopped
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+        while (server.isOpen()) {
+            SocketChannel client;
+            try {
+                client = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+            connections.execute(() -> handle(client, runner));
+        }
+    }
+
+    // Reads one request from the client, runs it and sends back the output and exit code.
+    private void handle(SocketChannel client, CommandRunner runner) {
+        try (client) {
+            DataInputStream request = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+            DataOutputStream frames = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(client)));
+            // Handle clients that do not know the secret, they are disconnected without running anything
+            if (!MessageDigest.isEqual(request.readUTF().getBytes(StandardCharsets.UTF_8), secret.getBytes(StandardCharsets.UTF_8))) {
+                logger.log(Level.WARNING, "Rejected a daemon client that did not send the secret"); //log as warning
+                return;
+            }
+            Path workingDirectory = Path.of(request.readUTF());
+            // Handle working directories that cannot have come from DaemonClient
+            if (!workingDirectory.isAbsolute()) {
+                throw new IOException("Working directory is not absolute: " + workingDirectory);
+            }
+            int count = request.readInt();
+            // Handle requests that cannot have come from DaemonClient
+            if (count < 0 || count > MAX_ARGUMENTS) {
+                throw new IOException("Invalid argument count: " + count);
+            }
+            String[] args = new String[count];
+            for (int i = 0; i < count; i++) {
+                args[i] = request.readUTF();
+            }
+            OutputStream out = new FrameOutputStream(frames, FRAME_OUT);
+            PrintWriter err = new PrintWriter(new OutputStreamWriter(new FrameOutputStream(frames, FRAME_ERR), StandardCharsets.UTF_8));
+            int exitCode;
+            synchronized (commandLock) {
+                exitCode = runner.run(args, workingDirectory, out, err);
+            }
+            out.flush();
+            err.flush();
+            synchronized (frames) {
+                frames.writeByte(FRAME_EXIT);
+                frames.writeInt(exitCode);
+                frames.flush();
+            }
+        }
+        //For I/O errors while talking to the client.
+        catch (IOException e) {
+            logger.log(Level.WARNING, "I/O error while serving a daemon client", e); //log as warning, only this client is affected
+        }
+    }
+
+    // Stops accepting clients and removes the socket and secret files.
+    @Override
+    public void close() {
+        try {
+            server.close();
+            if (socketFile != null) {
+                Files.deleteIfExists(socketFile);
+            }
+            Files.deleteIfExists(secretFile);
+        }
+        //For I/O errors while shutting down.
+        catch (IOException e) {
+            logger.log(Level.WARNING, "I/O error while stopping the daemon", e); //log as warning
+        }
+        connections.shutdownNow();
+    }
+
+    // Writes a new random secret to the file, which only the current user can read, and returns it.
+    private static String writeSecret(final Path file) throws IOException {
+        byte[] bytes = new byte[SECRET_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        String secret = HexFormat.of().formatHex(bytes);
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        // Create the file with its permissions in place, so the secret is never readable by others
+        Files.deleteIfExists(file);
+        try {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            logger.log(Level.WARNING, "Could not restrict permissions of " + file);
+            Files.createFile(file);
+        }
+        Files.writeString(file, secret, StandardCharsets.UTF_8);
+        return secret;
+    }
+
+    // Turns everything written to it into frames of the given kind.
+    private static class FrameOutputStream extends OutputStream {
+        //Stream the frames are written to, shared by the output and error streams
+        private final DataOutputStream frames;
+        //Kind of frame written by this stream
+        private final byte kind;
+
+        // FrameOutputStream constructor.
+        FrameOutputStream(final DataOutputStream frames, final byte kind) {
+            this.frames = frames;
+            this.kind = kind;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            // Skip empty writes, they would only add empty frames
+            if (length == 0) {
+                return;
+            }
+            synchronized (frames) {
+                frames.writeByte(kind);
+                frames.writeInt(length);
+                frames.write(bytes, offset, length);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (frames) {
+                frames.flush();
+            }
+        }
+    }
+}
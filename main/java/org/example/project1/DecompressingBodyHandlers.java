@@ -0,0 +1,231 @@
+package org.example.project1;
+
+import java.io.ByteArrayInputStream; // Used to decompress a body that has been received in full.
+import java.io.FilterInputStream; // Base of the stream counting the bytes received.
+import java.io.IOException; // Thrown when a body cannot be read or decompressed.
+import java.io.InputStream; // Used to hand out the response body while it is still arriving.
+import java.io.PushbackInputStream; // Used to look at the first bytes of a deflate body.
+import java.io.UncheckedIOException; // Carries a decompression error out of the body subscriber.
+import java.net.http.HttpHeaders; // Headers of a response, read for the Content-Encoding.
+import java.net.http.HttpResponse.BodyHandler; // Decides how a response body is read.
+import java.net.http.HttpResponse.BodySubscribers; // Readers of response bodies provided by the JDK.
+import java.nio.charset.StandardCharsets; // GraphQL responses are UTF-8 JSON.
+import java.util.Locale; // Used for locale independent lowercasing.
+import java.util.zip.GZIPInputStream; // Decompresses gzip bodies.
+import java.util.zip.Inflater; // Decompresses deflate bodies, with or without the zlib wrapper.
+import java.util.zip.InflaterInputStream; // Stream over an Inflater.
+
+/*Using Java Logging API */
+import java.util.logging.Logger; // The Logger class is a part of the Java Logging API and is used to log messages for a specific system or application component.
+import java.util.logging.Level; // The Level class defines a set of standard logging levels that can be used to control logging output.
+
+// References used:
+// Content-Encoding: https://developer.mozilla.org/en-US/docs/Web/HTTP/Headers/Content-Encoding
+// BodySubscribers.mapping: https://docs.oracle.com/en/java/javase/17/docs/api/java.net.http/java/net/http/HttpResponse.BodySubscribers.html
+// Deflate in HTTP: https://www.rfc-editor.org/rfc/rfc9110#name-deflate-coding
+
+// DecompressingBodyHandlers are body handlers that undo the Content-Encoding of a response, which HttpClient does not do itself.
+// Requests offer ACCEPT_ENCODING, so Canvas can compress its larger responses (gzip or deflate).
+// The stream handler decompresses while the body arrives, so the JSON parser reads the data as it comes in.
+// Both handlers record the bytes received and the bytes after decompression in a TransferStats.
+// Bodies with an encoding that is not supported are passed on unchanged.
+public final class DecompressingBodyHandlers {
+
+    //Value of the Accept-Encoding request header, brotli is left out as the JDK has no decoder for it
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+    //main logger
+    private static final Logger logger = Logger.getLogger(DecompressingBodyHandlers.class.getName());
+
+    // Private constructor, the class only has static helpers
+    private DecompressingBodyHandlers() {
+    }
+
+    // Returns a handler reading the whole body, decompressed, as a UTF-8 String.
+    public static BodyHandler<String> ofString(TransferStats stats) {
+        return info -> {
+            String encoding = encoding(info.headers());
+            Metrics.Timer transfer = Metrics.start(Metrics.Metric.REQUEST_BODY);
+            return BodySubscribers.mapping(BodySubscribers.ofByteArray(), body -> {
+                try (InputStream decoded = decoder(encoding, new ByteArrayInputStream(body))) {
+                    byte[] bytes = decoded.readAllBytes();
+                    transfer.stop();
+                    stats.record(encoding, body.length, bytes.length);
+                    return new String(bytes, StandardCharsets.UTF_8);
+                }
+                //For bodies that are not valid for their encoding
+                catch (IOException e) {
+                    throw new UncheckedIOException("Could not decompress " + encoding + " response", e);
+                }
+            });
+        };
+    }
+
+    // Returns a handler handing out the body as a stream that is decompressed while it is read.
+    // The caller must close the stream.
+    public static BodyHandler<InputStream> ofInputStream(TransferStats stats) {
+        return info -> {
+            String encoding = encoding(info.headers());
+            return BodySubscribers.mapping(BodySubscribers.ofInputStream(), body -> new DecodingInputStream(encoding, body, stats));
+        };
+    }
+
+    // Returns the Content-Encoding of a response, identity when there is none.
+    private static String encoding(HttpHeaders headers) {
+        return headers.firstValue("Content-Encoding").map(value -> value.trim().toLowerCase(Locale.ROOT)).orElse("identity");
+    }
+
+    // Returns a stream decompressing the raw body according to its encoding.
+    // Reads the first bytes of the body, so it must not be called on a thread of the HttpClient.
+    private static InputStream decoder(String encoding, InputStream raw) throws IOException {
+        PushbackInputStream body = new PushbackInputStream(raw, 2);
+        byte[] start = body.readNBytes(2);
+        body.unread(start);
+        // Handle empty bodies, they have nothing to decompress
+        if (start.length == 0) {
+            return body;
+        }
+        switch (encoding) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(body, 8192);
+            case "deflate":
+            {
+                // Deflate should be zlib-wrapped, but some servers send the raw data
+                Inflater inflater = new Inflater(!isZlibHeader(start));
+                return new InflaterInputStream(body, inflater, 8192) {
+                    @Override
+                    public void close() throws IOException {
+                        super.close();
+                        inflater.end();
+                    }
+                };
+            }
+            case "identity":
+                return body;
+            default:
+            {
+                logger.log(Level.WARNING, "Unsupported Content-Encoding, reading the body as it is: " + encoding); // Logging the unknown encoding
+                return body;
+            }
+        }
+    }
+
+    // Checks whether the first two bytes are a zlib header (RFC 1950): deflate method and a valid check value.
+    private static boolean isZlibHeader(byte[] start) {
+        return start.length == 2 && (start[0] & 0x0F) == 8 && (((start[0] & 0xFF) << 8) | (start[1] & 0xFF)) % 31 == 0;
+    }
+
+    // Stream counting the bytes read through it.
+    private static final class CountingInputStream extends FilterInputStream {
+        //Bytes read so far
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    // Body stream that opens its decoder on first read, as the body has not arrived yet when it is created.
+    // Records the byte counts once, at the end of the body or when it is closed.
+    private static final class DecodingInputStream extends InputStream {
+        //Content-Encoding of the body
+        private final String encoding;
+        //The body as received, counting the bytes that came over the wire
+        private final CountingInputStream raw;
+        //Where the byte counts go
+        private final TransferStats stats;
+        //Decompressing stream, null until the first read
+        private InputStream decoder;
+        //Bytes handed out after decompression
+        private long decoded;
+        //Whether the byte counts have been recorded
+        private boolean recorded;
+        //Time from the headers to the end of the body
+        private final Metrics.Timer transfer = Metrics.start(Metrics.Metric.REQUEST_BODY);
+
+        private DecodingInputStream(String encoding, InputStream raw, TransferStats stats) {
+            this.encoding = encoding;
+            this.raw = new CountingInputStream(raw);
+            this.stats = stats;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = decoder().read();
+            if (b < 0) {
+                record();
+            } else {
+                decoded++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = decoder().read(buffer, offset, length);
+            if (read < 0) {
+                record();
+            } else {
+                decoded += read;
+            }
+            return read;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return decoder == null ? 0 : decoder.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            record();
+            if (decoder != null) {
+                decoder.close();
+            } else {
+                raw.close();
+            }
+        }
+
+        // Returns the decompressing stream, opening it on first use.
+        private InputStream decoder() throws IOException {
+            if (decoder == null) {
+                decoder = DecompressingBodyHandlers.decoder(encoding, raw);
+            }
+            return decoder;
+        }
+
+        // Records the byte counts the first time it is called.
+        private void record() {
+            if (!recorded) {
+                recorded = true;
+                transfer.stop();
+                stats.record(encoding, raw.count, decoded);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.project1;
+
+import java.lang.reflect.Method; // Used to look up the virtual thread executor on JDKs that have it.
+import java.util.ArrayList; // Used for creating dynamic arrays.
+import java.util.List; // Interface that can be used to create dynamic arrays
+import java.util.concurrent.Callable; // A request to run.
+import java.util.concurrent.CompletableFuture; // Result of a submitted request.
+import java.util.concurrent.ExecutorService; // Runs the requests.
+import java.util.concurrent.Executors; // Factory for the executors.
+import java.util.concurrent.ThreadFactory; // Used to name the fallback threads and mark them as daemons.
+import java.util.concurrent.atomic.AtomicInteger; // Used to number the fallback threads.
+
+// References used:
+// Virtual threads (JEP 444): https://openjdk.org/jeps/444
+// Executors.newVirtualThreadPerTaskExecutor: https://docs.oracle.com/en/java/javase/21/docs/api/java.base/java/util/concurrent/Executors.html#newVirtualThreadPerTaskExecutor()
+// CompletableFuture: https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/CompletableFuture.html
+
+// FanOutExecutor runs many GraphQL requests at once, each on its own thread.
+// On JDK 21 and later every request gets a virtual thread, so thousands of waiting requests cost
+// almost nothing. Older JDKs fall back to a cached pool of platform threads.
+// How many requests are actually in flight is decided by the AdaptiveLimiter, not by the thread count.
+public class FanOutExecutor implements AutoCloseable {
+
+    //Runs the submitted requests
+    private final ExecutorService executor;
+    //Decides how many requests may be in flight
+    private final AdaptiveLimiter limiter;
+
+    // FanOutExecutor constructor, requests are admitted by the given limiter.
+    public FanOutExecutor(final AdaptiveLimiter limiter) {
+        // Handle case where the limiter is missing
+        if (limiter == null) {
+            throw new IllegalArgumentException("Limiter cannot be null");
+        }
+        this.limiter = limiter;
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.executor = virtual != null ? virtual : newPlatformThreadExecutor();
+    }
+
+    // Submits a request, it runs as soon as the limiter grants it a permit.
+    public <T> CompletableFuture<T> submit(Callable<T> request) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                limiter.acquire();
+            }
+            //When the thread is interrupted while waiting for a permit
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Proper handling by re-interrupting the thread
+                result.completeExceptionally(e);
+                return;
+            }
+            try {
+                result.complete(request.call());
+            }
+            // Handle general exception, it is passed on to whoever waits for the result
+            catch (Exception e) {
+                result.completeExceptionally(e);
+            } finally {
+                limiter.release();
+            }
+        });
+        return result;
+    }
+
+    // Submits every request and returns their results in the same order.
+    public <T> List<CompletableFuture<T>> submitAll(List<? extends Callable<T>> requests) {
+        List<CompletableFuture<T>> results = new ArrayList<>(requests.size());
+        for (Callable<T> request : requests) {
+            results.add(submit(request));
+        }
+        return results;
+    }
+
+    // Stops accepting requests, requests already submitted still run.
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    // Returns a virtual thread per task executor, or null on JDKs before 21.
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        }
+        // The JDK has no virtual threads
+        catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    // Returns a cached pool of daemon platform threads.
+    private static ExecutorService newPlatformThreadExecutor() {
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+            // Counter used to give every worker a readable name
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "graphql-fan-out-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
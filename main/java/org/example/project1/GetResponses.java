@@ -3,7 +3,9 @@ package org.example.project1;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties; //This annotation is used at the class level to indicate that any properties not bound in the JSON to this class should be ignored.
 import com.fasterxml.jackson.annotation.JsonProperty; //This annotation is used to specify the name of a property in JSON and bind it to a Java field or method.
 
+import java.util.LinkedHashMap; // Map that keeps the order in which aliases appear in the response
 import java.util.List; // Interface that can be used to create dynamic arrays
+import java.util.Map; // Interface used for the dynamic map of aliased courses
 
 //References used:
 //Jackson Annotations GitHub: https://github.com/FasterXML/jackson-annotations
@@ -48,6 +50,17 @@ public class GetResponses {
             private Term term;
             private String id;
 
+            // Default constructor used by Jackson.
+            public Course() {
+            }
+
+            // Creates a course from values read outside of Jackson, e.g. from the local cache.
+            public Course(String name, String id, Term term) {
+                this.name = name;
+                this.id = id;
+                this.term = term;
+            }
+
             public String getName() {
                 return name;
             }
@@ -64,15 +77,44 @@ public class GetResponses {
             // Represents the term (e.g., semester) information of a course.
             public static class Term {
                 private String name;
+                // Start and end of the term as ISO-8601 date-times, null when the term has no dates
+                private String startAt;
+                private String endAt;
+
+                // Default constructor used by Jackson.
+                public Term() {
+                }
+
+                // Creates a term without dates.
+                public Term(String name) {
+                    this.name = name;
+                }
+
+                // Creates a term from values read outside of Jackson, e.g. from the local cache.
+                public Term(String name, String startAt, String endAt) {
+                    this.name = name;
+                    this.startAt = startAt;
+                    this.endAt = endAt;
+                }
 
                 public String getName() {
                     return name;
                 }
+
+                public String getStartAt() {
+                    return startAt;
+                }
+
+                public String getEndAt() {
+                    return endAt;
+                }
             }
         }
     }
 
      // Root class to encapsulate the top-level data structure for assignment data JSON response.
+     // Top-level "errors" and "extensions" are ignored, a page without data simply has no nodes.
+    @JsonIgnoreProperties(ignoreUnknown = true)
     public static class Root {
         private Data data;
 
@@ -88,10 +130,23 @@ public class GetResponses {
             }
 
              // Encapsulates the connection to assignments, containing a list of nodes (assignments).
+             // The id and name are only present when the query asks for them (e.g. batched queries).
             public static class Course {
+                @JsonProperty("id")
+                private String id;
+                @JsonProperty("name")
+                private String name;
                 @JsonProperty("assignmentsConnection")
                 private AssignmentsConnection assignmentsConnection;
 
+                public String getId() {
+                    return id;
+                }
+
+                public String getName() {
+                    return name;
+                }
+
                 public AssignmentsConnection getAssignmentsConnection() {
                     return assignmentsConnection;
                 }
@@ -103,17 +158,54 @@ public class GetResponses {
                     @JsonProperty("nodes")
                     private List<Node> nodes;
 
+                    // Maps the "pageInfo" JSON object used for cursor pagination.
+                    @JsonProperty("pageInfo")
+                    private PageInfo pageInfo;
+
                     public List<Node> getNodes() {
                         return nodes;
                     }
 
+                    public PageInfo getPageInfo() {
+                        return pageInfo;
+                    }
+
+                    //Represents the cursor information of a page of assignments.
+                    public static class PageInfo {
+                        @JsonProperty("endCursor")
+                        private String endCursor;
+                        @JsonProperty("hasNextPage")
+                        private boolean hasNextPage;
+
+                        public String getEndCursor() {
+                            return endCursor;
+                        }
+
+                        public boolean hasNextPage() {
+                            return hasNextPage;
+                        }
+                    }
+
                     //Represents an individual assignment node with due date and name.
+                    //The id and update time are only present when the query asks for them (e.g. sync queries).
                     public static class Node {
+                        @JsonProperty("id")
+                        private String id;
+                        @JsonProperty("updatedAt")
+                        private String updatedAt;
                         @JsonProperty("dueAt")
                         private String dueAt;
                         @JsonProperty("name")
                         private String name;
 
+                        public String getId() {
+                            return id;
+                        }
+
+                        public String getUpdatedAt() {
+                            return updatedAt;
+                        }
+
                         public String getDueAt() {
                             return dueAt;
                         }
@@ -126,4 +218,64 @@ public class GetResponses {
             }
         }
     }
-}
\ No newline at end of file
+
+     // BatchRoot encapsulates the response of a batched assignment query.
+     // Every course is returned under its alias (c1, c2, ...), so "data" is read as a map of alias to course.
+     // An alias that failed is null in "data" and described in "errors", the other aliases are still usable.
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BatchRoot {
+        @JsonProperty("data")
+        private Map<String, Root.Data.Course> data = new LinkedHashMap<>();
+        @JsonProperty("errors")
+        private List<GraphQlError> errors;
+
+        public Map<String, Root.Data.Course> getData() {
+            return data;
+        }
+
+        public List<GraphQlError> getErrors() {
+            return errors;
+        }
+    }
+
+     // AssignmentBatchRoot encapsulates the response of a query for assignments by id.
+     // Every assignment is returned under its alias (a1, a2, ...), so "data" is read as a map of alias to assignment.
+     // An alias that failed is null in "data" and described in "errors", the other aliases are still usable.
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class AssignmentBatchRoot {
+        @JsonProperty("data")
+        private Map<String, Root.Data.Course.AssignmentsConnection.Node> data = new LinkedHashMap<>();
+        @JsonProperty("errors")
+        private List<GraphQlError> errors;
+
+        public Map<String, Root.Data.Course.AssignmentsConnection.Node> getData() {
+            return data;
+        }
+
+        public List<GraphQlError> getErrors() {
+            return errors;
+        }
+    }
+
+     // Represents one entry of the GraphQL "errors" array, the path starts with the alias that failed.
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class GraphQlError {
+        @JsonProperty("message")
+        private String message;
+        @JsonProperty("path")
+        private List<Object> path;
+
+        public String getMessage() {
+            return message;
+        }
+
+        public List<Object> getPath() {
+            return path;
+        }
+
+        @Override
+        public String toString() {
+            return (path == null ? "" : path + ": ") + message;
+        }
+    }
+}
@@ -1,12 +1,32 @@
 package org.example.project1;
 
+import java.io.ByteArrayInputStream; // Used to put back the start of a streamed body after looking at it.
 import java.io.IOException; // Imports the IOException class, which is thrown when an I/O operation fails or is interrupted.
+import java.io.InputStream; // Used to hand out the response body while it is still arriving.
+import java.io.SequenceInputStream; // Joins the start of a streamed body with the rest of it.
 
 import java.net.URI; // Imports the URI class, which represents a Uniform Resource Identifier, a string of characters used to identify a name or a resource on the Internet.
 import java.net.http.HttpClient; // Imports the HttpClient class, which provides a means to send HTTP requests and receive HTTP responses. HttpClient is part of the HTTP Client API introduced in Java 11.
+import java.net.http.HttpHeaders; // Headers of a response, passed to the response listener.
 import java.net.http.HttpRequest; // Imports the HttpRequest class, which represents an HTTP request. It is used to build requests that can be sent over the network to a server.
 import java.net.http.HttpResponse; // Imports the HttpResponse interface, which represents an HTTP response received from an HTTP request. HttpResponse includes methods to access the status code, headers, and body of the response.
-import java.net.http.HttpResponse.BodyHandlers; // Imports the BodyHandlers class, which is a utility class providing implementations of HttpResponse.BodyHandler. BodyHandlers are used to process and convert the body of an HTTP response.
+import java.net.http.HttpResponse.BodyHandler; // Decides how a response body is read, shared by the retry and hedging logic.
+
+import java.nio.charset.StandardCharsets; // Request bodies are sent as UTF-8.
+import java.time.Duration; // Used for the per-request timeout.
+import java.time.Instant; // Used to turn a Retry-After date into a delay.
+import java.time.ZonedDateTime; // Used to parse a Retry-After date.
+import java.time.format.DateTimeFormatter; // Format of a Retry-After date.
+import java.time.format.DateTimeParseException; // Thrown for a Retry-After value that is neither seconds nor a date.
+import java.util.Map; // Interface for the variables of an operation.
+import java.util.Set; // Interface for the endpoints without persisted queries.
+import java.util.concurrent.CompletableFuture; // Used for the asynchronous query variants.
+import java.util.concurrent.ConcurrentHashMap; // Thread-safe set of the endpoints without persisted queries.
+import java.util.concurrent.ExecutionException; // Wraps the error of a request that was waited for.
+import java.util.concurrent.TimeUnit; // Used for the retry and hedge delays.
+import java.util.concurrent.atomic.AtomicBoolean; // Tells a hedged request whether any attempt has received its headers.
+import java.util.concurrent.atomic.AtomicInteger; // Counts the attempts of a hedged request still running.
+import java.util.function.Function; // Used to flatten the retried request.
 
 /*Using Java Logging API */
 import java.util.logging.Logger; // The Logger class is a part of the Java Logging API and is used to log messages for a specific system or application component.
@@ -20,6 +40,9 @@ import java.util.logging.Level; // The Level class defines a set of standard log
 // Logging levels: https://www.papertrail.com/solution/tips/logging-in-java-best-practices-and-tips/#:~:text=Logging%20in%20Java%20is%20facilitated,defined%20by%20the%20Java%20framework.
 // Exceptions: https://docs.oracle.com/javase/8/docs/api/java/lang/Exception.html
 // Status codes: https://developer.mozilla.org/en-US/docs/Web/HTTP/Status#information_responses
+// CompletableFuture: https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/CompletableFuture.html
+// Retry-After: https://developer.mozilla.org/en-US/docs/Web/HTTP/Headers/Retry-After
+// Automatic persisted queries: https://www.apollographql.com/docs/apollo-server/performance/apq/
 
 // Logging levels available: OFF, FINE, FINER, FINEST, CONFIG, INFO, WARNING, SEVERE, ALL
 
@@ -29,16 +52,50 @@ public class GraphQlConnect {
 
     //main logger
     private static final Logger logger = Logger.getLogger(GraphQlConnect.class.getName());
+    //Responses longer than this are never a persisted query error
+    private static final int PERSISTED_QUERY_ERROR_MAX_LENGTH = 4096;
+    //Endpoints that answered PersistedQueryNotSupported, they are sent the whole document from then on
+    private static final Set<String> persistedQueriesUnsupported = ConcurrentHashMap.newKeySet();
+    //Requests in flight, shared by every GraphQlConnect so identical requests are sent once
+    private static final SingleFlight<String, String> requests = new SingleFlight<>();
     //Token for API authentication
     private final String token;
+    //Hash of the token, part of the key of the requests in flight
+    private final String tokenHash;
 
     //Endpoint for sending graphQL query
     private final String endpoint;
-    //Used for performing Http Requests
+    //Used for performing Http Requests, shared with every other GraphQlConnect for the same endpoint
     private final HttpClient httpClient;
+    //Time allowed for a single request to complete
+    private final Duration requestTimeout;
+    //Told about the status and headers of every response, e.g. to adapt concurrency to rate limits
+    private volatile ResponseListener responseListener;
+    //Retry, hedging and circuit breaker settings
+    private volatile ResiliencePolicy resiliencePolicy = ResiliencePolicy.defaults();
+    //Recent times to response headers of the endpoint, shared with every other GraphQlConnect for the same endpoint unless made its own
+    private volatile LatencyTracker latencyTracker;
+    //Circuit breaker of the endpoint, shared with every other GraphQlConnect for the same endpoint unless made its own
+    private volatile CircuitBreaker circuitBreaker;
+    //Bytes received from the endpoint, compressed and decompressed, shared with every other GraphQlConnect for the same endpoint
+    private final TransferStats transferStats;
+    //Whether operations are sent as the hash of their document first (automatic persisted queries)
+    private volatile boolean persistedQueries;
+    //How long a response to an identical request may be reused, zero only joins requests in flight
+    private volatile Duration reuseWindow = Duration.ZERO;
+
+    // Receives the status code and headers of every response, including failed ones.
+    public interface ResponseListener {
+        void onResponse(int statusCode, HttpHeaders headers);
+    }
 
     // GraphQlConnect class constructor to initialize GraphQlConnect with an API token.
     public GraphQlConnect(final String token, final String endpoint) {
+        this(token, endpoint, GraphQlTransport.DEFAULT_CONNECT_TIMEOUT, GraphQlTransport.DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    // GraphQlConnect class constructor with explicit connect and request timeouts.
+    public GraphQlConnect(final String token, final String endpoint, final Duration connectTimeout, final Duration requestTimeout) {
         // Handle case where token is null or empty
         if (token == null || token.trim().isEmpty()) {
             throw new IllegalArgumentException("API token cannot be null or empty");
@@ -47,108 +104,439 @@ public class GraphQlConnect {
         if (endpoint == null || endpoint.trim().isEmpty()) {
             throw new IllegalArgumentException("Endpoint URL cannot be null or empty");
         }
+        // Handle case where the request timeout is missing or not positive
+        if (requestTimeout == null || requestTimeout.isZero() || requestTimeout.isNegative()) {
+            throw new IllegalArgumentException("Request timeout must be positive");
+        }
         this.token = token;
-        this.httpClient = HttpClient.newHttpClient();
+        this.tokenHash = CourseCache.sha256(token);
+        // Reuse the process-wide client for this endpoint instead of opening a new one per call
+        this.httpClient = GraphQlTransport.forEndpoint(endpoint, connectTimeout).getHttpClient();
         this.endpoint = endpoint;
+        this.requestTimeout = requestTimeout;
+        this.latencyTracker = LatencyTracker.forEndpoint(endpoint);
+        this.circuitBreaker = CircuitBreaker.forEndpoint(endpoint);
+        this.transferStats = TransferStats.forEndpoint(endpoint);
+    }
+
+    // Sets the retry, hedging and circuit breaker settings used for every request.
+    public void setResiliencePolicy(ResiliencePolicy resiliencePolicy) {
+        // Handle case where the policy is missing
+        if (resiliencePolicy == null) {
+            throw new IllegalArgumentException("Resilience policy cannot be null");
+        }
+        this.resiliencePolicy = resiliencePolicy;
+    }
+
+    // Sets whether operations are sent as the hash of their document first.
+    // The endpoint answers PersistedQueryNotFound for a hash it does not know, the operation is then sent
+    // again with the document so the endpoint can store it for the next time.
+    public void setPersistedQueries(boolean persistedQueries) {
+        this.persistedQueries = persistedQueries;
+    }
+
+    // Sets how long this connection accepts a response that arrived earlier for an identical request, and keeps
+    // its own responses for identical requests, zero (the default) only joins requests still in flight.
+    public void setReuseWindow(Duration reuseWindow) {
+        // Handle case where the window is missing or negative
+        if (reuseWindow == null || reuseWindow.isNegative()) {
+            throw new IllegalArgumentException("Reuse window cannot be null or negative");
+        }
+        this.reuseWindow = reuseWindow;
+    }
+
+    // Gives this connection its own circuit breaker and latency history instead of the endpoint's shared ones,
+    // for a token whose failures and slow responses say nothing about the other tokens (e.g. one export tenant).
+    public void useOwnResilienceState() {
+        this.latencyTracker = new LatencyTracker();
+        this.circuitBreaker = new CircuitBreaker();
     }
-    // Sends a GraphQL query for courses to graphQL endpoint and returns the response as a String.
-    public String sendCourseQuery(String graphqlQuery) {
-        //Assing a try and catch in case the course request fails
+
+    public TransferStats getTransferStats() {
+        return transferStats;
+    }
+
+    // Sets the listener told about every response, null removes it.
+    public void setResponseListener(ResponseListener responseListener) {
+        this.responseListener = responseListener;
+    }
+
+    // Passes the status and headers of a response to the listener, if there is one.
+    private void notifyListener(HttpResponse<?> response) {
+        ResponseListener listener = responseListener;
+        if (listener != null) {
+            listener.onResponse(response.statusCode(), response.headers());
+        }
+    }
+
+    // Builds the POST request carrying the given UTF-8 JSON body to the graphQL endpoint.
+    private HttpRequest buildRequest(byte[] body) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(endpoint))
+                .timeout(requestTimeout)
+                .header("Authorization", "Bearer " + this.token)
+                .header("Content-Type", "application/json")
+                .header("Accept-Encoding", DecompressingBodyHandlers.ACCEPT_ENCODING)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+    }
+
+    // Sends a registered operation with its variables and returns the response as a String, or null on failure.
+    public String send(GraphQlOperation operation, Map<String, ?> variables) {
+        //Adding a try and catch in case the request fails
         try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(endpoint))
-                    .header("Authorization", "Bearer " + this.token)
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString("{\"query\":\"" + graphqlQuery + "\"}"))
-                    .build();
-            return responseChecker(request);
-        }
-        //Handle illegal arguments being passed in
-        catch (IllegalArgumentException e) {
-            logger.log(Level.SEVERE, "Invalid URI or argument: " + endpoint, e.getMessage()); //log as severe
+            return sendAsync(operation, variables).get();
+        }
+        //For errors the asynchronous variant did not turn into null.
+        catch (ExecutionException e) {
+            logger.log(Level.SEVERE, "Error during HTTP communication", e.getCause()); //log as severe
         }
-        // Handle general exception
-        catch (Exception e) {
-            logger.log(Level.SEVERE, "Unexpected error occurred during sendCourseQuery", e.getMessage()); //log as severe
+        //When thread executing the request is interrupted
+        catch (InterruptedException e) {
+            logger.log(Level.SEVERE, "HTTP request was interrupted", e); //log as severe
+            Thread.currentThread().interrupt(); // Proper handling by re-interrupting the thread
         }
         return null;
     }
 
-    // Sends a GraphQL query for assignments to graphQL endpoint and returns the response as a String.
-    public String sendAssignmentQuery(String graphqlQuery) {
-        //Adding a try and catch in case the assignment request fails
+    // Asynchronous variant of send, completes with the response body or null on failure.
+    // Identical requests (same endpoint, token and body) already in flight are joined instead of sent again.
+    public CompletableFuture<String> sendAsync(GraphQlOperation operation, Map<String, ?> variables) {
+        byte[] body;
+        //Adding a try and catch in case the request cannot be built
         try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(endpoint))
-                    .header("Authorization", "Bearer " + this.token)
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(graphqlQuery))
-                    .build();
-            return responseChecker(request);
-        }
-        //Handle illegal arguments being passed in
+            body = operation.body(variables);
+        }
+        //Handle invalid variables being passed in
         catch (IllegalArgumentException e) {
-            logger.log(Level.SEVERE, "Invalid URI or argument: " + endpoint, e.getMessage()); //log as severe
+            logger.log(Level.SEVERE, "Invalid variables for operation: " + operation.getName(), e); //log as severe
+            return CompletableFuture.completedFuture(null);
         }
-        // Handle general exception
-        catch (Exception e) {
-            logger.log(Level.SEVERE, "Unexpected error occurred during sendAssignmentQuery", e.getMessage()); //log as severe
+        // The token is only part of the key as a hash, so it is not kept in the map
+        String key = endpoint + "\n" + tokenHash + "\n" + new String(body, StandardCharsets.UTF_8);
+        return requests.execute(key, reuseWindow, () -> sendOnce(operation, variables, body));
+    }
+
+    // Sends the operation once, as its hash first when persisted queries are on.
+    private CompletableFuture<String> sendOnce(GraphQlOperation operation, Map<String, ?> variables, byte[] body) {
+        // Without persisted queries the document is always sent
+        if (!isPersisting()) {
+            return responseCheckerAsync(buildRequest(body));
         }
-        return null;
+        HttpRequest registering = buildRequest(operation.registeringBody(variables));
+        return sendWithPolicy(buildRequest(operation.persistedBody(variables)), DecompressingBodyHandlers.ofString(transferStats), 0)
+                .thenCompose(response -> isPersistedQueryMiss(response.body())
+                        ? responseCheckerAsync(registering)
+                        : CompletableFuture.completedFuture(checkStatus(response)))
+                .exceptionally(e -> {
+                    logger.log(Level.SEVERE, "Error during asynchronous HTTP communication", e); //log as severe
+                    return null;
+                });
     }
 
-    // Helper method to send the HTTP request and return the response body.
-    public String responseChecker(HttpRequest request) {
-        // Adding a final try and catch in case the response fails
+    // Streaming variant of send, returns the response body as a stream or null on failure.
+    // The caller must close the stream.
+    public InputStream sendStream(GraphQlOperation operation, Map<String, ?> variables) {
+        //Adding a try and catch in case the request fails
         try {
-            HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
-            int statusCode = response.statusCode();
-            //Handle all response status Code errors
-            switch(statusCode/100) {
-                case 1: // Informational response
-                {
-                    logger.log(Level.INFO, "Informational response with status code and response: " + statusCode + response.body()); // Logging informational responses
-                    return null;
-                }
-                case 2: // Success
-                {
-                    return response.body();
-                }
-                case 3: // Redirection error
-                {
-                    logger.log(Level.INFO, "Redirection error with status code: " + statusCode); // Logging redirection info
-                    return null;
-                }
-                case 4: // Client errors
-                {
-                    logger.log(Level.WARNING, "Client error with status code: " + statusCode);  // Logging or handling specific client error codes
-                    return null;
-                }
-                case 5: // Server errors
-                {
-                    logger.log(Level.SEVERE, "Server error with status code: " + statusCode);  // Logging or handling specific server error codes
-                    return null;
-                }
-                default: // Default error not handled above
-                {
-                    logger.log(Level.SEVERE, "Unexpected response status code: " + statusCode); // Logging unexpected status code
-                    return null;
-                }
+            // Without persisted queries the document is always sent
+            if (!isPersisting()) {
+                return responseStream(buildRequest(operation.body(variables)));
+            }
+            HttpResponse<InputStream> response = send(buildRequest(operation.persistedBody(variables)), DecompressingBodyHandlers.ofInputStream(transferStats));
+            // Look at the start of the body, a persisted query error is short
+            byte[] start = response.body().readNBytes(PERSISTED_QUERY_ERROR_MAX_LENGTH + 1);
+            if (isPersistedQueryMiss(new String(start, StandardCharsets.UTF_8))) {
+                response.body().close();
+                return responseStream(buildRequest(operation.registeringBody(variables)));
             }
+            return checkStream(response, new SequenceInputStream(new ByteArrayInputStream(start), response.body()));
+        }
+        //Handle invalid variables being passed in
+        catch (IllegalArgumentException e) {
+            logger.log(Level.SEVERE, "Invalid variables for operation: " + operation.getName(), e); //log as severe
         }
         //For I/O errors during the HTTP request.
         catch (IOException e) {
-            logger.log(Level.SEVERE, "I/O error during HTTP communication", e.getMessage()); //log as severe
+            logger.log(Level.SEVERE, "I/O error during HTTP communication", e); //log as severe
         }
         //When thread executing the request is interrupted
         catch (InterruptedException e) {
-            logger.log(Level.SEVERE, "HTTP request was interrupted", e.getMessage()); //log as severe
+            logger.log(Level.SEVERE, "HTTP request was interrupted", e); //log as severe
             Thread.currentThread().interrupt(); // Proper handling by re-interrupting the thread
         }
-        //Handle general exception
-        catch(Exception e) {
-            logger.log(Level.SEVERE, "Unexpected error occurred during send response", e.getMessage()); //log as severe
+        return null;
+    }
+
+    // Checks whether operations are sent as hashes first to this endpoint.
+    private boolean isPersisting() {
+        return persistedQueries && !persistedQueriesUnsupported.contains(endpoint);
+    }
+
+    // Checks whether a response says the endpoint could not use the hash of a persisted query.
+    // An endpoint that does not support persisted queries at all is remembered and sent documents from then on.
+    private boolean isPersistedQueryMiss(String body) {
+        // Real responses are far longer than the error
+        if (body == null || body.length() > PERSISTED_QUERY_ERROR_MAX_LENGTH) {
+            return false;
+        }
+        if (body.contains("PersistedQueryNotSupported") || body.contains("PERSISTED_QUERY_NOT_SUPPORTED")) {
+            logger.log(Level.INFO, "Endpoint does not support persisted queries, sending documents: " + endpoint); // Logging the fallback
+            persistedQueriesUnsupported.add(endpoint);
+            return true;
         }
+        return body.contains("PersistedQueryNotFound") || body.contains("PERSISTED_QUERY_NOT_FOUND");
+    }
+
+    // Helper method to send the HTTP request asynchronously on the shared client.
+    public CompletableFuture<String> responseCheckerAsync(HttpRequest request) {
+        return sendWithPolicy(request, DecompressingBodyHandlers.ofString(transferStats), 0)
+                .thenApply(this::checkStatus)
+                .exceptionally(e -> {
+                    logger.log(Level.SEVERE, "Error during asynchronous HTTP communication", e); //log as severe
+                    return null;
+                });
+    }
+
+    // Helper method to send the HTTP request and return the response body as a stream.
+    // The body is not buffered, it is read from the network as the caller consumes the stream.
+    public InputStream responseStream(HttpRequest request) {
+        // Adding a try and catch in case the response fails
+        try {
+            HttpResponse<InputStream> response = send(request, DecompressingBodyHandlers.ofInputStream(transferStats));
+            return checkStream(response, response.body());
+        }
+        //For I/O errors during the HTTP request.
+        catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error during HTTP communication", e); //log as severe
+        }
+        //When thread executing the request is interrupted
+        catch (InterruptedException e) {
+            logger.log(Level.SEVERE, "HTTP request was interrupted", e); //log as severe
+            Thread.currentThread().interrupt(); // Proper handling by re-interrupting the thread
+        }
+        return null;
+    }
+
+    // Hands out the body of a successful streamed response, anything else is logged and closed.
+    private static InputStream checkStream(HttpResponse<InputStream> response, InputStream body) throws IOException {
+        int statusCode = response.statusCode();
+        if (statusCode / 100 == 2) {
+            return body;
+        }
+        logger.log(statusCode / 100 == 5 ? Level.SEVERE : Level.WARNING, "Request failed with status code: " + statusCode); // Logging the failed status code
+        body.close();
         return null;
     }
-}
\ No newline at end of file
+
+    // Sends the request under the resilience policy and waits for the final response.
+    private <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> handler) throws IOException, InterruptedException {
+        try {
+            return sendWithPolicy(request, handler, 0).get();
+        }
+        // Unwrap the error of the last attempt
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    // Sends the request under the resilience policy. Fails fast while the circuit is open, hedges slow
+    // requests and retries throttled, unavailable and failed requests. Completes with the last response
+    // received, or with the error of the last attempt if none was received.
+    private <T> CompletableFuture<HttpResponse<T>> sendWithPolicy(HttpRequest request, BodyHandler<T> handler, int attempt) {
+        ResiliencePolicy policy = resiliencePolicy;
+        // Fail fast while the endpoint is known to be down
+        if (!circuitBreaker.allowRequest(policy)) {
+            return CompletableFuture.failedFuture(new IOException("Circuit breaker is open for " + endpoint));
+        }
+        return sendHedged(request, handler, policy).handle((response, error) -> {
+            Duration delay = null;
+            if (error != null) {
+                circuitBreaker.recordFailure(policy);
+                // Give up once the retries are used up
+                if (attempt >= policy.getMaxRetries()) {
+                    return CompletableFuture.<HttpResponse<T>>failedFuture(error);
+                }
+                delay = policy.backoff(attempt);
+                logger.log(Level.FINE, "Request failed, retrying in " + delay.toMillis() + " ms: " + error.getMessage());
+            } else {
+                StartupTrace.responseReceived();
+                notifyListener(response);
+                int statusCode = response.statusCode();
+                // Server errors count against the endpoint, anything else shows it is up
+                if (statusCode / 100 == 5) {
+                    circuitBreaker.recordFailure(policy);
+                } else {
+                    circuitBreaker.recordSuccess();
+                }
+                if (isRetryable(response) && attempt < policy.getMaxRetries()) {
+                    delay = retryDelay(response, attempt, policy);
+                }
+                // Hand out the response if it is final
+                if (delay == null) {
+                    return CompletableFuture.completedFuture(response);
+                }
+                discard(response);
+                logger.log(Level.FINE, "Request answered with status " + statusCode + ", retrying in " + delay.toMillis() + " ms");
+            }
+            return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> sendWithPolicy(request, handler, attempt + 1));
+        }).thenCompose(Function.identity());
+    }
+
+    // Sends the request once, plus a duplicate if hedging is on and no response headers arrived within the p95
+    // time to headers of the endpoint. Completes with whichever response arrives first, the other one is discarded.
+    // Streamed and buffered bodies are both judged by their time to headers, so a long body is never hedged.
+    private <T> CompletableFuture<HttpResponse<T>> sendHedged(HttpRequest request, BodyHandler<T> handler, ResiliencePolicy policy) {
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        AtomicInteger running = new AtomicInteger(1);
+        AtomicBoolean headersReceived = new AtomicBoolean();
+        sendTracked(request, handler, result, running, headersReceived);
+        long p95 = policy.isHedging() ? latencyTracker.percentile(95) : -1;
+        // Not enough latencies recorded yet to know what slow is
+        if (p95 < 0) {
+            return result;
+        }
+        CompletableFuture.delayedExecutor(p95, TimeUnit.NANOSECONDS).execute(() -> {
+            if (!result.isDone() && !headersReceived.get()) {
+                logger.log(Level.FINE, "Request slower than p95 of " + p95 / 1_000_000 + " ms, sending hedged request");
+                running.incrementAndGet();
+                sendTracked(request, handler, result, running, headersReceived);
+            }
+        });
+        return result;
+    }
+
+    // Sends one attempt, records its time to headers and completes the result with it unless another attempt won.
+    // The result only fails once every attempt failed.
+    private <T> void sendTracked(HttpRequest request, BodyHandler<T> handler, CompletableFuture<HttpResponse<T>> result, AtomicInteger running,
+            AtomicBoolean headersReceived) {
+        long start = System.nanoTime();
+        Metrics.Timer attempt = Metrics.start(Metrics.Metric.REQUEST);
+        Metrics.Timer headers = Metrics.start(Metrics.Metric.REQUEST_HEADERS);
+        // The handler is applied once the headers have arrived, whatever the body handler does with the body after that
+        BodyHandler<T> timedHandler = info -> {
+            headers.stop();
+            latencyTracker.record(System.nanoTime() - start);
+            headersReceived.set(true);
+            return handler.apply(info);
+        };
+        httpClient.sendAsync(request, timedHandler).whenComplete((response, error) -> {
+            attempt.stop();
+            if (response != null) {
+                if (!result.complete(response)) {
+                    discard(response);
+                }
+            } else if (running.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        });
+    }
+
+    // Checks whether a response is worth retrying: throttled, or the server is temporarily unavailable.
+    private static boolean isRetryable(HttpResponse<?> response) {
+        int statusCode = response.statusCode();
+        return statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504 || isThrottledForbidden(statusCode, response.headers());
+    }
+
+    // Canvas answers 403 when the rate limit bucket is empty, told apart from a real 403 by its headers.
+    // Also used by AdaptiveLimiter, so a real 403 neither is retried nor cuts the concurrency.
+    static boolean isThrottledForbidden(int statusCode, HttpHeaders headers) {
+        if (statusCode != 403) {
+            return false;
+        }
+        return headers.firstValue("Retry-After").isPresent()
+                || headers.firstValue(AdaptiveLimiter.REMAINING_HEADER).map(value -> value.trim().startsWith("0") || value.trim().startsWith("-")).orElse(false);
+    }
+
+    // Returns the delay before retrying a response: its Retry-After if it has one, the policy's backoff otherwise.
+    // Returns null when Retry-After asks for a longer wait than the policy allows.
+    private static Duration retryDelay(HttpResponse<?> response, int attempt, ResiliencePolicy policy) {
+        Duration retryAfter = retryAfter(response.headers());
+        if (retryAfter == null) {
+            return policy.backoff(attempt);
+        }
+        // Handle case where the server asks for a longer wait than is worth it
+        if (retryAfter.compareTo(policy.getMaxRetryAfter()) > 0) {
+            logger.log(Level.WARNING, "Not retrying, Retry-After of " + retryAfter.getSeconds() + " s is too long");
+            return null;
+        }
+        return retryAfter;
+    }
+
+    // Reads Retry-After as either seconds or an HTTP date, null when it is missing or invalid.
+    private static Duration retryAfter(HttpHeaders headers) {
+        String value = headers.firstValue("Retry-After").map(String::trim).orElse(null);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+        }
+        // Not a number of seconds, so it should be a date
+        catch (NumberFormatException e) {
+            try {
+                Duration untilDate = Duration.between(Instant.now(), ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME));
+                return untilDate.isNegative() ? Duration.ZERO : untilDate;
+            }
+            // Handle values that are neither
+            catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    // Releases a response that is not handed out, streamed bodies would otherwise keep their connection.
+    private static void discard(HttpResponse<?> response) {
+        if (response.body() instanceof InputStream) {
+            try {
+                ((InputStream) response.body()).close();
+            }
+            //For I/O errors while closing, the response is not used anyway
+            catch (IOException e) {
+                logger.log(Level.FINE, "Could not close discarded response", e);
+            }
+        }
+    }
+
+    // Checks the status code of a response and returns its body only when the request succeeded.
+    private String checkStatus(HttpResponse<String> response) {
+        int statusCode = response.statusCode();
+        //Handle all response status Code errors
+        switch(statusCode/100) {
+            case 1: // Informational response
+            {
+                logger.log(Level.INFO, "Informational response with status code and response: " + statusCode + response.body()); // Logging informational responses
+                return null;
+            }
+            case 2: // Success
+            {
+                return response.body();
+            }
+            case 3: // Redirection error
+            {
+                logger.log(Level.INFO, "Redirection error with status code: " + statusCode); // Logging redirection info
+                return null;
+            }
+            case 4: // Client errors
+            {
+                logger.log(Level.WARNING, "Client error with status code: " + statusCode);  // Logging or handling specific client error codes
+                return null;
+            }
+            case 5: // Server errors
+            {
+                logger.log(Level.SEVERE, "Server error with status code: " + statusCode);  // Logging or handling specific server error codes
+                return null;
+            }
+            default: // Default error not handled above
+            {
+                logger.log(Level.SEVERE, "Unexpected response status code: " + statusCode); // Logging unexpected status code
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package org.example.project1;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder; // Escapes strings for JSON without building an ObjectMapper.
+
+import java.io.ByteArrayOutputStream; // Used to put request bodies together.
+import java.nio.charset.StandardCharsets; // Request bodies are UTF-8.
+import java.security.MessageDigest; // Used to hash the document for persisted queries.
+import java.security.NoSuchAlgorithmException; // Thrown if SHA-256 is not available.
+import java.util.Collection; // Values of list variables.
+import java.util.Collections; // Used for the read-only variable definitions.
+import java.util.HexFormat; // Used to turn the document hash into hex.
+import java.util.LinkedHashMap; // Keeps the variable definitions in declaration order.
+import java.util.LinkedHashSet; // Collects the variables used by the document.
+import java.util.Map; // Interface for the variables of a request.
+import java.util.Set; // Interface for the variables used by the document.
+import java.util.regex.Matcher; // Used to read the operation header and variable uses.
+import java.util.regex.Pattern; // Patterns of the operation header and variable uses.
+
+// References used:
+// GraphQL over HTTP: https://graphql.org/learn/serving-over-http/
+// GraphQL variables: https://graphql.org/learn/queries/#variables
+// Automatic persisted queries: https://www.apollographql.com/docs/apollo-server/performance/apq/
+// JsonStringEncoder: https://fasterxml.github.io/jackson-core/javadoc/2.15/com/fasterxml/jackson/core/io/JsonStringEncoder.html
+
+// GraphQlOperation is a GraphQL query that has been parsed and validated once and is sent with variables.
+// Checks done when the operation is created:
+//   - the document is a single named query with balanced braces and parentheses,
+//   - it contains no string literals, so every value has to be passed as a variable,
+//   - every variable used is declared, and every declared variable is used.
+// The JSON request bodies are encoded once and kept as UTF-8 bytes, a request only adds its variables.
+// Variables are checked against their declared types (ID, String, Int, Float, Boolean and lists of them).
+public final class GraphQlOperation {
+
+    //Operation header: query name(variable definitions) {
+    private static final Pattern HEADER = Pattern.compile("^\\s*query\\s+([_A-Za-z][_0-9A-Za-z]*)\\s*(\\(([^)]*)\\))?\\s*\\{");
+    //One variable definition: $name: Type, [Type] or either followed by !
+    private static final Pattern DEFINITION = Pattern.compile("\\s*\\$([_A-Za-z][_0-9A-Za-z]*)\\s*:\\s*(\\[\\s*([_A-Za-z]+)\\s*!?\\s*]|([_A-Za-z]+))\\s*(!?)\\s*");
+    //A variable used in the selection set
+    private static final Pattern USE = Pattern.compile("\\$([_A-Za-z][_0-9A-Za-z]*)");
+    //Scalar types variables can have
+    private static final Set<String> SCALARS = Set.of("ID", "String", "Int", "Float", "Boolean");
+
+    // A declared variable: its scalar type, whether it is a list and whether it is required.
+    public static final class Variable {
+        private final String type;
+        private final boolean list;
+        private final boolean required;
+
+        // Variable constructor.
+        private Variable(final String type, final boolean list, final boolean required) {
+            this.type = type;
+            this.list = list;
+            this.required = required;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public boolean isList() {
+            return list;
+        }
+
+        public boolean isRequired() {
+            return required;
+        }
+    }
+
+    //Name of the operation
+    private final String name;
+    //The document as it is sent, whitespace collapsed
+    private final String document;
+    //Declared variables by name, in declaration order
+    private final Map<String, Variable> variables;
+    //SHA-256 of the document as hex, used for persisted queries
+    private final String sha256;
+    //Start of the body carrying the document: {"operationName":"...","query":"..."
+    private final byte[] documentPrefix;
+    //Start of the body carrying only the hash of the document
+    private final byte[] persistedPrefix;
+    //Start of the body carrying the document and its hash, used to register a persisted query
+    private final byte[] registeringPrefix;
+
+    // GraphQlOperation constructor, parses and validates the document.
+    public GraphQlOperation(final String document) {
+        // Handle case where document is null or empty
+        if (document == null || document.trim().isEmpty()) {
+            throw new IllegalArgumentException("GraphQL document cannot be null or empty");
+        }
+        String collapsed = document.trim().replaceAll("\\s+", " ");
+        // Values must be passed as variables, so a value can never change the document
+        if (collapsed.indexOf('"') >= 0) {
+            throw new IllegalArgumentException("GraphQL document cannot contain string literals, use variables: " + collapsed);
+        }
+        Matcher header = HEADER.matcher(collapsed);
+        // Handle documents that are not a single named query
+        if (!header.find()) {
+            throw new IllegalArgumentException("GraphQL document must start with 'query <name>': " + collapsed);
+        }
+        checkBalanced(collapsed);
+        this.name = header.group(1);
+        this.document = collapsed;
+        this.variables = Collections.unmodifiableMap(parseDefinitions(header.group(3), collapsed));
+        // Every variable used must be declared, and every declared variable used
+        Set<String> used = new LinkedHashSet<>();
+        Matcher use = USE.matcher(collapsed.substring(header.end()));
+        while (use.find()) {
+            used.add(use.group(1));
+        }
+        if (!used.equals(variables.keySet())) {
+            throw new IllegalArgumentException("Variables used " + used + " do not match the variables declared " + variables.keySet() + " in " + name);
+        }
+        this.sha256 = HexFormat.of().formatHex(sha256Bytes(collapsed));
+        String operationName = "{\"operationName\":\"" + name + "\"";
+        String query = ",\"query\":\"" + new String(JsonStringEncoder.getInstance().quoteAsString(collapsed)) + "\"";
+        String extensions = ",\"extensions\":{\"persistedQuery\":{\"version\":1,\"sha256Hash\":\"" + sha256 + "\"}}";
+        this.documentPrefix = (operationName + query).getBytes(StandardCharsets.UTF_8);
+        this.persistedPrefix = (operationName + extensions).getBytes(StandardCharsets.UTF_8);
+        this.registeringPrefix = (operationName + query + extensions).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDocument() {
+        return document;
+    }
+
+    public Map<String, Variable> getVariables() {
+        return variables;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    // Returns the request body carrying the document and the variables.
+    public byte[] body(Map<String, ?> values) {
+        return body(documentPrefix, values);
+    }
+
+    // Returns the request body carrying only the hash of the document and the variables.
+    public byte[] persistedBody(Map<String, ?> values) {
+        return body(persistedPrefix, values);
+    }
+
+    // Returns the request body carrying the document, its hash and the variables.
+    public byte[] registeringBody(Map<String, ?> values) {
+        return body(registeringPrefix, values);
+    }
+
+    // Appends the checked variables to one of the cached body starts.
+    private byte[] body(byte[] prefix, Map<String, ?> values) {
+        Map<String, ?> given = values == null ? Collections.emptyMap() : values;
+        // Handle variables the operation does not declare
+        for (String key : given.keySet()) {
+            if (!variables.containsKey(key)) {
+                throw new IllegalArgumentException("Operation " + name + " has no variable $" + key);
+            }
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream(prefix.length + 32 * given.size() + 16);
+        body.writeBytes(prefix);
+        boolean first = true;
+        for (Map.Entry<String, Variable> definition : variables.entrySet()) {
+            Object value = given.get(definition.getKey());
+            // Handle required variables that are missing, optional ones are left out
+            if (value == null) {
+                if (definition.getValue().isRequired()) {
+                    throw new IllegalArgumentException("Operation " + name + " requires variable $" + definition.getKey());
+                }
+                continue;
+            }
+            body.writeBytes((first ? ",\"variables\":{\"" : ",\"").getBytes(StandardCharsets.UTF_8));
+            body.writeBytes(definition.getKey().getBytes(StandardCharsets.UTF_8));
+            body.writeBytes("\":".getBytes(StandardCharsets.UTF_8));
+            writeValue(body, definition.getKey(), definition.getValue(), value);
+            first = false;
+        }
+        if (!first) {
+            body.write('}');
+        }
+        body.write('}');
+        return body.toByteArray();
+    }
+
+    // Writes a variable value as JSON after checking it against the declared type.
+    private void writeValue(ByteArrayOutputStream body, String key, Variable variable, Object value) {
+        if (variable.isList()) {
+            // Handle values that are not lists
+            if (!(value instanceof Collection)) {
+                throw new IllegalArgumentException("Variable $" + key + " of " + name + " must be a list");
+            }
+            body.write('[');
+            boolean first = true;
+            for (Object element : (Collection<?>) value) {
+                if (!first) {
+                    body.write(',');
+                }
+                writeScalar(body, key, variable.getType(), element);
+                first = false;
+            }
+            body.write(']');
+        } else {
+            writeScalar(body, key, variable.getType(), value);
+        }
+    }
+
+    // Writes one scalar value as JSON after checking it against its type.
+    private void writeScalar(ByteArrayOutputStream body, String key, String type, Object value) {
+        boolean valid;
+        switch (type) {
+            case "ID":
+                valid = value instanceof String || value instanceof Integer || value instanceof Long;
+                break;
+            case "String":
+                valid = value instanceof String;
+                break;
+            case "Int":
+                valid = value instanceof Integer;
+                break;
+            case "Float":
+                valid = value instanceof Number;
+                break;
+            case "Boolean":
+            default:
+                valid = value instanceof Boolean;
+                break;
+        }
+        // Handle values of the wrong type
+        if (!valid) {
+            throw new IllegalArgumentException("Variable $" + key + " of " + name + " must be of type " + type + ", got " + value);
+        }
+        // IDs and strings are JSON strings, everything else is written as it is
+        if (type.equals("ID") || type.equals("String")) {
+            body.write('"');
+            body.writeBytes(JsonStringEncoder.getInstance().quoteAsUTF8(value.toString()));
+            body.write('"');
+        } else {
+            body.writeBytes(value.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    // Parses the variable definitions between the parentheses of the header.
+    private static Map<String, Variable> parseDefinitions(String definitions, String document) {
+        Map<String, Variable> parsed = new LinkedHashMap<>();
+        // Handle operations without variables
+        if (definitions == null || definitions.isBlank()) {
+            return parsed;
+        }
+        for (String definition : definitions.split(",")) {
+            Matcher matcher = DEFINITION.matcher(definition);
+            // Handle definitions that cannot be read
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Invalid variable definition '" + definition.trim() + "' in " + document);
+            }
+            boolean list = matcher.group(3) != null;
+            String type = list ? matcher.group(3) : matcher.group(4);
+            // Handle types that are not scalars
+            if (!SCALARS.contains(type)) {
+                throw new IllegalArgumentException("Unsupported variable type " + type + " in " + document);
+            }
+            if (parsed.put(matcher.group(1), new Variable(type, list, !matcher.group(5).isEmpty())) != null) {
+                throw new IllegalArgumentException("Variable $" + matcher.group(1) + " is declared twice in " + document);
+            }
+        }
+        return parsed;
+    }
+
+    // Checks that braces and parentheses are balanced and properly nested.
+    private static void checkBalanced(String document) {
+        StringBuilder open = new StringBuilder();
+        for (int i = 0; i < document.length(); i++) {
+            char c = document.charAt(i);
+            if (c == '{' || c == '(' || c == '[') {
+                open.append(c);
+            } else if (c == '}' || c == ')' || c == ']') {
+                char expected = c == '}' ? '{' : c == ')' ? '(' : '[';
+                if (open.length() == 0 || open.charAt(open.length() - 1) != expected) {
+                    throw new IllegalArgumentException("Unbalanced '" + c + "' at " + i + " in " + document);
+                }
+                open.setLength(open.length() - 1);
+            }
+        }
+        if (open.length() > 0) {
+            throw new IllegalArgumentException("Unclosed '" + open.charAt(open.length() - 1) + "' in " + document);
+        }
+    }
+
+    // Returns the SHA-256 hash of the document.
+    private static byte[] sha256Bytes(String document) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(document.getBytes(StandardCharsets.UTF_8));
+        }
+        // Every Java platform is required to support SHA-256
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.project1;
+
+import java.net.http.HttpClient; // Imports the HttpClient class, which provides a means to send HTTP requests and receive HTTP responses.
+
+import java.time.Duration; // Used for representing connect and request timeouts.
+import java.util.concurrent.ConcurrentHashMap; // Thread-safe map used to hold one client per endpoint.
+import java.util.concurrent.ConcurrentMap; // Interface for the thread-safe client map.
+import java.util.concurrent.ExecutorService; // Executor used by the HttpClient for its asynchronous work.
+import java.util.concurrent.Executors; // Factory for the dedicated HTTP executor.
+import java.util.concurrent.ThreadFactory; // Used to name the HTTP worker threads and mark them as daemons.
+import java.util.concurrent.atomic.AtomicInteger; // Used to number the HTTP worker threads.
+
+// References used:
+// Java HTTP Client: https://docs.oracle.com/en/java/javase/11/docs/api/java.net.http/java/net/http/HttpClient.html
+// HttpClient.Builder: https://docs.oracle.com/en/java/javase/11/docs/api/java.net.http/java/net/http/HttpClient.Builder.html
+// HTTP/2 in Java: https://openjdk.org/groups/net/httpclient/intro.html
+// Executors: https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/Executors.html
+
+// GraphQlTransport holds the process-wide HttpClient for each GraphQL endpoint.
+// Every GraphQlConnect created for the same endpoint shares the same client, so the
+// TLS handshake and HTTP/2 connection are set up once and then multiplexed by all requests.
+public final class GraphQlTransport {
+
+    // Default time allowed to open a connection to the endpoint
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    // Default time allowed for a single request to complete
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    // One transport per endpoint and connect timeout, shared by the whole process
+    private static final ConcurrentMap<String, GraphQlTransport> transports = new ConcurrentHashMap<>();
+
+    // Dedicated executor for the HttpClient so its work does not run on the common pool
+    private static final ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactory() {
+        // Counter used to give every worker a readable name
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "graphql-http-" + count.incrementAndGet());
+            // Daemon threads so an idle client never keeps the CLI from exiting
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    //Shared client for the endpoint
+    private final HttpClient httpClient;
+
+    // Private constructor, transports are only created through forEndpoint
+    private GraphQlTransport(final Duration connectTimeout) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2) // Negotiate HTTP/2 so concurrent requests share one connection
+                .connectTimeout(connectTimeout)
+                .executor(executor)
+                .build();
+    }
+
+    // Returns the shared transport for the endpoint, creating it on first use.
+    public static GraphQlTransport forEndpoint(final String endpoint, final Duration connectTimeout) {
+        // Handle case where endpoint is null or empty
+        if (endpoint == null || endpoint.trim().isEmpty()) {
+            throw new IllegalArgumentException("Endpoint URL cannot be null or empty");
+        }
+        // Handle case where the timeout is missing or not positive
+        if (connectTimeout == null || connectTimeout.isZero() || connectTimeout.isNegative()) {
+            throw new IllegalArgumentException("Connect timeout must be positive");
+        }
+        return transports.computeIfAbsent(endpoint + "|" + connectTimeout.toMillis(), key -> new GraphQlTransport(connectTimeout));
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.project1;
+
+import java.util.concurrent.atomic.AtomicLongArray; // Bucket counts, updated without locking.
+import java.util.concurrent.atomic.LongAdder; // Sum of the recorded values.
+
+// References used:
+// HdrHistogram: http://hdrhistogram.org/
+// HdrHistogram source (log-linear buckets): https://github.com/HdrHistogram/HdrHistogram
+
+// Histogram counts non-negative values in log-linear buckets: every power of two is split into 8 buckets,
+// so a percentile is within 12.5% of the real value whatever the range (nanoseconds to minutes, bytes to gigabytes).
+// Recording is an index computation and two atomic adds, cheap enough to leave on for every request.
+public class Histogram {
+
+    //Values below this are counted exactly, one bucket each
+    private static final int SUB_BUCKETS = 8;
+    //Number of buckets needed for any non-negative long
+    private static final int BUCKETS = (63 - 2) * SUB_BUCKETS + SUB_BUCKETS;
+
+    //Count of values per bucket
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    //Sum of the values
+    private final LongAdder sum = new LongAdder();
+
+    // Records one value, negative values are counted as 0.
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(index(v));
+        sum.add(v);
+    }
+
+    // Returns a copy of the counts recorded so far.
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, sum.sum());
+    }
+
+    // Returns the bucket of a value.
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+        return (exponent - 2) * SUB_BUCKETS + mantissa;
+    }
+
+    // Returns the largest value counted in a bucket.
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + 2;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - 3);
+        return lower + (1L << (exponent - 3)) - 1;
+    }
+
+    // Counts of a histogram at one point in time, two snapshots can be subtracted to get what was recorded in between.
+    public static final class Snapshot {
+        //Count of values per bucket
+        private final long[] counts;
+        //Sum of the values
+        private final long sum;
+        //Number of values
+        private final long count;
+
+        private Snapshot(final long[] counts, final long sum) {
+            this.counts = counts;
+            this.sum = sum;
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            this.count = total;
+        }
+
+        // Returns what was recorded after the earlier snapshot.
+        public Snapshot minus(Snapshot earlier) {
+            long[] difference = new long[counts.length];
+            for (int i = 0; i < counts.length; i++) {
+                difference[i] = counts[i] - earlier.counts[i];
+            }
+            return new Snapshot(difference, sum - earlier.sum);
+        }
+
+        // Returns the given percentile (0-100) as the middle of its bucket, 0 if nothing was recorded.
+        public long percentile(double percentile) {
+            // Handle empty snapshots
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return middle(i);
+                }
+            }
+            return middle(counts.length - 1);
+        }
+
+        // Returns the middle of a bucket, halfway between the largest values of it and the bucket before it.
+        private static long middle(int index) {
+            long lower = index == 0 ? 0 : upperBound(index - 1) + 1;
+            return lower + (upperBound(index) - lower) / 2;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+    }
+}
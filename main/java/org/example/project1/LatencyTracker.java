@@ -0,0 +1,59 @@
+package org.example.project1;
+
+import java.util.Arrays; // Used to sort the samples for a percentile.
+import java.util.concurrent.ConcurrentHashMap; // Thread-safe map holding one tracker per endpoint.
+import java.util.concurrent.ConcurrentMap; // Interface for the tracker map.
+
+// References used:
+// Percentiles: https://en.wikipedia.org/wiki/Percentile
+// The Tail at Scale: https://research.google/pubs/pub40801/
+
+// LatencyTracker keeps the latencies of the most recent requests to an endpoint and answers percentiles.
+// GraphQlConnect records the time to the response headers (first byte) of every request, so streamed and
+// buffered responses give comparable samples whatever the size of their bodies.
+// One tracker is shared per endpoint, so every GraphQlConnect to it learns from the same requests.
+public class LatencyTracker {
+
+    //Number of recent samples kept
+    private static final int WINDOW = 512;
+    //Fewer samples than this are not enough for a meaningful percentile
+    private static final int MIN_SAMPLES = 20;
+    //One tracker per endpoint
+    private static final ConcurrentMap<String, LatencyTracker> trackers = new ConcurrentHashMap<>();
+
+    //Ring buffer of the latest latencies in nanoseconds
+    private final long[] samples = new long[WINDOW];
+    //Total number of samples recorded, the next one goes to count % WINDOW
+    private long count;
+
+    // Returns the shared tracker for the endpoint.
+    public static LatencyTracker forEndpoint(String endpoint) {
+        return trackers.computeIfAbsent(endpoint, key -> new LatencyTracker());
+    }
+
+    // Records the latency of one request.
+    public synchronized void record(long nanos) {
+        samples[(int) (count % WINDOW)] = nanos;
+        count++;
+    }
+
+    // Returns the given percentile (0-100) of the recent latencies in nanoseconds, or -1 without enough samples.
+    public long percentile(double percentile) {
+        long[] copy;
+        synchronized (this) {
+            // Handle case where there are not enough samples yet
+            if (count < MIN_SAMPLES) {
+                return -1;
+            }
+            copy = Arrays.copyOf(samples, (int) Math.min(count, WINDOW));
+        }
+        Arrays.sort(copy);
+        int index = (int) Math.ceil(percentile / 100.0 * copy.length) - 1;
+        return copy[Math.max(0, Math.min(index, copy.length - 1))];
+    }
+
+    // Returns the number of samples recorded so far.
+    public synchronized long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,251 @@
+package org.example.project1;
+
+import com.sun.net.httpserver.HttpServer; // Serves the Prometheus text for the daemon.
+
+import jdk.jfr.Category; // Groups the events in JDK Mission Control.
+import jdk.jfr.DataAmount; // Marks byte counts in the events.
+import jdk.jfr.Description; // Describes the events.
+import jdk.jfr.Event; // Base class of the custom JFR events.
+import jdk.jfr.Label; // Human readable names of the events and their fields.
+import jdk.jfr.Name; // Stable names of the events.
+
+import java.io.IOException; // Thrown when the metrics endpoint cannot be started.
+import java.io.OutputStream; // Body of a metrics response.
+import java.io.PrintWriter; // Destination of the --stats report.
+import java.net.InetAddress; // The metrics endpoint only listens on the loopback address.
+import java.net.InetSocketAddress; // Address of the metrics endpoint.
+import java.nio.charset.StandardCharsets; // The Prometheus text format is UTF-8.
+import java.util.EnumMap; // Holds one histogram or snapshot per metric.
+import java.util.Locale; // Used for locale independent number formatting.
+import java.util.Map; // Interface for the snapshots by metric.
+import java.util.Set; // Interface for the limiters read by the gauges.
+import java.util.concurrent.ConcurrentHashMap; // Thread-safe set of the limiters read by the gauges.
+
+// References used:
+// JFR custom events: https://docs.oracle.com/en/java/javase/17/jfapi/creating-and-recording-your-first-event.html
+// Prometheus text format: https://prometheus.io/docs/instrumenting/exposition_formats/
+// HttpServer: https://docs.oracle.com/en/java/javase/17/docs/api/jdk.httpserver/com/sun/net/httpserver/HttpServer.html
+
+// Metrics records where the time and bytes of a run go, per phase, in process-wide histograms.
+// Phases:
+//   - request: one attempt, from sending until the response is handed over (the whole body, or the headers for streamed bodies),
+//   - request headers: sending to the response headers, i.e. connection setup (DNS, TCP, TLS) and server time,
+//   - request body: headers to the end of the body, i.e. transfer and decompression. For streamed responses the
+//     body is parsed while it arrives, so this includes the parsing,
+//   - parse: JSON parsing of responses that were received in full,
+//   - filter and print: filtering, sorting and printing the assignments,
+//   - command: the whole command.
+// Timers are also JFR events, so a flight recording shows every phase on its thread. Events cost nothing
+// unless a recording is running, and the histograms are always on.
+// --stats prints what one command recorded, the daemon can serve the totals in Prometheus text format.
+// The Prometheus text also has gauges of the requests in flight and permitted by the AdaptiveLimiters of
+// the fan-outs running at the time (graphql_limiter_in_flight and graphql_limiter_limit).
+public final class Metrics {
+
+    // A metric: its name in the Prometheus export, its label in the --stats report, and whether it is a time
+    public enum Metric {
+        REQUEST("request_seconds", "request", true),
+        REQUEST_HEADERS("request_headers_seconds", "request headers", true),
+        REQUEST_BODY("request_body_seconds", "request body", true),
+        PARSE("parse_seconds", "parse", true),
+        OUTPUT("filter_and_print_seconds", "filter and print", true),
+        COMMAND("command_seconds", "command", true),
+        RESPONSE_BYTES("response_bytes", "response bytes", false),
+        DECOMPRESSED_BYTES("response_decompressed_bytes", "decompressed bytes", false);
+
+        //Name in the Prometheus export
+        private final String exportName;
+        //Label in the --stats report
+        private final String label;
+        //Whether the values are nanoseconds, otherwise bytes
+        private final boolean time;
+
+        Metric(final String exportName, final String label, final boolean time) {
+            this.exportName = exportName;
+            this.label = label;
+            this.time = time;
+        }
+    }
+
+    //One histogram per metric
+    private static final Map<Metric, Histogram> histograms = new EnumMap<>(Metric.class);
+    //Limiters of the fan-outs running now, read by the limiter gauges
+    private static final Set<AdaptiveLimiter> limiters = ConcurrentHashMap.newKeySet();
+
+    static {
+        for (Metric metric : Metric.values()) {
+            histograms.put(metric, new Histogram());
+        }
+    }
+
+    // Private constructor, the class only has static helpers
+    private Metrics() {
+    }
+
+    // Records a value of a metric, nanoseconds for times.
+    public static void record(Metric metric, long value) {
+        histograms.get(metric).record(value);
+    }
+
+    // Starts timing a phase on the current thread, stop() records it.
+    public static Timer start(Metric metric) {
+        Timer timer = new Timer(metric);
+        timer.begin();
+        return timer;
+    }
+
+    // Adds the limiter of a fan-out to the limiter gauges until removeLimiter is called.
+    public static void addLimiter(AdaptiveLimiter limiter) {
+        limiters.add(limiter);
+    }
+
+    // Removes the limiter of a finished fan-out from the limiter gauges.
+    public static void removeLimiter(AdaptiveLimiter limiter) {
+        limiters.remove(limiter);
+    }
+
+    // Records the sizes of a response body and commits a JFR event for it.
+    public static void recordResponse(String encoding, long compressed, long decompressed) {
+        record(Metric.RESPONSE_BYTES, compressed);
+        record(Metric.DECOMPRESSED_BYTES, decompressed);
+        ResponseEvent event = new ResponseEvent();
+        // Only fill the event in when a recording wants it
+        if (event.shouldCommit()) {
+            event.encoding = encoding;
+            event.compressedBytes = compressed;
+            event.decompressedBytes = decompressed;
+            event.commit();
+        }
+    }
+
+    // Returns the counts of every metric so far.
+    public static Map<Metric, Histogram.Snapshot> snapshot() {
+        Map<Metric, Histogram.Snapshot> snapshot = new EnumMap<>(Metric.class);
+        histograms.forEach((metric, histogram) -> snapshot.put(metric, histogram.snapshot()));
+        return snapshot;
+    }
+
+    // Writes what was recorded since the given snapshot, one line per metric that has values.
+    public static void report(PrintWriter err, Map<Metric, Histogram.Snapshot> since) {
+        err.println("stats:");
+        err.printf("  %-20s %6s %12s %10s %10s%n", "phase", "count", "total", "p50", "p99");
+        for (Metric metric : Metric.values()) {
+            Histogram.Snapshot recorded = histograms.get(metric).snapshot().minus(since.get(metric));
+            // Skip phases that did not happen
+            if (recorded.getCount() == 0) {
+                continue;
+            }
+            err.printf("  %-20s %6d %12s %10s %10s%n", metric.label, recorded.getCount(), format(metric, recorded.getSum()),
+                    format(metric, recorded.percentile(50)), format(metric, recorded.percentile(99)));
+        }
+        err.flush();
+    }
+
+    // Writes the totals of every metric as Prometheus summaries, followed by the limiter gauges.
+    public static void writePrometheus(StringBuilder text) {
+        for (Metric metric : Metric.values()) {
+            Histogram.Snapshot snapshot = histograms.get(metric).snapshot();
+            String name = "canvasgraphql_" + metric.exportName;
+            double scale = metric.time ? 1e-9 : 1;
+            text.append("# HELP ").append(name).append(' ').append(metric.label).append(metric.time ? " time in seconds" : " per response").append('\n');
+            text.append("# TYPE ").append(name).append(" summary\n");
+            for (double quantile : new double[] {0.5, 0.9, 0.99}) {
+                text.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                        .append(number(snapshot.percentile(quantile * 100) * scale)).append('\n');
+            }
+            text.append(name).append("_sum ").append(number(snapshot.getSum() * scale)).append('\n');
+            text.append(name).append("_count ").append(snapshot.getCount()).append('\n');
+        }
+        // Summed over the fan-outs running now, e.g. one per export tenant, zero while none runs
+        int inFlight = 0;
+        int limit = 0;
+        for (AdaptiveLimiter limiter : limiters) {
+            inFlight += limiter.getInFlight();
+            limit += limiter.getLimit();
+        }
+        gauge(text, "graphql_limiter_in_flight", "Requests in flight under the adaptive limiters of the running fan-outs", inFlight);
+        gauge(text, "graphql_limiter_limit", "Requests permitted in flight by the adaptive limiters of the running fan-outs", limit);
+    }
+
+    // Writes one Prometheus gauge.
+    private static void gauge(StringBuilder text, String name, String help, long value) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(" gauge\n");
+        text.append(name).append(' ').append(value).append('\n');
+    }
+
+    // Serves the Prometheus text at http://127.0.0.1:<port>/metrics until the process ends.
+    public static HttpServer serve(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> {
+            StringBuilder text = new StringBuilder();
+            writePrometheus(text);
+            byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream response = exchange.getResponseBody()) {
+                response.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    // Formats a value for the report: milliseconds for times, KiB for bytes.
+    private static String format(Metric metric, long value) {
+        return metric.time ? String.format(Locale.ROOT, "%.1f ms", value / 1e6) : String.format(Locale.ROOT, "%.1f KiB", value / 1024.0);
+    }
+
+    // Formats a number for the Prometheus text, without exponent for ordinary values.
+    private static String number(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? String.valueOf((long) value) : String.format(Locale.ROOT, "%.9f", value);
+    }
+
+    // Times one phase, and is the JFR event for it.
+    @Name("org.example.project1.Phase")
+    @Label("Canvas GraphQL Phase")
+    @Category("Canvas GraphQL")
+    @Description("A request, parse or command phase of the Canvas GraphQL client")
+    public static final class Timer extends Event {
+        @Label("Phase")
+        String phase;
+
+        //The metric the time is recorded under
+        private final transient Metric metric;
+        //Start of the phase
+        private final transient long startNanos = System.nanoTime();
+
+        private Timer(final Metric metric) {
+            this.metric = metric;
+        }
+
+        // Records the time since start() and commits the JFR event.
+        public void stop() {
+            Metrics.record(metric, System.nanoTime() - startNanos);
+            end();
+            // Only fill the event in when a recording wants it
+            if (shouldCommit()) {
+                phase = metric.label;
+                commit();
+            }
+        }
+    }
+
+    // JFR event with the sizes of one response body.
+    @Name("org.example.project1.Response")
+    @Label("Canvas GraphQL Response")
+    @Category("Canvas GraphQL")
+    @Description("Size of a response body as received and after decompression")
+    static final class ResponseEvent extends Event {
+        @Label("Content-Encoding")
+        String encoding;
+
+        @Label("Compressed Bytes")
+        @DataAmount
+        long compressedBytes;
+
+        @Label("Decompressed Bytes")
+        @DataAmount
+        long decompressedBytes;
+    }
+}
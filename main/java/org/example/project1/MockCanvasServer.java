@@ -0,0 +1,439 @@
+package org.example.project1;
+
+import com.fasterxml.jackson.databind.JsonNode; // Parsed request bodies and recorded fixtures.
+import com.fasterxml.jackson.databind.ObjectMapper; // Used to read requests and fixtures and to write responses.
+import com.fasterxml.jackson.databind.node.ArrayNode; // JSON arrays of the responses.
+import com.fasterxml.jackson.databind.node.JsonNodeFactory; // Creates the response nodes.
+import com.fasterxml.jackson.databind.node.ObjectNode; // JSON objects of the responses.
+import com.sun.net.httpserver.HttpExchange; // One request and its response.
+import com.sun.net.httpserver.HttpServer; // Small HTTP server that comes with the JDK.
+
+import java.io.ByteArrayOutputStream; // Collects the gzipped response.
+import java.io.Closeable; // Closing the server stops it.
+import java.io.IOException; // Thrown when the server or a fixture cannot be read.
+import java.io.OutputStream; // Body of a response.
+import java.net.InetAddress; // The server only listens on the loopback address.
+import java.net.InetSocketAddress; // Address the server listens on.
+import java.nio.file.Files; // Used to read recorded fixtures.
+import java.nio.file.Path; // Location of the recorded fixtures.
+import java.time.Duration; // Used for the simulated latency.
+import java.time.OffsetDateTime; // Used to generate term and due dates around the current time.
+import java.time.ZoneOffset; // Generated dates are in UTC.
+import java.time.temporal.ChronoUnit; // Generated dates are whole seconds.
+import java.util.ArrayList; // Used for creating dynamic arrays.
+import java.util.HashMap; // Assignments by id.
+import java.util.Iterator; // Used to walk the variables of a batched request.
+import java.util.LinkedHashMap; // Keeps the courses in fixture order.
+import java.util.List; // Interface that can be used to create dynamic arrays
+import java.util.Locale; // Used for locale independent header checks.
+import java.util.Map; // Interface for the fixture maps.
+import java.util.Random; // Generates the same fixtures on every run.
+import java.util.concurrent.ConcurrentHashMap; // Thread-safe map of the persisted query documents.
+import java.util.concurrent.ExecutorService; // Runs the requests side by side, so latency does not queue them.
+import java.util.concurrent.Executors; // Factory for the request threads.
+import java.util.concurrent.ThreadLocalRandom; // Decides latency, errors and throttling per request.
+import java.util.concurrent.atomic.AtomicInteger; // Counts the requests of each failing token.
+import java.util.concurrent.atomic.LongAdder; // Counts the requests served.
+import java.util.zip.GZIPOutputStream; // Compresses responses for clients that accept gzip.
+
+// References used:
+// HttpServer: https://docs.oracle.com/en/java/javase/17/docs/api/jdk.httpserver/com/sun/net/httpserver/HttpServer.html
+// Canvas GraphQL: https://canvas.instructure.com/doc/api/file.graphql.html
+// Canvas throttling: https://canvas.instructure.com/doc/api/file.throttling.html
+// Automatic persisted queries: https://www.apollographql.com/docs/apollo-server/performance/apq/
+
+// MockCanvasServer stands in for the Canvas GraphQL endpoint, so the commands can be tested and benchmarked
+// offline. It answers the operations of QueryRegistry:
+//   - allCourses, with every course of the fixtures,
+//   - course(id) with assignmentsConnection, one page of $first assignments at a time ($after is the offset),
+//   - batched courses ($c1 ... $cN) with the first page of their assignments, and batched assignments ($a1 ... $aN) by id.
+// Like Canvas, a page never holds more than MAX_PAGE_SIZE assignments, also when $first is missing or larger.
+// Fixtures are generated from a fixed seed at the configured sizes, or replayed from recorded responses.
+// Every request can be delayed, failed with a 500 or throttled with a 429, each at a configurable rate.
+// A token of the form FAILING_TOKEN_PREFIX + n is answered normally n times and with a 500 after that,
+// like a tenant whose Canvas shard goes down during a run.
+// Automatic persisted queries are supported, and responses are gzipped for clients that accept it.
+public final class MockCanvasServer implements Closeable {
+
+    //Path the GraphQL endpoint is served on, the same as on Canvas
+    public static final String PATH = "/api/graphql";
+    //Responses shorter than this are not worth compressing
+    private static final int GZIP_MIN_LENGTH = 1024;
+    //Most assignments returned in one page of assignmentsConnection
+    static final int MAX_PAGE_SIZE = 100;
+    //Tokens starting with this, followed by a number of requests, fail every request after that number
+    public static final String FAILING_TOKEN_PREFIX = "fails-after-";
+    //Cost units a Canvas token has in its bucket, reported in X-Rate-Limit-Remaining
+    private static final int BUCKET = 700;
+    //Parts the generated course and assignment names are put together from
+    private static final String[] SUBJECTS = {"CS", "MATH", "PHYS", "ENGL", "CMPE", "BIOL", "CHEM", "HIST", "ECON", "PHIL"};
+    private static final String[] TITLES = {"Data Structures and Algorithms", "Discrete Mathematics", "Calculus II", "Technical Writing",
+            "Operating Systems", "General Biology", "Organic Chemistry", "World History", "Microeconomics", "Ethics in Technology"};
+    private static final String[] KINDS = {"Homework", "Quiz", "Lab", "Project Milestone", "Reading Response", "Exam"};
+
+    // What the server serves and how it misbehaves. Copies are made with the with* methods.
+    public static final class Settings {
+        private final int courses;
+        private final int assignments;
+        private final Path fixtures;
+        private final Duration latency;
+        private final Duration jitter;
+        private final double errorRate;
+        private final double throttleRate;
+
+        private Settings(final int courses, final int assignments, final Path fixtures, final Duration latency, final Duration jitter,
+                         final double errorRate, final double throttleRate) {
+            // Handle settings that cannot be served
+            if (courses < 0 || assignments < 0) {
+                throw new IllegalArgumentException("Fixture sizes cannot be negative");
+            }
+            if (latency.isNegative() || jitter.isNegative()) {
+                throw new IllegalArgumentException("Latency and jitter cannot be negative");
+            }
+            if (errorRate < 0 || errorRate > 1 || throttleRate < 0 || throttleRate > 1) {
+                throw new IllegalArgumentException("Error and throttle rates must be between 0 and 1");
+            }
+            this.courses = courses;
+            this.assignments = assignments;
+            this.fixtures = fixtures;
+            this.latency = latency;
+            this.jitter = jitter;
+            this.errorRate = errorRate;
+            this.throttleRate = throttleRate;
+        }
+
+        // Returns the default settings: 200 courses of 50 assignments, no latency, no errors and no throttling.
+        public static Settings defaults() {
+            return new Settings(200, 50, null, Duration.ZERO, Duration.ZERO, 0, 0);
+        }
+
+        // Returns a copy generating the given number of courses and assignments per course.
+        public Settings withSizes(int courses, int assignments) {
+            return new Settings(courses, assignments, fixtures, latency, jitter, errorRate, throttleRate);
+        }
+
+        // Returns a copy replaying the recorded responses in the directory instead of generated ones.
+        public Settings withFixtures(Path fixtures) {
+            return new Settings(courses, assignments, fixtures, latency, jitter, errorRate, throttleRate);
+        }
+
+        // Returns a copy delaying every response by the latency plus a random share of the jitter.
+        public Settings withLatency(Duration latency, Duration jitter) {
+            return new Settings(courses, assignments, fixtures, latency, jitter, errorRate, throttleRate);
+        }
+
+        // Returns a copy failing the given share of requests with a 500.
+        public Settings withErrorRate(double errorRate) {
+            return new Settings(courses, assignments, fixtures, latency, jitter, errorRate, throttleRate);
+        }
+
+        // Returns a copy throttling the given share of requests with a 429.
+        public Settings withThrottleRate(double throttleRate) {
+            return new Settings(courses, assignments, fixtures, latency, jitter, errorRate, throttleRate);
+        }
+    }
+
+    //Used to read the requests and write the responses
+    private final ObjectMapper objectMapper = ObjectMappers.get();
+    //How the server behaves
+    private final Settings settings;
+    //Courses as returned by allCourses, in order
+    private final ArrayNode courses;
+    //Course names by id
+    private final Map<String, String> courseNames = new LinkedHashMap<>();
+    //Assignment nodes by course id
+    private final Map<String, List<JsonNode>> assignmentsByCourse = new HashMap<>();
+    //Assignment nodes by assignment id
+    private final Map<String, JsonNode> assignmentsById = new HashMap<>();
+    //Documents registered for persisted queries, by hash
+    private final Map<String, String> persistedQueries = new ConcurrentHashMap<>();
+    //Threads answering the requests
+    private final ExecutorService executor;
+    //The HTTP server
+    private final HttpServer server;
+    //Requests sent with each failing token
+    private final Map<String, AtomicInteger> failingTokenRequests = new ConcurrentHashMap<>();
+    //Requests answered, including failed and throttled ones
+    private final LongAdder requests = new LongAdder();
+    //Requests failed on purpose
+    private final LongAdder errors = new LongAdder();
+    //Requests throttled on purpose
+    private final LongAdder throttled = new LongAdder();
+
+    private MockCanvasServer(final Settings settings, final int port) throws IOException {
+        this.settings = settings;
+        this.courses = JsonNodeFactory.instance.arrayNode();
+        if (settings.fixtures != null) {
+            loadFixtures(settings.fixtures);
+        } else {
+            generateFixtures(settings.courses, settings.assignments);
+        }
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "mock-canvas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(PATH, this::handle);
+    }
+
+    // Starts a server on the loopback port, 0 picks a free port.
+    public static MockCanvasServer start(int port, Settings settings) throws IOException {
+        MockCanvasServer mock = new MockCanvasServer(settings, port);
+        mock.server.start();
+        return mock;
+    }
+
+    // Returns the URL of the GraphQL endpoint, for --endpoint.
+    public String getEndpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    public int getCourseCount() {
+        return courses.size();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getThrottled() {
+        return throttled.sum();
+    }
+
+    // Stops the server, requests still being answered are dropped.
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // Answers one request.
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.increment();
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            simulateLatency();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            // Fail or throttle before doing any work, like an overloaded server
+            if (isFailingToken(exchange.getRequestHeaders().getFirst("Authorization")) || random.nextDouble() < settings.errorRate) {
+                errors.increment();
+                respond(exchange, 500, error("Internal server error", null), BUCKET);
+                return;
+            }
+            if (random.nextDouble() < settings.throttleRate) {
+                throttled.increment();
+                respond(exchange, 429, error("Rate Limit Exceeded", null), 0);
+                return;
+            }
+            String query = request.path("query").asText(null);
+            String hash = request.at("/extensions/persistedQuery/sha256Hash").asText(null);
+            // Persisted queries: register the document sent with its hash, or look the hash up
+            if (hash != null && query != null) {
+                persistedQueries.put(hash, query);
+            } else if (hash != null) {
+                query = persistedQueries.get(hash);
+                if (query == null) {
+                    respond(exchange, 200, error("PersistedQueryNotFound", "PERSISTED_QUERY_NOT_FOUND"), BUCKET);
+                    return;
+                }
+            }
+            // Handle requests without a query
+            if (query == null) {
+                respond(exchange, 400, error("No query given", null), BUCKET);
+                return;
+            }
+            ObjectNode response = JsonNodeFactory.instance.objectNode();
+            response.set("data", data(query, request.path("variables")));
+            respond(exchange, 200, response, BUCKET - 1);
+        }
+    }
+
+    // Checks whether the request is one a failing token has run out of, counting it if the token is a failing one.
+    private boolean isFailingToken(String authorization) {
+        String prefix = "Bearer " + FAILING_TOKEN_PREFIX;
+        // Handle requests with an ordinary token
+        if (authorization == null || !authorization.startsWith(prefix)) {
+            return false;
+        }
+        int limit;
+        try {
+            limit = Integer.parseInt(authorization.substring(prefix.length()));
+        }
+        // Handle tokens that only look like failing ones
+        catch (NumberFormatException e) {
+            return false;
+        }
+        return failingTokenRequests.computeIfAbsent(authorization, key -> new AtomicInteger()).incrementAndGet() > limit;
+    }
+
+    // Returns the data of the response to the query.
+    private ObjectNode data(String query, JsonNode variables) {
+        ObjectNode data = JsonNodeFactory.instance.objectNode();
+        if (query.contains("allCourses")) {
+            data.set("allCourses", courses);
+        } else if (variables.has("courseId")) {
+            data.set("course", course(variables.get("courseId").asText(), pageSize(variables), variables.path("after").asText(null)));
+        } else {
+            // Batched operations, every alias has a variable of the same name, $first is shared by the course aliases
+            Iterator<Map.Entry<String, JsonNode>> aliases = variables.fields();
+            while (aliases.hasNext()) {
+                Map.Entry<String, JsonNode> alias = aliases.next();
+                String id = alias.getValue().asText();
+                if (alias.getKey().matches("c\\d+")) {
+                    data.set(alias.getKey(), course(id, pageSize(variables), null));
+                } else if (alias.getKey().matches("a\\d+")) {
+                    data.set(alias.getKey(), assignmentsById.get(id));
+                }
+            }
+        }
+        return data;
+    }
+
+    // Returns the number of assignments asked for by $first, capped at MAX_PAGE_SIZE.
+    private static int pageSize(JsonNode variables) {
+        JsonNode first = variables.get("first");
+        return first == null || first.isNull() ? MAX_PAGE_SIZE : Math.min(first.asInt(), MAX_PAGE_SIZE);
+    }
+
+    // Returns a course with one page of its assignments, null for an unknown course.
+    private ObjectNode course(String id, int first, String after) {
+        String name = courseNames.get(id);
+        // Handle unknown courses, Canvas answers them with null
+        if (name == null) {
+            return null;
+        }
+        List<JsonNode> nodes = assignmentsByCourse.getOrDefault(id, List.of());
+        int from = after == null ? 0 : Math.max(0, Integer.parseInt(after));
+        int to = (int) Math.min(nodes.size(), (long) from + Math.max(first, 0));
+        ObjectNode course = JsonNodeFactory.instance.objectNode().put("id", id).put("name", name);
+        ObjectNode connection = course.putObject("assignmentsConnection");
+        ArrayNode page = connection.putArray("nodes");
+        for (int i = from; i < to; i++) {
+            page.add(nodes.get(i));
+        }
+        connection.putObject("pageInfo").put("endCursor", String.valueOf(to)).put("hasNextPage", to < nodes.size());
+        return course;
+    }
+
+    // Returns a GraphQL error response.
+    private static ObjectNode error(String message, String code) {
+        ObjectNode response = JsonNodeFactory.instance.objectNode();
+        ObjectNode error = response.putArray("errors").addObject().put("message", message);
+        if (code != null) {
+            error.putObject("extensions").put("code", code);
+        }
+        return response;
+    }
+
+    // Writes the response with Canvas's rate limit headers, gzipped when the client accepts it.
+    private void respond(HttpExchange exchange, int status, JsonNode body, int remaining) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (bytes.length >= GZIP_MIN_LENGTH && acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set(AdaptiveLimiter.REMAINING_HEADER, String.valueOf(remaining));
+        exchange.getResponseHeaders().set(AdaptiveLimiter.COST_HEADER, "1");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream response = exchange.getResponseBody()) {
+            response.write(bytes);
+        }
+    }
+
+    // Waits for the configured latency plus a random share of the jitter.
+    private void simulateLatency() {
+        long nanos = settings.latency.toNanos();
+        if (!settings.jitter.isZero()) {
+            nanos += ThreadLocalRandom.current().nextLong(settings.jitter.toNanos() + 1);
+        }
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        }
+        // Handle the server being stopped while the request waits
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Generates the courses and assignments from a fixed seed. Terms and due dates are placed around
+    // the current time, so --active lists some of them: about one course in ten is in the Default Term,
+    // one in twenty has no term, and one assignment in ten has no due date.
+    private void generateFixtures(int courseCount, int assignmentCount) {
+        Random random = new Random(42);
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS);
+        for (int i = 0; i < courseCount; i++) {
+            String id = String.valueOf(10_000 + i);
+            String name = SUBJECTS[i % SUBJECTS.length] + " " + (100 + i % 90) + " " + TITLES[(i / 7) % TITLES.length]
+                    + " Section " + String.format(Locale.ROOT, "%02d", i / 90 + 1);
+            ObjectNode course = courses.addObject().put("name", name).put("id", id);
+            int kind = random.nextInt(20);
+            if (kind == 0) {
+                course.putNull("term");
+            } else if (kind < 3) {
+                course.putObject("term").put("name", "Default Term").putNull("startAt").putNull("endAt");
+            } else {
+                // The current term or one of the two before it, each four months long
+                OffsetDateTime start = now.minusDays(60 + 180L * random.nextInt(3));
+                String season = start.getMonthValue() < 7 ? "Spring " : "Fall ";
+                course.putObject("term").put("name", season + start.getYear())
+                        .put("startAt", start.toString()).put("endAt", start.plusDays(120).toString());
+            }
+            courseNames.put(id, name);
+            List<JsonNode> nodes = new ArrayList<>(assignmentCount);
+            for (int j = 0; j < assignmentCount; j++) {
+                String assignmentId = id + "-" + j;
+                ObjectNode node = JsonNodeFactory.instance.objectNode().put("id", assignmentId)
+                        .put("updatedAt", now.minusDays(random.nextInt(30)).toString())
+                        .put("name", KINDS[random.nextInt(KINDS.length)] + " " + (j + 1));
+                if (random.nextInt(10) == 0) {
+                    node.putNull("dueAt");
+                } else {
+                    node.put("dueAt", now.plusHours(random.nextInt(24 * 360) - 24 * 180).toString());
+                }
+                nodes.add(node);
+                assignmentsById.put(assignmentId, node);
+            }
+            assignmentsByCourse.put(id, nodes);
+        }
+    }
+
+    // Reads recorded responses: courses.json holds an allCourses response, and assignments/<course id>.json
+    // a course(id) response for each course that has assignments.
+    private void loadFixtures(Path directory) throws IOException {
+        for (JsonNode course : objectMapper.readTree(directory.resolve("courses.json").toFile()).path("data").path("allCourses")) {
+            courses.add(course);
+            String id = course.path("id").asText(null);
+            // Skip courses that cannot be asked for by id
+            if (id == null) {
+                continue;
+            }
+            courseNames.put(id, course.path("name").asText(""));
+            Path recorded = directory.resolve("assignments").resolve(id + ".json");
+            List<JsonNode> nodes = new ArrayList<>();
+            if (Files.isRegularFile(recorded)) {
+                for (JsonNode node : objectMapper.readTree(recorded.toFile()).path("data").path("course").path("assignmentsConnection").path("nodes")) {
+                    nodes.add(node);
+                    if (node.hasNonNull("id")) {
+                        assignmentsById.put(node.get("id").asText(), node);
+                    }
+                }
+            }
+            assignmentsByCourse.put(id, nodes);
+        }
+    }
+}
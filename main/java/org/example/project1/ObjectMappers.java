@@ -0,0 +1,54 @@
+package org.example.project1;
+
+import com.fasterxml.jackson.databind.ObjectMapper; // Used for JSON parsing.
+import com.fasterxml.jackson.databind.ObjectReader; // Readers with their deserializers already resolved.
+
+import java.util.Map; // Interface for the readers by type.
+
+// References used:
+// ObjectMapper: https://github.com/FasterXML/jackson
+// ObjectReader: https://fasterxml.github.io/jackson-databind/javadoc/2.15/com/fasterxml/jackson/databind/ObjectReader.html
+// Initialization-on-demand holder: https://en.wikipedia.org/wiki/Initialization-on-demand_holder_idiom
+
+// ObjectMappers holds the one ObjectMapper of the process.
+// Building an ObjectMapper and introspecting the response classes is one of the larger startup costs,
+// so it is done once, on first use, and the readers for the GetResponses types are resolved up front.
+public final class ObjectMappers {
+
+    // Private constructor, the class only has static helpers
+    private ObjectMappers() {
+    }
+
+    // Holder class, initialised by the JVM the first time the mapper is asked for
+    private static final class Holder {
+        //Shared mapper, thread-safe once configured
+        private static final ObjectMapper MAPPER;
+        //Readers for the response types, created eagerly so their deserializers are resolved once
+        private static final Map<Class<?>, ObjectReader> READERS;
+
+        static {
+            long start = System.nanoTime();
+            MAPPER = new ObjectMapper();
+            READERS = Map.of(
+                    GetResponses.CourseData.class, MAPPER.readerFor(GetResponses.CourseData.class),
+                    GetResponses.CourseData.Course.class, MAPPER.readerFor(GetResponses.CourseData.Course.class),
+                    GetResponses.Root.class, MAPPER.readerFor(GetResponses.Root.class),
+                    GetResponses.Root.Data.Course.AssignmentsConnection.Node.class, MAPPER.readerFor(GetResponses.Root.Data.Course.AssignmentsConnection.Node.class),
+                    GetResponses.BatchRoot.class, MAPPER.readerFor(GetResponses.BatchRoot.class),
+                    GetResponses.AssignmentBatchRoot.class, MAPPER.readerFor(GetResponses.AssignmentBatchRoot.class)
+            );
+            StartupTrace.mapperInitialized(System.nanoTime() - start);
+        }
+    }
+
+    // Returns the shared ObjectMapper.
+    public static ObjectMapper get() {
+        return Holder.MAPPER;
+    }
+
+    // Returns the pre-built reader for a response type, or a new one for any other type.
+    public static ObjectReader reader(Class<?> type) {
+        ObjectReader reader = Holder.READERS.get(type);
+        return reader != null ? reader : Holder.MAPPER.readerFor(type);
+    }
+}
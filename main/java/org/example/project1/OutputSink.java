@@ -0,0 +1,150 @@
+package org.example.project1;
+
+import java.io.Closeable; // Closing the sink flushes the last records.
+import java.io.IOException; // Thrown when the output cannot be written.
+import java.io.UncheckedIOException; // Carries write errors out of the record methods.
+import java.nio.channels.WritableByteChannel; // Destination of the records.
+
+// References used:
+// NDJSON: https://github.com/ndjson/ndjson-spec
+// CSV: https://www.rfc-editor.org/rfc/rfc4180
+
+// OutputSink writes the courses and assignments a command lists, in one of the output formats:
+//   - TEXT: the human readable lines, the course name, or "[course: ]name due at date",
+//   - NDJSON: one JSON object per line, {"name","id","term"} or {"course","name","dueAt"},
+//   - CSV: a header line followed by one line per record.
+// Records go through a ChannelWriter, so they are written to the channel a large buffer at a time.
+// The record methods are called from course and assignment callbacks, so write errors are thrown as
+// UncheckedIOException. Closing the sink is the flush point: the output is complete once it is closed.
+public abstract class OutputSink implements Closeable {
+
+    // Output formats of --format
+    public enum Format {
+        TEXT, NDJSON, CSV
+    }
+
+    //Encodes and buffers the output
+    protected final ChannelWriter writer;
+
+    // OutputSink constructor.
+    protected OutputSink(final ChannelWriter writer) {
+        this.writer = writer;
+    }
+
+    // Returns a sink writing the format to the channel, the channel is closed with the sink only when ownsChannel is set.
+    public static OutputSink open(Format format, WritableByteChannel channel, boolean ownsChannel) {
+        ChannelWriter writer = new ChannelWriter(channel, ownsChannel, ChannelWriter.DEFAULT_BUFFER_SIZE);
+        switch (format) {
+            case NDJSON:
+                return new NdjsonSink(writer);
+            case CSV:
+                return new CsvSink(writer);
+            case TEXT:
+            default:
+                return new TextSink(writer);
+        }
+    }
+
+    // Writes one course.
+    public void course(String name, String id, String term) {
+        try {
+            writeCourse(name, id, term);
+        }
+        //For I/O errors while writing the output
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Writes one assignment, courseName is null when a single course is listed.
+    public void assignment(String courseName, String name, String dueAt) {
+        try {
+            writeAssignment(courseName, name, dueAt);
+        }
+        //For I/O errors while writing the output
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Writes everything buffered so far.
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    // Writes everything buffered so far and closes the channel if the sink owns it.
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    protected abstract void writeCourse(String name, String id, String term) throws IOException;
+
+    protected abstract void writeAssignment(String courseName, String name, String dueAt) throws IOException;
+
+    // The human readable lines the commands always printed.
+    private static final class TextSink extends OutputSink {
+        private TextSink(final ChannelWriter writer) {
+            super(writer);
+        }
+
+        @Override
+        protected void writeCourse(String name, String id, String term) throws IOException {
+            writer.write(name).write('\n');
+        }
+
+        @Override
+        protected void writeAssignment(String courseName, String name, String dueAt) throws IOException {
+            // prefixed by its course when listing several courses
+            if (courseName != null) {
+                writer.write(courseName).write(':').write(' ');
+            }
+            writer.write(name).write(" due at ").write(String.valueOf(dueAt)).write('\n');
+        }
+    }
+
+    // One JSON object per line.
+    private static final class NdjsonSink extends OutputSink {
+        private NdjsonSink(final ChannelWriter writer) {
+            super(writer);
+        }
+
+        @Override
+        protected void writeCourse(String name, String id, String term) throws IOException {
+            writer.write("{\"name\":").writeJson(name).write(",\"id\":").writeJson(id).write(",\"term\":").writeJson(term).write('}').write('\n');
+        }
+
+        @Override
+        protected void writeAssignment(String courseName, String name, String dueAt) throws IOException {
+            writer.write("{\"course\":").writeJson(courseName).write(",\"name\":").writeJson(name).write(",\"dueAt\":").writeJson(dueAt).write('}').write('\n');
+        }
+    }
+
+    // A header line, then one comma-separated line per record.
+    private static final class CsvSink extends OutputSink {
+        //Whether the header has been written
+        private boolean header;
+
+        private CsvSink(final ChannelWriter writer) {
+            super(writer);
+        }
+
+        @Override
+        protected void writeCourse(String name, String id, String term) throws IOException {
+            if (!header) {
+                writer.write("name,id,term\r\n");
+                header = true;
+            }
+            writer.writeCsv(name).write(',').writeCsv(id).write(',').writeCsv(term).write('\r').write('\n');
+        }
+
+        @Override
+        protected void writeAssignment(String courseName, String name, String dueAt) throws IOException {
+            if (!header) {
+                writer.write("course,name,due_at\r\n");
+                header = true;
+            }
+            writer.writeCsv(courseName).write(',').writeCsv(name).write(',').writeCsv(dueAt).write('\r').write('\n');
+        }
+    }
+}
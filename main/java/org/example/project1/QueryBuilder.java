@@ -0,0 +1,120 @@
+package org.example.project1;
+
+import java.util.LinkedHashMap; // Keeps the fields and variables in the order they were selected.
+import java.util.Map; // Interface for the child fields and the variables.
+
+//Reference used:
+//https://graphql.org/learn/queries/#fields
+//Selection sets: https://spec.graphql.org/October2021/#sec-Selection-Sets
+
+// QueryBuilder puts a GraphQL query together from the fields a command actually needs, so Canvas only
+// sends (and the client only parses) those fields. Fields are selected by their path from the root,
+// the parts separated by dots, and a part may carry its arguments:
+//   QueryBuilder.query("courses").select("allCourses.name").select("allCourses.term.startAt").build()
+//   -> query courses { allCourses { name term { startAt } } }
+// Paths that share a prefix share the selection set, and selecting a field twice keeps it once.
+public final class QueryBuilder {
+
+    // One field of the selection tree, with the fields selected below it.
+    private static final class Field {
+        //Child fields by name, including their arguments
+        private final Map<String, Field> children = new LinkedHashMap<>();
+
+        // Appends the selection set of this field, or nothing for a leaf.
+        private void appendTo(StringBuilder document) {
+            if (children.isEmpty()) {
+                return;
+            }
+            document.append(" {");
+            for (Map.Entry<String, Field> child : children.entrySet()) {
+                document.append(' ').append(child.getKey());
+                child.getValue().appendTo(document);
+            }
+            document.append(" }");
+        }
+    }
+
+    //Name of the operation
+    private final String name;
+    //Variable definitions by name, without the $
+    private final Map<String, String> variables = new LinkedHashMap<>();
+    //Root of the selection tree
+    private final Field root = new Field();
+
+    private QueryBuilder(final String name) {
+        this.name = name;
+    }
+
+    // Starts a query operation with the given name.
+    public static QueryBuilder query(String name) {
+        // Handle case where the operation name is not a GraphQL name
+        if (name == null || !name.matches("[_A-Za-z][_0-9A-Za-z]*")) {
+            throw new IllegalArgumentException("Invalid operation name: " + name);
+        }
+        return new QueryBuilder(name);
+    }
+
+    // Declares a variable of the operation, e.g. variable("courseId", "ID!").
+    public QueryBuilder variable(String variable, String type) {
+        variables.put(variable, type);
+        return this;
+    }
+
+    // Selects the field at the dotted path, e.g. "course(id: $courseId).assignmentsConnection.nodes.dueAt".
+    public QueryBuilder select(String path) {
+        Field field = root;
+        int start = 0;
+        int depth = 0;
+        // Split on the dots outside of the argument lists
+        for (int i = 0; i <= path.length(); i++) {
+            char c = i < path.length() ? path.charAt(i) : '.';
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '.' && depth == 0) {
+                String part = path.substring(start, i).trim();
+                // Handle paths with an empty part
+                if (part.isEmpty()) {
+                    throw new IllegalArgumentException("Invalid field path: " + path);
+                }
+                field = field.children.computeIfAbsent(part, key -> new Field());
+                start = i + 1;
+            }
+        }
+        return this;
+    }
+
+    // Selects every field path below the prefix, e.g. select("allCourses.term", "name", "startAt").
+    public QueryBuilder select(String prefix, String... paths) {
+        for (String path : paths) {
+            select(prefix + "." + path);
+        }
+        return this;
+    }
+
+    // Returns the document of the query.
+    public String document() {
+        // Handle case where nothing was selected, GraphQL has no empty selection sets
+        if (root.children.isEmpty()) {
+            throw new IllegalStateException("Query " + name + " selects no fields");
+        }
+        StringBuilder document = new StringBuilder("query ").append(name);
+        if (!variables.isEmpty()) {
+            document.append('(');
+            boolean first = true;
+            for (Map.Entry<String, String> variable : variables.entrySet()) {
+                document.append(first ? "$" : ", $").append(variable.getKey()).append(": ").append(variable.getValue());
+                first = false;
+            }
+            document.append(')');
+        }
+        root.appendTo(document);
+        return document.toString();
+    }
+
+    // Returns the query as an operation, validated like the registered ones.
+    public GraphQlOperation build() {
+        return new GraphQlOperation(document());
+    }
+}
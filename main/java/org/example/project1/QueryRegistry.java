@@ -0,0 +1,119 @@
+package org.example.project1;
+
+import java.util.EnumSet; // Set of the course fields a command needs.
+import java.util.LinkedHashMap; // Keeps the alias variables in order.
+import java.util.List; // Interface that can be used to create dynamic arrays
+import java.util.Map; // Interface for the variables of a request.
+import java.util.Set; // Interface for the selected course fields.
+import java.util.concurrent.ConcurrentHashMap; // Thread-safe map holding the batched operations by size.
+import java.util.concurrent.ConcurrentMap; // Interface for the batched operation map.
+
+//Reference used:
+//https://graphql.org/learn/queries/
+//Aliases: https://graphql.org/learn/queries/#aliases
+//Variables: https://graphql.org/learn/queries/#variables
+//Pagination: https://graphql.org/learn/pagination/
+
+// QueryRegistry holds every GraphQL operation the application sends, parsed and validated once.
+// Batched operations request several courses or assignments under aliases (c1, c2, ... or a1, a2, ...),
+// each with its own variable of the same name. One operation is built per batch size and then reused,
+// so a run with a fixed chunk size only ever builds one or two of them.
+public final class QueryRegistry {
+
+    // Fields of a course that can be requested from allCourses
+    public enum CourseField {
+        NAME("name"),
+        ID("id"),
+        // The term dates decide which courses are active
+        TERM("term.name", "term.startAt", "term.endAt");
+
+        //Paths of the field below allCourses
+        private final String[] paths;
+
+        CourseField(final String... paths) {
+            this.paths = paths;
+        }
+    }
+
+    //Course list operations by selected fields
+    private static final ConcurrentMap<Set<CourseField>, GraphQlOperation> courses = new ConcurrentHashMap<>();
+
+    // Query to fetch courses with information including name, id and term name and dates
+    public static final GraphQlOperation COURSES = courses(EnumSet.allOf(CourseField.class));
+
+    // Query to fetch one page of assignments for a course
+    // $after is the endCursor of the previous page, left out for the first page
+    public static final GraphQlOperation ASSIGNMENTS_PAGE = new GraphQlOperation(
+            "query assignmentsPage($courseId: ID!, $first: Int!, $after: String) { course(id: $courseId) {"
+                    + " assignmentsConnection(first: $first, after: $after) { nodes { dueAt name } pageInfo { endCursor hasNextPage } } } }");
+
+    // Query to fetch one page of the id and update time of a course's assignments, used by sync for the pages
+    // after the first one of a batched request
+    public static final GraphQlOperation ASSIGNMENT_VERSIONS_PAGE = new GraphQlOperation(
+            "query assignmentVersionsPage($courseId: ID!, $first: Int!, $after: String) { course(id: $courseId) {"
+                    + " assignmentsConnection(first: $first, after: $after) { nodes { id updatedAt } pageInfo { endCursor hasNextPage } } } }");
+
+    //Batched operations by name and size
+    private static final ConcurrentMap<String, GraphQlOperation> batched = new ConcurrentHashMap<>();
+
+    // Private constructor, the class only has static helpers
+    private QueryRegistry() {
+    }
+
+    // Query to fetch only the given fields of every course. The Canvas schema has no arguments on allCourses,
+    // so the courses themselves are filtered by the caller, only the fields are chosen here.
+    public static GraphQlOperation courses(Set<CourseField> fields) {
+        return QueryRegistry.courses.computeIfAbsent(EnumSet.copyOf(fields), key -> {
+            QueryBuilder query = QueryBuilder.query("courses");
+            key.forEach(field -> query.select("allCourses", field.paths));
+            return query.build();
+        });
+    }
+
+    // Query to fetch the first $first assignments of several courses in one request, $c1 ... $cN are the course ids
+    // Later pages of a course use ASSIGNMENTS_PAGE
+    public static GraphQlOperation batchAssignments(int courses) {
+        return aliased("batchAssignments", "c", "ID!", courses, "$first: Int!",
+                "course(id: $%s) { id name assignmentsConnection(first: $first) { nodes { dueAt name } pageInfo { endCursor hasNextPage } } }");
+    }
+
+    // Query to fetch the first $first ids and update times of the assignments of several courses, $c1 ... $cN are the course ids
+    // Used by sync to find out which assignments changed without transferring them, later pages use ASSIGNMENT_VERSIONS_PAGE
+    public static GraphQlOperation assignmentVersions(int courses) {
+        return aliased("assignmentVersions", "c", "ID!", courses, "$first: Int!",
+                "course(id: $%s) { id assignmentsConnection(first: $first) { nodes { id updatedAt } pageInfo { endCursor hasNextPage } } }");
+    }
+
+    // Query to fetch several assignments by id in one request, $a1 ... $aN are the assignment ids
+    public static GraphQlOperation assignmentsById(int assignments) {
+        return aliased("assignmentsById", "a", "ID!", assignments, "", "assignment(id: $%s) { id updatedAt dueAt name }");
+    }
+
+    // Returns the variables of a batched operation: the ids under the aliases prefix1, prefix2, ...
+    public static Map<String, Object> aliasVariables(String prefix, List<String> ids) {
+        Map<String, Object> variables = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            variables.put(prefix + (i + 1), ids.get(i));
+        }
+        return variables;
+    }
+
+    // Returns the operation requesting the selection count times, under the aliases prefix1 ... prefixN.
+    // shared holds the definitions of the variables every alias uses, empty if there are none.
+    private static GraphQlOperation aliased(String name, String prefix, String type, int count, String shared, String selection) {
+        // Handle case where the batch would be empty
+        if (count < 1) {
+            throw new IllegalArgumentException("A batch needs at least one entry");
+        }
+        return batched.computeIfAbsent(name + count, key -> {
+            StringBuilder definitions = new StringBuilder(shared);
+            StringBuilder selections = new StringBuilder();
+            for (int i = 1; i <= count; i++) {
+                String alias = prefix + i;
+                definitions.append(definitions.length() > 0 ? ", $" : "$").append(alias).append(": ").append(type);
+                selections.append(' ').append(alias).append(": ").append(String.format(selection, alias));
+            }
+            return new GraphQlOperation("query " + name + "(" + definitions + ") {" + selections + " }");
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.project1;
+
+import java.time.Duration; // Used for the backoff delays and the breaker's open time.
+import java.util.concurrent.ThreadLocalRandom; // Used for the jitter of the backoff delays.
+
+// References used:
+// Exponential backoff and jitter: https://aws.amazon.com/blogs/architecture/exponential-backoff-and-jitter/
+// Retry-After: https://developer.mozilla.org/en-US/docs/Web/HTTP/Headers/Retry-After
+// The Tail at Scale (hedged requests): https://research.google/pubs/pub40801/
+// Circuit breaker: https://martinfowler.com/bliki/CircuitBreaker.html
+
+// ResiliencePolicy holds the settings GraphQlConnect uses to ride out slow or failing Canvas responses.
+//   - Retries: 429, 502, 503, 504, throttled 403s, I/O errors and timeouts are retried up to maxRetries
+//     times, waiting for Retry-After when the server sends it and a jittered exponential backoff otherwise.
+//   - Hedging: when enabled, a duplicate request is sent once the first has taken longer than the p95
+//     latency of the endpoint, and whichever answers first is used. GraphQL queries are read only, so
+//     sending one twice is harmless.
+//   - Circuit breaker: after breakerThreshold failures in a row, requests fail straight away for
+//     breakerOpenTime before a single trial request is let through.
+public class ResiliencePolicy {
+
+    //Number of retries after the first attempt
+    private final int maxRetries;
+    //Delay before the first retry, doubled for every further retry
+    private final Duration baseDelay;
+    //Longest delay between two attempts
+    private final Duration maxDelay;
+    //Longest Retry-After that is waited for, a longer one gives up instead
+    private final Duration maxRetryAfter;
+    //Whether hedged duplicate requests are sent
+    private final boolean hedging;
+    //Number of consecutive failures that opens the circuit
+    private final int breakerThreshold;
+    //Time the circuit stays open before a trial request
+    private final Duration breakerOpenTime;
+
+    // ResiliencePolicy constructor with every setting.
+    public ResiliencePolicy(final int maxRetries, final Duration baseDelay, final Duration maxDelay, final Duration maxRetryAfter,
+                            final boolean hedging, final int breakerThreshold, final Duration breakerOpenTime) {
+        // Handle settings that do not make sense
+        if (maxRetries < 0 || breakerThreshold < 1) {
+            throw new IllegalArgumentException("Retries cannot be negative and the breaker threshold must be at least 1");
+        }
+        this.maxRetries = maxRetries;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.maxRetryAfter = maxRetryAfter;
+        this.hedging = hedging;
+        this.breakerThreshold = breakerThreshold;
+        this.breakerOpenTime = breakerOpenTime;
+    }
+
+    // Default policy: 2 retries from 200 ms up to 5 s, Retry-After up to 60 s, no hedging,
+    // and a breaker that opens for 30 s after 5 failures in a row.
+    public static ResiliencePolicy defaults() {
+        return new ResiliencePolicy(2, Duration.ofMillis(200), Duration.ofSeconds(5), Duration.ofSeconds(60), false, 5, Duration.ofSeconds(30));
+    }
+
+    // Returns a copy of this policy with a different number of retries.
+    public ResiliencePolicy withMaxRetries(int retries) {
+        return new ResiliencePolicy(retries, baseDelay, maxDelay, maxRetryAfter, hedging, breakerThreshold, breakerOpenTime);
+    }
+
+    // Returns a copy of this policy with hedging switched on or off.
+    public ResiliencePolicy withHedging(boolean enabled) {
+        return new ResiliencePolicy(maxRetries, baseDelay, maxDelay, maxRetryAfter, enabled, breakerThreshold, breakerOpenTime);
+    }
+
+    // Returns the delay before the given retry (0 for the first retry), with full jitter.
+    public Duration backoff(int retry) {
+        long cap = Math.min(maxDelay.toMillis(), baseDelay.toMillis() << Math.min(retry, 20));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(cap + 1));
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public Duration getMaxRetryAfter() {
+        return maxRetryAfter;
+    }
+
+    public boolean isHedging() {
+        return hedging;
+    }
+
+    public int getBreakerThreshold() {
+        return breakerThreshold;
+    }
+
+    public Duration getBreakerOpenTime() {
+        return breakerOpenTime;
+    }
+}
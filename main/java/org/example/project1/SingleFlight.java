@@ -0,0 +1,103 @@
+package org.example.project1;
+
+import java.time.Duration; // Used for the result reuse window.
+import java.util.concurrent.CompletableFuture; // Result of a call, shared by every caller asking for the same key.
+import java.util.concurrent.ConcurrentHashMap; // Thread-safe map of the calls in flight.
+import java.util.concurrent.ConcurrentMap; // Interface for the call map.
+import java.util.concurrent.TimeUnit; // Used to drop reused results once their window is over.
+import java.util.function.Supplier; // Starts the call when no identical one is in flight.
+
+// References used:
+// Go singleflight: https://pkg.go.dev/golang.org/x/sync/singleflight
+// CompletableFuture.copy: https://docs.oracle.com/javase/9/docs/api/java/util/concurrent/CompletableFuture.html#copy--
+
+// SingleFlight makes callers asking for the same key at the same time share one call.
+// The first caller starts the call, the others get its result instead of starting their own.
+// With a reuse window, a successful result is also handed to callers arriving shortly after it completed.
+// The window is given per call, so callers sharing one SingleFlight can each decide how fresh a result must be.
+// Null results (failed requests) are never reused, the next caller tries again.
+// Every caller gets its own copy of the shared future, so one caller cancelling does not affect the others.
+public final class SingleFlight<K, V> {
+
+    // A call and the time its result arrived.
+    private static final class Call<V> {
+        //Result of the call
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        //System.nanoTime() when a reusable result arrived, 0 while in flight
+        private volatile long completedNanos;
+        //How long the caller that started the call lets its result be reused, in nanoseconds
+        private final long reuseNanos;
+
+        private Call(final long reuseNanos) {
+            this.reuseNanos = reuseNanos;
+        }
+    }
+
+    //Calls in flight or within their reuse window, by key
+    private final ConcurrentMap<K, Call<V>> calls = new ConcurrentHashMap<>();
+
+    // Returns the result of the call in flight for the key, or starts the call when there is none.
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        return execute(key, Duration.ZERO, call);
+    }
+
+    // Like execute, also handing out a successful result that arrived less than reuseWindow ago.
+    // A call started here keeps its result for reuseWindow, zero only shares it while in flight.
+    public CompletableFuture<V> execute(K key, Duration reuseWindow, Supplier<CompletableFuture<V>> call) {
+        // Handle case where the window is missing or negative
+        if (reuseWindow == null || reuseWindow.isNegative()) {
+            throw new IllegalArgumentException("Reuse window cannot be null or negative");
+        }
+        long reuseNanos = reuseWindow.toNanos();
+        while (true) {
+            Call<V> existing = calls.get(key);
+            if (existing != null) {
+                long completed = existing.completedNanos;
+                // Join the call in flight, or reuse its result while this caller's window lasts
+                if (completed == 0 || System.nanoTime() - completed < reuseNanos) {
+                    return existing.result.copy();
+                }
+                // Handle results too old for this caller, a new call replaces them
+                calls.remove(key, existing);
+                continue;
+            }
+            Call<V> started = new Call<>(reuseNanos);
+            // Another caller started the same call in the meantime, join that one instead
+            if (calls.putIfAbsent(key, started) != null) {
+                continue;
+            }
+            CompletableFuture<V> result;
+            try {
+                result = call.get();
+            }
+            // Handle calls that fail before they start, the callers joining in get the error too
+            catch (RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            result.whenComplete((value, error) -> finish(key, started, value, error));
+            return started.result.copy();
+        }
+    }
+
+    // Returns the number of calls in flight or within their reuse window.
+    public int size() {
+        return calls.size();
+    }
+
+    // Hands the result to every caller and keeps it for the reuse window if it can be reused.
+    private void finish(K key, Call<V> call, V value, Throwable error) {
+        long window = call.reuseNanos;
+        if (error != null || value == null || window <= 0) {
+            calls.remove(key, call);
+        } else {
+            call.completedNanos = System.nanoTime();
+            // Drop the result once its window is over, so keys that are not asked for again do not pile up
+            CompletableFuture.delayedExecutor(window, TimeUnit.NANOSECONDS).execute(() -> calls.remove(key, call));
+        }
+        if (error != null) {
+            call.result.completeExceptionally(error);
+        } else {
+            call.result.complete(value);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.project1;
+
+import java.io.PrintWriter; // Destination of the report, and the writer watched for the first output.
+import java.util.concurrent.atomic.AtomicLong; // Holds the time of each phase, set once by whichever thread gets there first.
+
+// References used:
+// ProcessHandle.Info: https://docs.oracle.com/en/java/javase/17/docs/api/java.base/java/lang/ProcessHandle.Info.html
+// System.nanoTime: https://docs.oracle.com/javase/8/docs/api/java/lang/System.html#nanoTime--
+
+// StartupTrace records how long each startup phase of a command takes, for --startup-trace.
+// Phases: JVM start to main, CLI parse, ObjectMapper init, first request and first output.
+// Recording costs a System.nanoTime call per phase, so it is always on and only the report is optional.
+public final class StartupTrace {
+
+    //Wall clock time main was entered, used to work out the time spent before main
+    private static final AtomicLong mainMillis = new AtomicLong();
+    //Time the current command line started to be handled
+    private static final AtomicLong executeNanos = new AtomicLong();
+    //Time picocli finished parsing and the command started to run
+    private static final AtomicLong commandNanos = new AtomicLong();
+    //Time spent building the ObjectMapper, 0 if it was already built
+    private static final AtomicLong mapperInitNanos = new AtomicLong();
+    //Time the first response arrived
+    private static final AtomicLong firstResponseNanos = new AtomicLong();
+    //Time the first output was written
+    private static final AtomicLong firstOutputNanos = new AtomicLong();
+
+    // Private constructor, the class only has static helpers
+    private StartupTrace() {
+    }
+
+    // Called first thing in main.
+    public static void mainEntered() {
+        mainMillis.compareAndSet(0, System.currentTimeMillis());
+    }
+
+    // Called when a command line starts to be handled, clears the phases of the previous one.
+    public static void executeStarted() {
+        executeNanos.set(System.nanoTime());
+        commandNanos.set(0);
+        mapperInitNanos.set(0);
+        firstResponseNanos.set(0);
+        firstOutputNanos.set(0);
+    }
+
+    // Called when the command starts to run, i.e. the command line has been parsed.
+    public static void commandStarted() {
+        commandNanos.compareAndSet(0, System.nanoTime());
+    }
+
+    // Called with the time it took to build the ObjectMapper.
+    public static void mapperInitialized(long nanos) {
+        mapperInitNanos.set(nanos);
+    }
+
+    // Called whenever a response arrives, only the first one is kept.
+    public static void responseReceived() {
+        firstResponseNanos.compareAndSet(0, System.nanoTime());
+    }
+
+    // Called whenever output is written without going through the watched writer, only the first one is kept.
+    public static void outputWritten() {
+        firstOutputNanos.compareAndSet(0, System.nanoTime());
+    }
+
+    // Wraps the writer so the first output written to it is recorded, lines are flushed as they are printed.
+    public static PrintWriter watchFirstOutput(PrintWriter writer) {
+        return new PrintWriter(writer, true) {
+            @Override
+            public void write(String text, int offset, int length) {
+                firstOutputNanos.compareAndSet(0, System.nanoTime());
+                super.write(text, offset, length);
+            }
+
+            @Override
+            public void write(char[] text, int offset, int length) {
+                firstOutputNanos.compareAndSet(0, System.nanoTime());
+                super.write(text, offset, length);
+            }
+
+            @Override
+            public void write(int c) {
+                firstOutputNanos.compareAndSet(0, System.nanoTime());
+                super.write(c);
+            }
+        };
+    }
+
+    // Writes the time spent in each phase, phases that did not happen are shown as "-".
+    public static void report(PrintWriter err) {
+        long start = executeNanos.get();
+        // JVM start is only known to the millisecond, and not on every platform
+        long jvmToMain = ProcessHandle.current().info().startInstant()
+                .map(instant -> mainMillis.get() - instant.toEpochMilli())
+                .orElse(-1L);
+        err.println("startup trace (ms):");
+        err.printf("  jvm to main    %s%n", jvmToMain < 0 || mainMillis.get() == 0 ? "-" : String.valueOf(jvmToMain));
+        err.printf("  cli parse      %s%n", millisBetween(start, commandNanos.get()));
+        err.printf("  mapper init    %s%n", mapperInitNanos.get() == 0 ? "-" : String.format("%.1f", mapperInitNanos.get() / 1e6));
+        err.printf("  first request  %s%n", millisBetween(commandNanos.get(), firstResponseNanos.get()));
+        err.printf("  first output   %s%n", millisBetween(start, firstOutputNanos.get()));
+        err.flush();
+    }
+
+    // Formats the time between two marks in milliseconds, or "-" if either mark is missing.
+    private static String millisBetween(long from, long to) {
+        return from == 0 || to == 0 ? "-" : String.format("%.1f", (to - from) / 1e6);
+    }
+}
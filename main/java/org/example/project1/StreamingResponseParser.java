@@ -0,0 +1,86 @@
+package org.example.project1;
+
+import com.fasterxml.jackson.core.JsonParser; // Streaming parser that reads the response token by token.
+import com.fasterxml.jackson.core.JsonToken; // Tokens returned by the streaming parser.
+import com.fasterxml.jackson.databind.ObjectMapper; // Used to bind one array element at a time.
+
+import java.io.IOException; // Thrown when reading the response stream fails.
+import java.io.InputStream; // Response body as it arrives from the network.
+import java.util.function.Consumer; // Receives every element that passes the filter.
+import java.util.function.Predicate; // Filter applied to every element as soon as it is parsed.
+
+// References used:
+// Jackson streaming API: https://github.com/FasterXML/jackson-core
+// JsonParser: https://fasterxml.github.io/jackson-core/javadoc/2.15/com/fasterxml/jackson/core/JsonParser.html
+// Baeldung Jackson streaming: https://www.baeldung.com/jackson-streaming-api
+
+// StreamingResponseParser reads GraphQL responses straight from the response stream.
+// It walks down to the array of interest (allCourses) token by token,
+// binds one element at a time, filters it and hands it on before reading the next one.
+// Only one element is held in memory at a time, whatever the size of the response.
+public class StreamingResponseParser {
+
+    //Used to bind the individual array elements
+    private final ObjectMapper objectMapper;
+
+    // StreamingResponseParser constructor, elements are bound with the given ObjectMapper.
+    public StreamingResponseParser(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // Streams data.allCourses, passing every course that matches the filter to the sink.
+    // Returns the number of courses passed to the sink, or -1 if the response has no data.allCourses (e.g. a GraphQL error).
+    public int streamCourses(InputStream body, Predicate<? super GetResponses.CourseData.Course> filter, Consumer<? super GetResponses.CourseData.Course> sink) throws IOException {
+        return streamArray(body, GetResponses.CourseData.Course.class, filter, sink, "data", "allCourses");
+    }
+
+    // Follows the path of object fields down to an array and streams its elements.
+    // Anything outside the path is skipped without being bound. Returns -1 if the path does not lead to an array.
+    private <T> int streamArray(InputStream body, Class<T> type, Predicate<? super T> filter, Consumer<? super T> sink, String... path) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            // Handle case where the response is not a JSON object
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return -1;
+            }
+            // Walk down the path, the last field has to hold an array and the others an object
+            for (int depth = 0; depth < path.length; depth++) {
+                if (!moveToField(parser, path[depth])) {
+                    return -1;
+                }
+                JsonToken expected = depth == path.length - 1 ? JsonToken.START_ARRAY : JsonToken.START_OBJECT;
+                if (parser.nextToken() != expected) {
+                    return -1;
+                }
+            }
+            int emitted = 0;
+            JsonToken token;
+            // Bind, filter and emit one element at a time until the end of the array
+            while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                // Skip null elements
+                if (token == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                T element = objectMapper.readValue(parser, type);
+                if (element != null && filter.test(element)) {
+                    sink.accept(element);
+                    emitted++;
+                }
+            }
+            return emitted;
+        }
+    }
+
+    // Moves the parser to the value of the named field in the current object, skipping the other fields.
+    // Returns false if the object ends without the field.
+    private static boolean moveToField(JsonParser parser, String name) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (name.equals(parser.currentName())) {
+                return true;
+            }
+            // Skip the value of the field, including any nested objects or arrays
+            parser.nextToken();
+            parser.skipChildren();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,312 @@
+package org.example.project1;
+
+import java.io.BufferedOutputStream; // Buffers the snapshot while it is written.
+import java.io.DataOutputStream; // Used to write the binary snapshot format.
+import java.io.IOException; // Thrown when the snapshot file cannot be read or written.
+
+import java.nio.BufferUnderflowException; // Thrown when a snapshot file is shorter than its header says.
+import java.nio.MappedByteBuffer; // Memory-mapped view of the snapshot file.
+import java.nio.channels.FileChannel; // Used to map the snapshot file.
+import java.nio.charset.StandardCharsets; // Strings are stored as UTF-8.
+import java.nio.file.Files; // Used for creating directories and moving files.
+import java.nio.file.NoSuchFileException; // Thrown when there is no snapshot yet.
+import java.nio.file.Path; // Location of the snapshot file.
+import java.nio.file.StandardCopyOption; // Used for the atomic replacement of the snapshot file.
+import java.nio.file.StandardOpenOption; // Options used to open the snapshot file.
+import java.util.ArrayList; // Used for creating dynamic arrays.
+import java.util.Collections; // Used for returning empty lists.
+import java.util.Iterator; // Used to remove assignments while going through them.
+import java.util.LinkedHashMap; // Keeps courses and assignments in the order they were synced.
+import java.util.LinkedHashSet; // Used to hand out the course ids in order.
+import java.util.List; // Interface that can be used to create dynamic arrays
+import java.util.Map; // Interface for the course and assignment maps.
+import java.util.Objects; // Used to compare values that may be null.
+import java.util.Set; // Interface for sets of ids.
+
+/*Using Java Logging API */
+import java.util.logging.Logger; // The Logger class is a part of the Java Logging API and is used to log messages for a specific system or application component.
+import java.util.logging.Level; // The Level class defines a set of standard logging levels that can be used to control logging output.
+
+// References used:
+// FileChannel.map: https://docs.oracle.com/javase/8/docs/api/java/nio/channels/FileChannel.html#map-java.nio.channels.FileChannel.MapMode-long-long-
+// Files.move: https://docs.oracle.com/javase/8/docs/api/java/nio/file/Files.html#move-java.nio.file.Path-java.nio.file.Path-java.nio.file.CopyOption...-
+// Logger: https://www.vogella.com/tutorials/Logging/article.html
+
+// SyncSnapshot is the local copy of every course and assignment as of the last sync.
+// Courses are keyed by Course.id and assignments by their id. Merging a sync into the snapshot returns
+// what was added, changed or removed since the previous one.
+// Like CourseCache, the file is keyed by a hash of the endpoint and the token hash.
+// File layout (big endian):
+//   int magic, int version, long syncedAtMillis, int courseCount,
+//   then for every course: id, name, int assignmentCount,
+//   then for every assignment: id, name, dueAt, updatedAt,
+//   strings as int length + UTF-8 bytes (length -1 for null).
+public class SyncSnapshot {
+
+    //main logger
+    private static final Logger logger = Logger.getLogger(SyncSnapshot.class.getName());
+    //Marks a file as a sync snapshot ("CGS1")
+    private static final int MAGIC = 0x43475331;
+    //Version of the file layout, bump when the layout changes
+    private static final int VERSION = 1;
+
+    // The kinds of change a sync can find
+    public enum Change {
+        ADDED, CHANGED, REMOVED
+    }
+
+    // An assignment as it was last synced.
+    public static class Assignment {
+        private final String id;
+        private final String name;
+        private final String dueAt;
+        private final String updatedAt;
+
+        // Assignment constructor.
+        public Assignment(final String id, final String name, final String dueAt, final String updatedAt) {
+            this.id = id;
+            this.name = name;
+            this.dueAt = dueAt;
+            this.updatedAt = updatedAt;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDueAt() {
+            return dueAt;
+        }
+
+        public String getUpdatedAt() {
+            return updatedAt;
+        }
+    }
+
+    // One change found by a sync, the assignment is the new version, or the last one for a removal.
+    public static class Delta {
+        private final Change change;
+        private final String courseName;
+        private final Assignment assignment;
+
+        // Delta constructor.
+        public Delta(final Change change, final String courseName, final Assignment assignment) {
+            this.change = change;
+            this.courseName = courseName;
+            this.assignment = assignment;
+        }
+
+        public Change getChange() {
+            return change;
+        }
+
+        public String getCourseName() {
+            return courseName;
+        }
+
+        public Assignment getAssignment() {
+            return assignment;
+        }
+    }
+
+    // A course and its assignments keyed by id.
+    private static class Course {
+        private String name;
+        private final Map<String, Assignment> assignments = new LinkedHashMap<>();
+    }
+
+    //Path of the snapshot file for this endpoint and token
+    private final Path file;
+    //Courses keyed by id
+    private final Map<String, Course> courses = new LinkedHashMap<>();
+    //Time of the sync the snapshot holds, 0 if there was none
+    private long syncedAt;
+
+    // SyncSnapshot constructor, works out the snapshot file for the endpoint and token. The snapshot starts empty.
+    public SyncSnapshot(final Path directory, final String endpoint, final String token) {
+        // Handle case where directory is missing
+        if (directory == null) {
+            throw new IllegalArgumentException("Snapshot directory cannot be null");
+        }
+        // The token is hashed on its own first so it never ends up in a file name, even partially
+        this.file = directory.resolve(CourseCache.sha256(endpoint + "\n" + CourseCache.sha256(token)) + ".snapshot");
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // Returns the time of the last sync in epoch milliseconds, 0 if there was none.
+    public long getSyncedAt() {
+        return syncedAt;
+    }
+
+    // Returns the ids of the courses in the snapshot.
+    public Set<String> getCourseIds() {
+        return new LinkedHashSet<>(courses.keySet());
+    }
+
+    // Returns the number of assignments in the snapshot.
+    public int size() {
+        return courses.values().stream().mapToInt(course -> course.assignments.size()).sum();
+    }
+
+    // Returns the update time of an assignment as last synced, null if it is not in the snapshot.
+    public String getUpdatedAt(String courseId, String assignmentId) {
+        Course course = courses.get(courseId);
+        Assignment assignment = course == null ? null : course.assignments.get(assignmentId);
+        return assignment == null ? null : assignment.getUpdatedAt();
+    }
+
+    // Adds a course, or updates its name.
+    public void putCourse(String courseId, String name) {
+        courses.computeIfAbsent(courseId, key -> new Course()).name = name;
+    }
+
+    // Removes a course, all its assignments are reported as removed.
+    public List<Delta> removeCourse(String courseId) {
+        Course course = courses.remove(courseId);
+        // Handle courses that are not in the snapshot
+        if (course == null) {
+            return Collections.emptyList();
+        }
+        List<Delta> deltas = new ArrayList<>(course.assignments.size());
+        course.assignments.values().forEach(assignment -> deltas.add(new Delta(Change.REMOVED, course.name, assignment)));
+        return deltas;
+    }
+
+    // Removes the assignments of a course that are not among the given ids and reports them as removed.
+    public List<Delta> retainAssignments(String courseId, Set<String> assignmentIds) {
+        Course course = courses.get(courseId);
+        // Handle courses that are not in the snapshot
+        if (course == null) {
+            return Collections.emptyList();
+        }
+        List<Delta> deltas = new ArrayList<>();
+        Iterator<Assignment> assignments = course.assignments.values().iterator();
+        while (assignments.hasNext()) {
+            Assignment assignment = assignments.next();
+            if (!assignmentIds.contains(assignment.getId())) {
+                assignments.remove();
+                deltas.add(new Delta(Change.REMOVED, course.name, assignment));
+            }
+        }
+        return deltas;
+    }
+
+    // Adds or replaces an assignment of a course that is in the snapshot.
+    // Returns the change, or null if neither the name nor the due date changed.
+    public Delta putAssignment(String courseId, Assignment assignment) {
+        Course course = courses.get(courseId);
+        // Handle courses that are not in the snapshot
+        if (course == null) {
+            throw new IllegalArgumentException("Unknown course: " + courseId);
+        }
+        Assignment previous = course.assignments.put(assignment.getId(), assignment);
+        if (previous == null) {
+            return new Delta(Change.ADDED, course.name, assignment);
+        }
+        // Changes to anything that is not listed (e.g. the description) only move updatedAt
+        if (Objects.equals(previous.getName(), assignment.getName()) && Objects.equals(previous.getDueAt(), assignment.getDueAt())) {
+            return null;
+        }
+        return new Delta(Change.CHANGED, course.name, assignment);
+    }
+
+    // Reads the snapshot file, returns false and leaves the snapshot empty if there is no usable one.
+    public boolean load() {
+        courses.clear();
+        syncedAt = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            // Handle files that are too short or were not written by this class
+            if (buffer.remaining() < 20 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                logger.log(Level.WARNING, "Ignoring unreadable sync snapshot: " + file);
+                return false;
+            }
+            long writtenAt = buffer.getLong();
+            int courseCount = buffer.getInt();
+            for (int i = 0; i < courseCount; i++) {
+                String courseId = CourseCache.readString(buffer);
+                putCourse(courseId, CourseCache.readString(buffer));
+                Course course = courses.get(courseId);
+                int assignmentCount = buffer.getInt();
+                for (int j = 0; j < assignmentCount; j++) {
+                    Assignment assignment = new Assignment(CourseCache.readString(buffer), CourseCache.readString(buffer), CourseCache.readString(buffer), CourseCache.readString(buffer));
+                    course.assignments.put(assignment.getId(), assignment);
+                }
+            }
+            syncedAt = writtenAt;
+            return true;
+        }
+        // No snapshot yet
+        catch (NoSuchFileException e) {
+            return false;
+        }
+        // Handle truncated and corrupt files
+        catch (BufferUnderflowException | IllegalArgumentException e) {
+            logger.log(Level.WARNING, "Ignoring truncated sync snapshot: " + file);
+        }
+        //For I/O errors while reading the snapshot.
+        catch (IOException e) {
+            logger.log(Level.WARNING, "I/O error while reading sync snapshot", e); //log as warning, the sync starts from scratch
+        }
+        courses.clear();
+        return false;
+    }
+
+    // Writes the snapshot file, replacing the previous one atomically. Returns false if it could not be written.
+    public boolean save() {
+        try {
+            Files.createDirectories(file.getParent());
+            // Write next to the target and move it into place, readers never see a half written file
+            Path temporary = Files.createTempFile(file.getParent(), "snapshot", ".tmp");
+            try {
+                long writtenAt = System.currentTimeMillis();
+                try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                    output.writeInt(MAGIC);
+                    output.writeInt(VERSION);
+                    output.writeLong(writtenAt);
+                    output.writeInt(courses.size());
+                    for (Map.Entry<String, Course> course : courses.entrySet()) {
+                        writeString(output, course.getKey());
+                        writeString(output, course.getValue().name);
+                        output.writeInt(course.getValue().assignments.size());
+                        for (Assignment assignment : course.getValue().assignments.values()) {
+                            writeString(output, assignment.getId());
+                            writeString(output, assignment.getName());
+                            writeString(output, assignment.getDueAt());
+                            writeString(output, assignment.getUpdatedAt());
+                        }
+                    }
+                }
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                syncedAt = writtenAt;
+                return true;
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
+        //For I/O errors while writing the snapshot.
+        catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error while writing sync snapshot", e); //log as severe, the next sync repeats these changes
+        }
+        return false;
+    }
+
+    // Writes a length-prefixed UTF-8 string, a length of -1 stands for null.
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        // Handle null strings
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+}
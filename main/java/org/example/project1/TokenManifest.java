@@ -0,0 +1,95 @@
+package org.example.project1;
+
+import java.io.BufferedReader; // Reads the manifest line by line.
+import java.io.IOException; // Thrown when the manifest cannot be read.
+import java.nio.charset.StandardCharsets; // The manifest is UTF-8.
+import java.nio.file.Files; // Used to open the manifest.
+import java.nio.file.Path; // Location of the manifest.
+import java.util.ArrayList; // Used for creating dynamic arrays.
+import java.util.Collections; // Used for the read-only tenant list.
+import java.util.HashSet; // Used to find tenants listed twice.
+import java.util.List; // Interface that can be used to create dynamic arrays
+import java.util.Set; // Interface for the tenant names seen so far.
+import java.util.regex.Pattern; // Pattern of a valid tenant name.
+
+// References used:
+// Files.newBufferedReader: https://docs.oracle.com/javase/8/docs/api/java/nio/file/Files.html#newBufferedReader-java.nio.file.Path-java.nio.charset.Charset-
+
+// TokenManifest is the list of tenants for an export, read from a text file with one tenant per line:
+//   <tenant name> <Canvas API token>
+// Blank lines and lines starting with # are skipped. Tenant names become file names of the per-tenant output,
+// so they may only contain letters, digits, '.', '_' and '-', and every name must be unique.
+public final class TokenManifest {
+
+    //Pattern of a valid tenant name
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_][A-Za-z0-9._-]{0,127}");
+
+    // One tenant: its name and its token.
+    public static final class Tenant {
+        private final String name;
+        private final String token;
+
+        // Tenant constructor.
+        public Tenant(final String name, final String token) {
+            this.name = name;
+            this.token = token;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getToken() {
+            return token;
+        }
+    }
+
+    //Tenants in manifest order
+    private final List<Tenant> tenants;
+
+    private TokenManifest(final List<Tenant> tenants) {
+        this.tenants = Collections.unmodifiableList(tenants);
+    }
+
+    // Reads and checks the manifest, every problem is reported with its line number.
+    public static TokenManifest read(Path manifest) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    // Parses a manifest from the reader.
+    static TokenManifest parse(BufferedReader reader) throws IOException {
+        List<Tenant> tenants = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        String line;
+        int number = 0;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            String trimmed = line.trim();
+            // Skip blank lines and comments
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] fields = trimmed.split("\\s+");
+            // Handle lines that are not a name and a token
+            if (fields.length != 2) {
+                throw new IllegalArgumentException("Line " + number + " of the manifest must be '<tenant name> <token>'");
+            }
+            // Handle names that cannot be used as file names
+            if (!NAME.matcher(fields[0]).matches()) {
+                throw new IllegalArgumentException("Invalid tenant name on line " + number + " of the manifest: " + fields[0]);
+            }
+            // Handle tenants listed twice
+            if (!names.add(fields[0])) {
+                throw new IllegalArgumentException("Tenant " + fields[0] + " is listed twice, again on line " + number + " of the manifest");
+            }
+            tenants.add(new Tenant(fields[0], fields[1]));
+        }
+        return new TokenManifest(tenants);
+    }
+
+    public List<Tenant> getTenants() {
+        return tenants;
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.project1;
+
+import java.util.concurrent.ConcurrentHashMap; // Thread-safe map holding one set of counters per endpoint.
+import java.util.concurrent.ConcurrentMap; // Interface for the counter map.
+import java.util.concurrent.atomic.LongAdder; // Counters updated by many responses at once.
+
+/*Using Java Logging API */
+import java.util.logging.Logger; // The Logger class is a part of the Java Logging API and is used to log messages for a specific system or application component.
+import java.util.logging.Level; // The Level class defines a set of standard logging levels that can be used to control logging output.
+
+// References used:
+// LongAdder: https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/atomic/LongAdder.html
+
+// TransferStats counts the bytes received from an endpoint, as they came over the wire and after decompression.
+// Each response is recorded once its body has been read, and logged at FINE with both sizes.
+// One set of counters is shared per endpoint, like the LatencyTracker.
+public class TransferStats {
+
+    //main logger
+    private static final Logger logger = Logger.getLogger(TransferStats.class.getName());
+    //One set of counters per endpoint
+    private static final ConcurrentMap<String, TransferStats> stats = new ConcurrentHashMap<>();
+
+    //Number of response bodies recorded
+    private final LongAdder responses = new LongAdder();
+    //Bytes received over the wire
+    private final LongAdder compressedBytes = new LongAdder();
+    //Bytes after decompression, equal to the received bytes for uncompressed responses
+    private final LongAdder decompressedBytes = new LongAdder();
+
+    // Returns the shared counters for the endpoint.
+    public static TransferStats forEndpoint(String endpoint) {
+        return stats.computeIfAbsent(endpoint, key -> new TransferStats());
+    }
+
+    // Records one response body, encoding is the Content-Encoding it was sent with.
+    public void record(String encoding, long compressed, long decompressed) {
+        responses.increment();
+        compressedBytes.add(compressed);
+        decompressedBytes.add(decompressed);
+        Metrics.recordResponse(encoding, compressed, decompressed);
+        logger.log(Level.FINE, "Response body of " + compressed + " bytes (" + encoding + "), " + decompressed + " bytes decompressed"); // Logging the sizes of the response
+    }
+
+    public long getResponses() {
+        return responses.sum();
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    public long getDecompressedBytes() {
+        return decompressedBytes.sum();
+    }
+}
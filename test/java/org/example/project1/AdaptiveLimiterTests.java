@@ -0,0 +1,90 @@
+package org.example.project1;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveLimiterTests {
+
+    @Test
+    void growsWhileTheBucketIsFull() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(2, 8);
+        for (int i = 0; i < 50; i++) {
+            limiter.onResponse(200, headers("650", "1.5"));
+        }
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    void backsOffWhenLowOrThrottled() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(8, 8);
+        limiter.onResponse(200, headers("100", "2"));
+        assertEquals(6, limiter.getLimit());
+        limiter.onResponse(403, headers("0", "2"));
+        assertEquals(3, limiter.getLimit());
+        assertEquals(1, limiter.getThrottled());
+        for (int i = 0; i < 10; i++) {
+            limiter.onResponse(429, headers("0", "2"));
+        }
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    void ignoresForbiddenResponsesThatAreNotThrottled() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(8, 8);
+        limiter.onResponse(403, headers("650", "1"));
+        limiter.onResponse(403, HttpHeaders.of(Map.of(), (name, value) -> true));
+        assertEquals(8, limiter.getLimit());
+        assertEquals(0, limiter.getThrottled());
+        limiter.onResponse(403, HttpHeaders.of(Map.of("Retry-After", List.of("1")), (name, value) -> true));
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void permitsFollowTheLimit() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 4);
+        limiter.acquire();
+        assertEquals(1, limiter.getInFlight());
+        Thread waiter = new Thread(() -> {
+            try {
+                limiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        waiter.join(300);
+        assertTrue(waiter.isAlive());
+        limiter.release();
+        waiter.join(1000);
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void runningLimitersAreExportedAsGauges() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(3, 8);
+        Metrics.addLimiter(limiter);
+        try {
+            limiter.acquire();
+            StringBuilder text = new StringBuilder();
+            Metrics.writePrometheus(text);
+            assertTrue(text.toString().contains("\ngraphql_limiter_in_flight 1\n"), text.toString());
+            assertTrue(text.toString().contains("\ngraphql_limiter_limit 3\n"), text.toString());
+        } finally {
+            limiter.release();
+            Metrics.removeLimiter(limiter);
+        }
+        StringBuilder text = new StringBuilder();
+        Metrics.writePrometheus(text);
+        assertTrue(text.toString().contains("\ngraphql_limiter_in_flight 0\n"), text.toString());
+    }
+
+    private static HttpHeaders headers(String remaining, String cost) {
+        return HttpHeaders.of(Map.of(AdaptiveLimiter.REMAINING_HEADER, List.of(remaining), AdaptiveLimiter.COST_HEADER, List.of(cost)), (name, value) -> true);
+    }
+}
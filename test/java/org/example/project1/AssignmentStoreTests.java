@@ -0,0 +1,55 @@
+package org.example.project1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AssignmentStoreTests {
+
+    private static List<GetResponses.Root.Data.Course.AssignmentsConnection.Node> nodes(String json) throws Exception {
+        return new ObjectMapper().readValue("{\"data\":{\"course\":{\"assignmentsConnection\":{\"nodes\":" + json + "}}}}", GetResponses.Root.class)
+                .getData().getCourse().getAssignmentsConnection().getNodes();
+    }
+
+    @Test
+    void parsesDueDatesLikeOffsetDateTime() {
+        for (String dueAt : List.of("2024-05-10T06:59:59Z", "2024-05-10T06:59:59-07:00", "2024-02-29T23:00:00+05:30", "1969-12-31T23:59:59Z", "2024-05-10T06:59:59.123Z")) {
+            assertEquals(OffsetDateTime.parse(dueAt).toEpochSecond(), AssignmentStore.parseEpochSecond(dueAt), dueAt);
+        }
+    }
+
+    @Test
+    void sortsByDueDateAndSkipsUnusableAssignments() throws Exception {
+        AssignmentStore store = new AssignmentStore.Builder().addAll("CS 146", nodes("["
+                + "{\"dueAt\":\"2024-03-02T00:00:00Z\",\"name\":\"B\"},"
+                + "{\"dueAt\":null,\"name\":\"No due date\"},"
+                + "{\"dueAt\":\"2024-03-01T16:00:00-07:00\",\"name\":\"A\"},"
+                + "{\"dueAt\":\"not a date\",\"name\":\"Broken\"},"
+                + "{\"dueAt\":\"2024-03-02T00:00:00Z\",\"name\":\"C\"}]")).build();
+        assertEquals(3, store.size());
+        assertEquals("A", store.getName(0));
+        assertEquals("B", store.getName(1));
+        assertEquals("C", store.getName(2));
+        assertEquals("CS 146", store.getCourseName(0));
+        assertEquals("2024-03-01T16:00:00-07:00", store.getDueAt(0));
+    }
+
+    @Test
+    void rangesAreBinarySearches() throws Exception {
+        AssignmentStore store = new AssignmentStore.Builder().addAll(null, nodes("["
+                + "{\"dueAt\":\"2024-03-01T00:00:00Z\",\"name\":\"A\"},"
+                + "{\"dueAt\":\"2024-03-02T00:00:00Z\",\"name\":\"B\"},"
+                + "{\"dueAt\":\"2024-03-02T00:00:00Z\",\"name\":\"C\"},"
+                + "{\"dueAt\":\"2024-03-03T00:00:00Z\",\"name\":\"D\"}]")).build();
+        long march2 = OffsetDateTime.parse("2024-03-02T00:00:00Z").toEpochSecond();
+        assertEquals(1, store.lowerBound(march2));
+        assertEquals(3, store.upperBound(march2));
+        assertEquals(0, store.lowerBound(Long.MIN_VALUE));
+        assertEquals(4, store.upperBound(Long.MAX_VALUE));
+        assertEquals(4, store.lowerBound(march2 + 2 * 86_400));
+    }
+}
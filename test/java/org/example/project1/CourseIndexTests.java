@@ -0,0 +1,87 @@
+package org.example.project1;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CourseIndexTests {
+
+    private final CourseIndex index = new CourseIndex(List.of(
+            course("CS 146 Data Structures and Algorithms", "1"),
+            course("CS 151 Object-Oriented Design", "2"),
+            course("MATH 42 Discrete Mathematics", "3"),
+            course("Data   Science Seminar", "4"),
+            course(null, "5")
+    ));
+
+    @Test
+    void substringMatchesAreCaseAndSpaceInsensitive() {
+        assertEquals(List.of("1", "4"), ids(index.find("DATA s", CourseIndex.MatchMode.SUBSTRING)));
+        assertEquals(List.of("1", "2", "3"), ids(index.find("cs", CourseIndex.MatchMode.SUBSTRING)));
+        assertTrue(index.find("biology", CourseIndex.MatchMode.SUBSTRING).isEmpty());
+    }
+
+    @Test
+    void prefixAndExactMatches() {
+        assertEquals(List.of("1", "2"), ids(index.find("cs 1", CourseIndex.MatchMode.PREFIX)));
+        assertEquals(List.of("3"), ids(index.find("math 42 discrete mathematics", CourseIndex.MatchMode.EXACT)));
+        assertTrue(index.find("math 42", CourseIndex.MatchMode.EXACT).isEmpty());
+    }
+
+    @Test
+    void fuzzyMatchToleratesTypos() {
+        assertEquals(List.of("3"), ids(index.find("discrete mathematcs", CourseIndex.MatchMode.FUZZY)));
+        assertTrue(index.find("xyzzy", CourseIndex.MatchMode.FUZZY).isEmpty());
+    }
+
+    @Test
+    void singleNamesMatchLikeTheIndex() {
+        String[] names = {"CS 146 Data Structures and Algorithms", "CS 151 Object-Oriented Design", "MATH 42 Discrete Mathematics", "Data   Science Seminar"};
+        for (CourseIndex.MatchMode mode : new CourseIndex.MatchMode[]{CourseIndex.MatchMode.EXACT, CourseIndex.MatchMode.PREFIX, CourseIndex.MatchMode.SUBSTRING}) {
+            for (String query : new String[]{"DATA s", "cs 1", "math 42 discrete mathematics", "cs"}) {
+                List<String> expected = ids(index.find(query, mode));
+                for (int i = 0; i < names.length; i++) {
+                    assertEquals(expected.contains(String.valueOf(i + 1)), CourseIndex.matches(names[i], CourseIndex.normalize(query), mode), mode + " " + query);
+                }
+            }
+        }
+        assertFalse(CourseIndex.matches(null, "cs", CourseIndex.MatchMode.SUBSTRING));
+    }
+
+    @Test
+    void idByName() {
+        assertEquals("2", index.getIdByName("cs 151 object-oriented design"));
+        assertNull(index.getIdByName("cs 151"));
+    }
+
+    @Test
+    void ageCountsFromWhenTheCachedListWasWritten(@TempDir Path directory) {
+        CourseCache writer = new CourseCache(directory, "https://canvas.example/api/graphql", "token", "query");
+        writer.write(List.of(course("CS 146", "1")));
+        // A later run reads the list back and builds its index from it
+        CourseCache reader = new CourseCache(directory, "https://canvas.example/api/graphql", "token", "query");
+        List<GetResponses.CourseData.Course> courses = reader.read(null);
+        assertEquals(writer.getWrittenAt(), reader.getWrittenAt());
+
+        long hourAgo = System.currentTimeMillis() - Duration.ofHours(1).toMillis();
+        CourseIndex stale = new CourseIndex(courses, hourAgo);
+        assertTrue(stale.getAge().compareTo(Duration.ofMinutes(59)) > 0);
+        assertTrue(new CourseIndex(courses, reader.getWrittenAt()).getAge().compareTo(Duration.ofMinutes(1)) < 0);
+    }
+
+    private static GetResponses.CourseData.Course course(String name, String id) {
+        return new GetResponses.CourseData.Course(name, id, new GetResponses.CourseData.Course.Term("Spring 2024"));
+    }
+
+    private static List<String> ids(List<GetResponses.CourseData.Course> courses) {
+        return courses.stream().map(GetResponses.CourseData.Course::getId).toList();
+    }
+}
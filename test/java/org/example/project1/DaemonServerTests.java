@@ -0,0 +1,96 @@
+package org.example.project1;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DaemonServerTests {
+
+    @TempDir
+    Path directory;
+
+    private DaemonServer server;
+
+    @AfterEach
+    void stop() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void outputFramesAndExitCodeAreForwarded() throws Exception {
+        List<Path> directories = new CopyOnWriteArrayList<>();
+        String address = start((args, workingDirectory, out, err) -> {
+            directories.add(workingDirectory);
+            try {
+                out.write(("out " + String.join(" ", args) + "\n").getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                return 1;
+            }
+            err.println("err line");
+            return 7;
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        assertEquals(7, DaemonClient.forward(address, new String[]{"list-courses", "--format", "csv"}, directory, out, err));
+        assertEquals("out list-courses --format csv\n", out.toString(StandardCharsets.UTF_8));
+        assertEquals("err line" + System.lineSeparator(), err.toString(StandardCharsets.UTF_8));
+        assertEquals(List.of(directory.toAbsolutePath()), directories);
+    }
+
+    @Test
+    void clientsWithTheWrongSecretAreRejected() throws Exception {
+        List<String[]> runs = new CopyOnWriteArrayList<>();
+        String address = start((args, workingDirectory, out, err) -> {
+            runs.add(args);
+            return 0;
+        });
+        Files.writeString(DaemonServer.secretFile(address), "not-the-secret", StandardCharsets.UTF_8);
+        // The daemon hangs up without an exit code, which the client reports as a failure
+        assertEquals(1, DaemonClient.forward(address, new String[]{"list-courses"}, directory, OutputStream.nullOutputStream(), OutputStream.nullOutputStream()));
+        assertTrue(runs.isEmpty());
+    }
+
+    @Test
+    void relativeOutputPathsResolveAgainstTheClientDirectory() throws Exception {
+        try (MockCanvasServer canvas = MockCanvasServer.start(0, MockCanvasServer.Settings.defaults().withSizes(3, 1))) {
+            String address = start(CanvasGraphQlApplication::executeForClient);
+            Path client = Files.createDirectory(directory.resolve("client"));
+            Integer exitCode = DaemonClient.forward(address, new String[]{"--endpoint", canvas.getEndpoint(), "--token", "mock-token",
+                    "--cache-dir", directory.resolve("cache").toString(), "list-courses", "--output", "courses.txt"},
+                    client, OutputStream.nullOutputStream(), OutputStream.nullOutputStream());
+            assertEquals(0, exitCode);
+            assertTrue(Files.exists(client.resolve("courses.txt")));
+            assertFalse(Files.readString(client.resolve("courses.txt")).isEmpty());
+        }
+    }
+
+    // Starts a daemon on a socket in the temporary directory and returns its address.
+    private String start(DaemonServer.CommandRunner runner) throws IOException {
+        server = DaemonServer.onSocket(directory.resolve("daemon.sock"));
+        Thread thread = new Thread(() -> {
+            try {
+                server.serve(runner);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, "daemon-test");
+        thread.setDaemon(true);
+        thread.start();
+        return server.getAddress();
+    }
+}
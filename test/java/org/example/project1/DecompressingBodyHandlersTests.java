@@ -0,0 +1,93 @@
+package org.example.project1;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DecompressingBodyHandlersTests {
+
+    private static final String BODY = "{\"data\":{\"allCourses\":[" + "{\"name\":\"CS 146\",\"id\":\"1\",\"term\":null},".repeat(200) + "{\"name\":\"CS 147\",\"id\":\"2\",\"term\":null}]}}";
+
+    private static byte[] compress(String encoding, boolean zlib) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = encoding.equals("gzip")
+                ? new GZIPOutputStream(bytes)
+                : new DeflaterOutputStream(bytes, new Deflater(Deflater.DEFAULT_COMPRESSION, !zlib))) {
+            out.write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static HttpServer serve(String encoding, byte[] body) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            String accepted = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            boolean compressed = accepted != null && accepted.contains(encoding);
+            byte[] response = compressed ? body : BODY.getBytes(StandardCharsets.UTF_8);
+            if (compressed) {
+                exchange.getResponseHeaders().add("Content-Encoding", encoding);
+            }
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+
+    private static GraphQlConnect connect(HttpServer server, String path) {
+        return new GraphQlConnect("token", "http://127.0.0.1:" + server.getAddress().getPort() + "/" + path,
+                Duration.ofSeconds(5), Duration.ofSeconds(5));
+    }
+
+    @Test
+    void decompressesGzipIntoAString() throws IOException {
+        byte[] gzip = compress("gzip", true);
+        HttpServer server = serve("gzip", gzip);
+        try {
+            GraphQlConnect connection = connect(server, "gzip");
+            assertEquals(BODY, connection.send(QueryRegistry.COURSES, Map.of()));
+            assertEquals(1, connection.getTransferStats().getResponses());
+            assertEquals(gzip.length, connection.getTransferStats().getCompressedBytes());
+            assertEquals(BODY.length(), connection.getTransferStats().getDecompressedBytes());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void decompressesRawAndZlibDeflateWhileStreaming() throws IOException {
+        for (boolean zlib : new boolean[] {true, false}) {
+            byte[] deflate = compress("deflate", zlib);
+            HttpServer server = serve("deflate", deflate);
+            try {
+                GraphQlConnect connection = connect(server, "deflate-" + zlib);
+                try (InputStream response = connection.sendStream(QueryRegistry.COURSES, Map.of())) {
+                    assertNotNull(response);
+                    assertEquals(BODY, new String(response.readAllBytes(), StandardCharsets.UTF_8));
+                }
+                assertEquals(deflate.length, connection.getTransferStats().getCompressedBytes());
+                assertEquals(BODY.length(), connection.getTransferStats().getDecompressedBytes());
+                assertTrue(deflate.length < BODY.length());
+            } finally {
+                server.stop(0);
+            }
+        }
+    }
+}
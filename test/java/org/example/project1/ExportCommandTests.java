@@ -0,0 +1,44 @@
+package org.example.project1;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExportCommandTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void combinedOutputOnlyHoldsTenantsThatFinished() throws Exception {
+        try (MockCanvasServer server = MockCanvasServer.start(0, MockCanvasServer.Settings.defaults().withSizes(3, 2))) {
+            // The failing tenant gets its course list and one batch through, then its shard goes down
+            Path manifest = Files.writeString(directory.resolve("tokens.txt"),
+                    "broken " + MockCanvasServer.FAILING_TOKEN_PREFIX + "2\nworking mock-token\n");
+            Path output = directory.resolve("all.tsv");
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            // One worker, so the failing tenant runs first and its failures would open a shared circuit breaker
+            CanvasGraphQlApplication.execute(new String[]{"--endpoint", server.getEndpoint(), "--token", "mock-token",
+                    "--cache-dir", directory.resolve("cache").toString(), "export", "--manifest", manifest.toString(),
+                    "--output", output.toString(), "--workers", "1", "--chunk-size", "1"}, out, new PrintWriter(Writer.nullWriter()));
+
+            List<String> report = out.toString(StandardCharsets.UTF_8).lines().toList();
+            assertTrue(report.get(0).startsWith("broken: failed"), report.toString());
+            assertEquals("working: 3 courses, 6 assignments", report.get(1));
+            assertEquals("Exported 1 of 2 tenants", report.get(2).substring(0, "Exported 1 of 2 tenants".length()));
+            List<String> lines = Files.readAllLines(output);
+            assertEquals(6, lines.size());
+            assertTrue(lines.stream().allMatch(line -> line.startsWith("working\t")), lines.toString());
+        }
+    }
+}
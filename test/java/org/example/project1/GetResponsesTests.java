@@ -0,0 +1,36 @@
+package org.example.project1;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GetResponsesTests {
+
+    @Test
+    void keepsTheAliasesThatResolvedNextToErrors() throws IOException {
+        String response = "{\"errors\":[{\"message\":\"not found\",\"locations\":[{\"line\":1,\"column\":2}],\"path\":[\"c2\"]}],"
+                + "\"data\":{\"c1\":{\"id\":\"1\",\"name\":\"CS 146\",\"assignmentsConnection\":{\"nodes\":[{\"name\":\"HW 1\"}]}},\"c2\":null},"
+                + "\"extensions\":{\"cost\":3}}";
+        GetResponses.BatchRoot batch = ObjectMappers.reader(GetResponses.BatchRoot.class).readValue(response);
+        assertEquals("HW 1", batch.getData().get("c1").getAssignmentsConnection().getNodes().get(0).getAssignmentName());
+        assertNull(batch.getData().get("c2"));
+        assertEquals("[c2]: not found", batch.getErrors().get(0).toString());
+
+        GetResponses.AssignmentBatchRoot assignments = ObjectMappers.reader(GetResponses.AssignmentBatchRoot.class)
+                .readValue("{\"data\":{\"a1\":{\"id\":\"7\"},\"a2\":null},\"errors\":[{\"message\":\"gone\",\"path\":[\"a2\"]}]}");
+        assertEquals("7", assignments.getData().get("a1").getId());
+        assertEquals("gone", assignments.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void singleCoursePagesIgnoreErrorsAndExtensions() throws IOException {
+        GetResponses.Root root = ObjectMappers.reader(GetResponses.Root.class)
+                .readValue("{\"data\":{\"course\":{\"id\":\"1\",\"assignmentsConnection\":{\"nodes\":[{\"name\":\"HW 1\"}]}}},"
+                        + "\"errors\":[{\"message\":\"partial\",\"path\":[\"course\",\"assignmentsConnection\",\"nodes\",1]}],"
+                        + "\"extensions\":{\"cost\":{\"requestedQueryCost\":12}}}");
+        assertEquals("HW 1", root.getData().getCourse().getAssignmentsConnection().getNodes().get(0).getAssignmentName());
+    }
+}
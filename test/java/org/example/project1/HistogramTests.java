@@ -0,0 +1,38 @@
+package org.example.project1;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistogramTests {
+
+    @Test
+    void bucketsCoverEveryValueWithinAnEighth() {
+        long[] values = {0, 1, 7, 8, 15, 16, 17, 1000, 123_456_789L, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = Histogram.index(value);
+            long upper = Histogram.upperBound(index);
+            assertTrue(upper >= value, "upper bound below " + value);
+            assertTrue(index == 0 || Histogram.upperBound(index - 1) < value, "value " + value + " fits an earlier bucket");
+            assertTrue(upper - value <= value / 8, "bucket of " + value + " too wide");
+        }
+    }
+
+    @Test
+    void snapshotsSubtractAndAnswerPercentiles() {
+        Histogram histogram = new Histogram();
+        histogram.record(5);
+        Histogram.Snapshot before = histogram.snapshot();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+        Histogram.Snapshot recorded = histogram.snapshot().minus(before);
+        assertEquals(100, recorded.getCount());
+        assertEquals(5_050_000_000L, recorded.getSum());
+        long p50 = recorded.percentile(50);
+        assertTrue(Math.abs(p50 - 50_000_000L) <= 50_000_000L / 8, "p50 " + p50);
+        long p99 = recorded.percentile(99);
+        assertTrue(Math.abs(p99 - 99_000_000L) <= 99_000_000L / 8, "p99 " + p99);
+    }
+}
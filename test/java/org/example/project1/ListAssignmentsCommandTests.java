@@ -0,0 +1,81 @@
+package org.example.project1;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ListAssignmentsCommandTests {
+
+    @TempDir
+    Path cache;
+
+    @Test
+    void allCoursesListsTheLaterPagesOfEveryCourse() throws Exception {
+        try (MockCanvasServer server = MockCanvasServer.start(0, MockCanvasServer.Settings.defaults().withSizes(3, 7))) {
+            List<String> paged = run("--endpoint", server.getEndpoint(), "--token", "mock-token", "--cache-dir", cache.toString(),
+                    "list-assignments", "--all-courses", "--page-size", "3", "--chunk-size", "2");
+            // The course list, two batches and two more pages for each of the three courses
+            assertEquals(9, server.getRequests());
+            List<String> whole = run("--endpoint", server.getEndpoint(), "--token", "mock-token", "--cache-dir", cache.toString(),
+                    "list-assignments", "--all-courses", "--page-size", "10", "--chunk-size", "2");
+            assertFalse(paged.isEmpty());
+            assertEquals(whole, paged);
+        }
+    }
+
+    @Test
+    void cachedCourseListsAreMatchedBeforeAnyAssignmentRequest() throws Exception {
+        try (MockCanvasServer server = MockCanvasServer.start(0, MockCanvasServer.Settings.defaults().withSizes(3, 7))) {
+            String[] options = {"--endpoint", server.getEndpoint(), "--token", "mock-token", "--cache-dir", cache.toString()};
+            List<String> courses = run(concat(options, "list-courses"));
+            assertFalse(courses.isEmpty());
+            // Every course matches, nothing is requested for any of them
+            assertEquals("Matches are not unique", run(concat(options, "list-assignments", "Section")).get(0));
+            assertEquals(1, server.getRequests());
+            // A single match costs one request
+            run(concat(options, "list-assignments", "--page-size", "10", courses.get(0)));
+            assertEquals(2, server.getRequests());
+        }
+    }
+
+    @Test
+    void oneCourseIsListedInCanvasOrderWithoutADueRange() throws Exception {
+        try (MockCanvasServer server = MockCanvasServer.start(0, MockCanvasServer.Settings.defaults().withSizes(1, 40))) {
+            String[] options = {"--endpoint", server.getEndpoint(), "--token", "mock-token", "--cache-dir", cache.toString()};
+            GraphQlConnect connection = new GraphQlConnect("mock-token", server.getEndpoint());
+            List<GetResponses.Root.Data.Course.AssignmentsConnection.Node> nodes = new ArrayList<>();
+            new AssignmentPager(connection, ObjectMappers.get(), "1", 100).forEachRemaining(nodes::add);
+            long now = Instant.now().getEpochSecond();
+            List<String> active = nodes.stream().filter(node -> AssignmentStore.dueEpochSecond(node) >= now)
+                    .map(node -> node.getAssignmentName() + " due at " + node.getDueAt()).collect(Collectors.toList());
+            List<String> past = nodes.stream().filter(node -> AssignmentStore.dueEpochSecond(node) != Long.MIN_VALUE && AssignmentStore.dueEpochSecond(node) < now)
+                    .map(node -> node.getAssignmentName() + " due at " + node.getDueAt()).collect(Collectors.toList());
+            assertEquals(active, run(concat(options, "list-assignments", "--course-id", "1", "--page-size", "7")));
+            assertEquals(past, run(concat(options, "list-assignments", "--course-id", "1", "--page-size", "7", "--no-active")));
+        }
+    }
+
+    private static String[] concat(String[] options, String... command) {
+        return Stream.concat(Arrays.stream(options), Arrays.stream(command)).toArray(String[]::new);
+    }
+
+    private static List<String> run(String... args) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(0, CanvasGraphQlApplication.execute(args, out, new PrintWriter(Writer.nullWriter())));
+        return out.toString(StandardCharsets.UTF_8).lines().collect(Collectors.toList());
+    }
+}
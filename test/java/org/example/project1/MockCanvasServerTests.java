@@ -0,0 +1,81 @@
+package org.example.project1;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MockCanvasServerTests {
+
+    private static GraphQlConnect connect(MockCanvasServer server, int retries) {
+        GraphQlConnect connection = new GraphQlConnect("mock-token", server.getEndpoint());
+        connection.setResiliencePolicy(new ResiliencePolicy(retries, Duration.ZERO, Duration.ZERO, Duration.ZERO, false, 100, Duration.ZERO));
+        return connection;
+    }
+
+    @Test
+    void pagesThroughTheGeneratedAssignments() throws IOException {
+        try (MockCanvasServer server = MockCanvasServer.start(0, MockCanvasServer.Settings.defaults().withSizes(3, 7))) {
+            GraphQlConnect connection = connect(server, 0);
+            assertEquals(3, server.getCourseCount());
+            AssignmentPager pager = new AssignmentPager(connection, ObjectMappers.get(), "10001", 3);
+            assertEquals(7, pager.stream().count());
+            assertEquals(3, server.getRequests());
+            connection.setPersistedQueries(true);
+            String courses = connection.send(QueryRegistry.COURSES, Map.of());
+            assertEquals(courses, connection.send(QueryRegistry.COURSES, Map.of()));
+            assertTrue(courses.contains("\"id\":\"10002\""));
+        }
+    }
+
+    @Test
+    void pagesBatchedCourses() throws IOException {
+        try (MockCanvasServer server = MockCanvasServer.start(0, MockCanvasServer.Settings.defaults().withSizes(2, 7))) {
+            GraphQlConnect connection = connect(server, 0);
+            Map<String, Object> variables = QueryRegistry.aliasVariables("c", List.of("10000", "10001"));
+            variables.put("first", 3);
+            GetResponses.BatchRoot batch = ObjectMappers.get().readValue(connection.send(QueryRegistry.assignmentVersions(2), variables), GetResponses.BatchRoot.class);
+            GetResponses.Root.Data.Course.AssignmentsConnection firstPage = batch.getData().get("c2").getAssignmentsConnection();
+            assertEquals(3, firstPage.getNodes().size());
+            assertTrue(firstPage.getPageInfo().hasNextPage());
+            assertEquals(7, AssignmentPager.allPages(connection, ObjectMappers.get(), QueryRegistry.ASSIGNMENT_VERSIONS_PAGE, "10001", 3, firstPage).size());
+            assertEquals(3, server.getRequests());
+        }
+    }
+
+    @Test
+    void replaysRecordedFixtures() throws IOException {
+        Path fixtures = Files.createTempDirectory("mock-fixtures");
+        Files.writeString(fixtures.resolve("courses.json"), "{\"data\":{\"allCourses\":[{\"name\":\"Recorded\",\"id\":\"7\",\"term\":null}]}}");
+        Files.createDirectory(fixtures.resolve("assignments"));
+        Files.writeString(fixtures.resolve("assignments").resolve("7.json"),
+                "{\"data\":{\"course\":{\"assignmentsConnection\":{\"nodes\":[{\"id\":\"1\",\"name\":\"Essay\",\"dueAt\":null}]}}}}");
+        try (MockCanvasServer server = MockCanvasServer.start(0, MockCanvasServer.Settings.defaults().withFixtures(fixtures))) {
+            AssignmentPager pager = new AssignmentPager(connect(server, 0), ObjectMappers.get(), "7", 10);
+            assertEquals("Essay", pager.next().getAssignmentName());
+            assertEquals(1, server.getCourseCount());
+        }
+    }
+
+    @Test
+    void throttledAndFailedRequestsAreCounted() throws IOException {
+        try (MockCanvasServer throttling = MockCanvasServer.start(0, MockCanvasServer.Settings.defaults().withThrottleRate(1))) {
+            assertNull(connect(throttling, 2).send(QueryRegistry.COURSES, Map.of()));
+            assertEquals(3, throttling.getThrottled());
+        }
+        try (MockCanvasServer failing = MockCanvasServer.start(0, MockCanvasServer.Settings.defaults().withErrorRate(1))) {
+            assertNull(connect(failing, 2).send(QueryRegistry.COURSES, Map.of()));
+            assertEquals(1, failing.getErrors());
+        }
+        assertThrows(IllegalArgumentException.class, () -> MockCanvasServer.Settings.defaults().withErrorRate(2));
+    }
+}
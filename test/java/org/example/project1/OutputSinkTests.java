@@ -0,0 +1,58 @@
+package org.example.project1;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OutputSinkTests {
+
+    private static String write(OutputSink.Format format, boolean courses) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputSink sink = OutputSink.open(format, Channels.newChannel(bytes), false)) {
+            if (courses) {
+                sink.course("Café \"Intro\", 101", "C1", null);
+            } else {
+                sink.assignment(null, "Essay\n\u0001 😀", "2030-03-01T10:00:00Z");
+                sink.assignment("CS 146", "HW1", null);
+            }
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void textMatchesThePrintedLines() throws IOException {
+        assertEquals("Café \"Intro\", 101\n", write(OutputSink.Format.TEXT, true));
+        assertEquals("Essay\n\u0001 😀 due at 2030-03-01T10:00:00Z\nCS 146: HW1 due at null\n", write(OutputSink.Format.TEXT, false));
+    }
+
+    @Test
+    void ndjsonEscapesStringsAndWritesNulls() throws IOException {
+        assertEquals("{\"name\":\"Café \\\"Intro\\\", 101\",\"id\":\"C1\",\"term\":null}\n", write(OutputSink.Format.NDJSON, true));
+        assertEquals("{\"course\":null,\"name\":\"Essay\\n\\u0001 😀\",\"dueAt\":\"2030-03-01T10:00:00Z\"}\n"
+                + "{\"course\":\"CS 146\",\"name\":\"HW1\",\"dueAt\":null}\n", write(OutputSink.Format.NDJSON, false));
+    }
+
+    @Test
+    void csvWritesAHeaderAndQuotesOnlyWhenNeeded() throws IOException {
+        assertEquals("name,id,term\r\n\"Café \"\"Intro\"\", 101\",C1,\r\n", write(OutputSink.Format.CSV, true));
+        assertEquals("course,name,due_at\r\n,\"Essay\n\u0001 😀\",2030-03-01T10:00:00Z\r\nCS 146,HW1,\r\n", write(OutputSink.Format.CSV, false));
+    }
+
+    @Test
+    void smallBuffersFlushBetweenCharacters() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        StringBuilder expected = new StringBuilder();
+        try (ChannelWriter writer = new ChannelWriter(Channels.newChannel(bytes), false, 16)) {
+            for (int i = 0; i < 100; i++) {
+                writer.write("é€😀x");
+                expected.append("é€😀x");
+            }
+        }
+        assertEquals(expected.toString(), bytes.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.project1;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QueryBuilderTests {
+
+    @Test
+    void pathsSharingAPrefixShareTheSelectionSet() {
+        String document = QueryBuilder.query("assignments")
+                .variable("courseId", "ID!")
+                .select("course(id: $courseId).assignmentsConnection.nodes.name")
+                .select("course(id: $courseId).assignmentsConnection.nodes", "dueAt", "name")
+                .select("course(id: $courseId).name")
+                .document();
+        assertEquals("query assignments($courseId: ID!) { course(id: $courseId) { assignmentsConnection { nodes { name dueAt } } name } }", document);
+    }
+
+    @Test
+    void coursesRequestOnlyTheSelectedFields() {
+        assertEquals("query courses { allCourses { id } }",
+                QueryRegistry.courses(EnumSet.of(QueryRegistry.CourseField.ID)).getDocument());
+        assertEquals("query courses { allCourses { name id term { name startAt endAt } } }", QueryRegistry.COURSES.getDocument());
+        assertSame(QueryRegistry.COURSES, QueryRegistry.courses(EnumSet.allOf(QueryRegistry.CourseField.class)));
+    }
+
+    @Test
+    void rejectsEmptyPathsAndQueries() {
+        assertThrows(IllegalArgumentException.class, () -> QueryBuilder.query("courses").select("allCourses..name"));
+        assertThrows(IllegalStateException.class, () -> QueryBuilder.query("courses").document());
+        assertThrows(IllegalArgumentException.class, () -> QueryBuilder.query("two words"));
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.project1;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryRegistryTests {
+
+    @Test
+    void variablesCannotChangeTheDocument() throws IOException {
+        String id = "1\"} } evil { x";
+        byte[] body = QueryRegistry.ASSIGNMENTS_PAGE.body(Map.of("courseId", id, "first", 10));
+        JsonNode json = ObjectMappers.get().readTree(body);
+        assertEquals(QueryRegistry.ASSIGNMENTS_PAGE.getDocument(), json.get("query").asText());
+        assertEquals(id, json.get("variables").get("courseId").asText());
+        assertEquals("assignmentsPage", json.get("operationName").asText());
+    }
+
+    @Test
+    void optionalVariablesAreLeftOut() throws IOException {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("courseId", "7");
+        variables.put("first", 50);
+        variables.put("after", null);
+        JsonNode json = ObjectMappers.get().readTree(QueryRegistry.ASSIGNMENTS_PAGE.body(variables));
+        assertEquals(50, json.get("variables").get("first").asInt());
+        assertFalse(json.get("variables").has("after"));
+    }
+
+    @Test
+    void batchesAreBuiltOncePerSize() throws IOException {
+        assertSame(QueryRegistry.batchAssignments(3), QueryRegistry.batchAssignments(3));
+        Map<String, Object> aliasVariables = new HashMap<>(QueryRegistry.aliasVariables("c", List.of("1", "2", "3")));
+        aliasVariables.put("first", 50);
+        JsonNode json = ObjectMappers.get().readTree(QueryRegistry.batchAssignments(3).body(aliasVariables));
+        assertEquals("3", json.get("variables").get("c3").asText());
+        assertEquals(50, json.get("variables").get("first").asInt());
+    }
+
+    @Test
+    void rejectsInvalidDocumentsAndVariables() {
+        assertThrows(IllegalArgumentException.class, () -> new GraphQlOperation("query q { course(id: \"1\") { name } }"));
+        assertThrows(IllegalArgumentException.class, () -> new GraphQlOperation("query q { course(id: $id) { name } }"));
+        assertThrows(IllegalArgumentException.class, () -> new GraphQlOperation("query q($id: ID!) { course(id: $id) { name }"));
+        assertThrows(IllegalArgumentException.class, () -> QueryRegistry.ASSIGNMENTS_PAGE.body(Map.of("first", 10)));
+        assertThrows(IllegalArgumentException.class, () -> QueryRegistry.ASSIGNMENTS_PAGE.body(Map.of("courseId", true, "first", 10)));
+        assertThrows(IllegalArgumentException.class, () -> QueryRegistry.ASSIGNMENTS_PAGE.body(Map.of("courseId", "1", "first", 10, "other", "2")));
+    }
+
+    @Test
+    void registersPersistedQueriesOnFirstUse() throws IOException {
+        Map<String, String> persisted = new ConcurrentHashMap<>();
+        List<JsonNode> requests = new ArrayList<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            JsonNode request = ObjectMappers.get().readTree(exchange.getRequestBody());
+            synchronized (requests) {
+                requests.add(request);
+            }
+            String hash = request.path("extensions").path("persistedQuery").path("sha256Hash").asText(null);
+            if (hash != null && request.has("query")) {
+                persisted.put(hash, request.get("query").asText());
+            }
+            String response = hash != null && !persisted.containsKey(hash)
+                    ? "{\"errors\":[{\"message\":\"PersistedQueryNotFound\"}]}"
+                    : "{\"data\":{\"course\":null}}";
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.start();
+        try {
+            GraphQlConnect connection = new GraphQlConnect("token", "http://127.0.0.1:" + server.getAddress().getPort() + "/",
+                    Duration.ofSeconds(5), Duration.ofSeconds(5));
+            connection.setPersistedQueries(true);
+            assertEquals("{\"data\":{\"course\":null}}", connection.send(QueryRegistry.ASSIGNMENTS_PAGE, Map.of("courseId", "1", "first", 10)));
+            assertEquals("{\"data\":{\"course\":null}}", connection.send(QueryRegistry.ASSIGNMENTS_PAGE, Map.of("courseId", "2", "first", 10)));
+        } finally {
+            server.stop(0);
+        }
+        assertEquals(3, requests.size());
+        assertFalse(requests.get(0).has("query"));
+        assertTrue(requests.get(1).has("query"));
+        assertFalse(requests.get(2).has("query"));
+        assertEquals(QueryRegistry.ASSIGNMENTS_PAGE.getSha256(), requests.get(2).get("extensions").get("persistedQuery").get("sha256Hash").asText());
+    }
+}
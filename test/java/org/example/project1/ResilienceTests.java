@@ -0,0 +1,58 @@
+package org.example.project1;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResilienceTests {
+
+    private static ResiliencePolicy policy(Duration openTime) {
+        return new ResiliencePolicy(0, Duration.ZERO, Duration.ZERO, Duration.ZERO, false, 3, openTime);
+    }
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker();
+        ResiliencePolicy policy = policy(Duration.ofMinutes(1));
+        breaker.recordFailure(policy);
+        breaker.recordFailure(policy);
+        breaker.recordSuccess();
+        breaker.recordFailure(policy);
+        breaker.recordFailure(policy);
+        assertTrue(breaker.allowRequest(policy));
+        breaker.recordFailure(policy);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest(policy));
+    }
+
+    @Test
+    void letsOneTrialThroughOnceTheOpenTimeHasPassed() {
+        CircuitBreaker breaker = new CircuitBreaker();
+        ResiliencePolicy policy = policy(Duration.ZERO);
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure(policy);
+        }
+        assertTrue(breaker.allowRequest(policy));
+        assertFalse(breaker.allowRequest(policy));
+        breaker.recordFailure(policy);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest(policy));
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void percentilesNeedEnoughSamples() {
+        LatencyTracker tracker = new LatencyTracker();
+        assertEquals(-1, tracker.percentile(95));
+        for (int i = 1; i <= 100; i++) {
+            tracker.record(i);
+        }
+        assertEquals(95, tracker.percentile(95));
+        assertEquals(50, tracker.percentile(50));
+    }
+}
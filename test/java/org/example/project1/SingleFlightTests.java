@@ -0,0 +1,61 @@
+package org.example.project1;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTests {
+
+    @Test
+    void concurrentCallersShareOneCall() {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.execute("courses", () -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> second = flight.execute("courses", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        CompletableFuture<String> different = flight.execute("assignments", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("assignments");
+        });
+        first.cancel(false);
+        pending.complete("courses");
+        assertEquals("courses", second.join());
+        assertEquals("assignments", different.join());
+        assertEquals(2, calls.get());
+        assertEquals(0, flight.size());
+        assertEquals("again", flight.execute("courses", () -> CompletableFuture.completedFuture("again")).join());
+    }
+
+    @Test
+    void successfulResultsAreReusedWithinTheWindow() {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        Duration window = Duration.ofMinutes(1);
+        assertNull(flight.execute("courses", window, () -> CompletableFuture.completedFuture(null)).join());
+        assertEquals("courses", flight.execute("courses", window, () -> CompletableFuture.completedFuture("courses")).join());
+        assertEquals("courses", flight.execute("courses", window, () -> CompletableFuture.completedFuture("newer")).join());
+        assertTrue(flight.execute("failing", window, () -> {
+            throw new IllegalStateException("not started");
+        }).isCompletedExceptionally());
+        assertEquals("started", flight.execute("failing", window, () -> CompletableFuture.completedFuture("started")).join());
+    }
+
+    @Test
+    void callersWithoutAWindowNeverGetAnEarlierResult() {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        assertEquals("courses", flight.execute("courses", Duration.ofMinutes(1), () -> CompletableFuture.completedFuture("courses")).join());
+        assertEquals("fresh", flight.execute("courses", () -> CompletableFuture.completedFuture("fresh")).join());
+        assertEquals(0, flight.size());
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.project1;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamingResponseParserTests {
+
+    private static int streamCourses(String response, List<GetResponses.CourseData.Course> courses) throws IOException {
+        return new StreamingResponseParser(ObjectMappers.get()).streamCourses(new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)), course -> true, courses::add);
+    }
+
+    @Test
+    void tellsAnEmptyCourseListFromAMissingOne() throws IOException {
+        List<GetResponses.CourseData.Course> courses = new ArrayList<>();
+        assertEquals(1, streamCourses("{\"data\":{\"allCourses\":[null,{\"name\":\"CS 146\",\"id\":\"1\"}]}}", courses));
+        assertEquals("CS 146", courses.get(0).getName());
+        assertEquals(0, streamCourses("{\"data\":{\"allCourses\":[]}}", courses));
+        assertEquals(-1, streamCourses("{\"errors\":[{\"message\":\"Invalid access token\"}]}", courses));
+        assertEquals(-1, streamCourses("{\"data\":{\"allCourses\":null}}", courses));
+        assertEquals(1, courses.size());
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.project1;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyncCommandTests {
+
+    @TempDir
+    Path cache;
+
+    @Test
+    void coursesWithSeveralPagesKeepTheirLaterAssignments() throws IOException {
+        try (MockCanvasServer server = MockCanvasServer.start(0, MockCanvasServer.Settings.defaults().withSizes(2, 7))) {
+            String[] sync = {"--endpoint", server.getEndpoint(), "--token", "mock-token", "--cache-dir", cache.toString(), "sync", "--page-size", "3"};
+            List<String> first = run(sync);
+            assertEquals(14, first.size());
+            assertTrue(first.stream().allMatch(line -> line.startsWith("added: ")));
+            assertEquals(List.of(), run(sync));
+        }
+    }
+
+    private static List<String> run(String[] args) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(0, CanvasGraphQlApplication.execute(args, out, new PrintWriter(Writer.nullWriter())));
+        return out.toString(StandardCharsets.UTF_8).lines().collect(Collectors.toList());
+    }
+}
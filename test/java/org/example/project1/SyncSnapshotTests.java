@@ -0,0 +1,79 @@
+package org.example.project1;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyncSnapshotTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reportsAddedChangedAndRemovedAssignments() {
+        SyncSnapshot snapshot = new SyncSnapshot(directory, "https://canvas.example/api/graphql", "token");
+        snapshot.putCourse("C1", "CS 146");
+        assertEquals(SyncSnapshot.Change.ADDED, snapshot.putAssignment("C1", new SyncSnapshot.Assignment("A1", "HW 1", "2024-03-01T00:00:00Z", "t1")).getChange());
+        snapshot.putAssignment("C1", new SyncSnapshot.Assignment("A2", "HW 2", null, "t1"));
+        assertNull(snapshot.putAssignment("C1", new SyncSnapshot.Assignment("A1", "HW 1", "2024-03-01T00:00:00Z", "t2")));
+        assertEquals("t2", snapshot.getUpdatedAt("C1", "A1"));
+        SyncSnapshot.Delta changed = snapshot.putAssignment("C1", new SyncSnapshot.Assignment("A1", "HW 1", "2024-03-02T00:00:00Z", "t3"));
+        assertEquals(SyncSnapshot.Change.CHANGED, changed.getChange());
+        assertEquals("CS 146", changed.getCourseName());
+        List<SyncSnapshot.Delta> removed = snapshot.retainAssignments("C1", Set.of("A1"));
+        assertEquals(1, removed.size());
+        assertEquals("A2", removed.get(0).getAssignment().getId());
+        assertEquals(1, snapshot.removeCourse("C1").size());
+        assertEquals(0, snapshot.size());
+    }
+
+    @Test
+    void survivesSaveAndLoad() {
+        SyncSnapshot snapshot = new SyncSnapshot(directory, "https://canvas.example/api/graphql", "token");
+        assertFalse(snapshot.load());
+        snapshot.putCourse("C1", "CS 146");
+        snapshot.putAssignment("C1", new SyncSnapshot.Assignment("A1", "HW 1", null, "t1"));
+        assertTrue(snapshot.save());
+        SyncSnapshot reloaded = new SyncSnapshot(directory, "https://canvas.example/api/graphql", "token");
+        assertTrue(reloaded.load());
+        assertEquals(Set.of("C1"), reloaded.getCourseIds());
+        assertEquals("t1", reloaded.getUpdatedAt("C1", "A1"));
+        assertTrue(reloaded.getSyncedAt() > 0);
+        assertFalse(new SyncSnapshot(directory, "https://canvas.example/api/graphql", "other token").load());
+    }
+
+    @Test
+    void corruptFilesAreIgnored() throws IOException {
+        SyncSnapshot snapshot = new SyncSnapshot(directory, "https://canvas.example/api/graphql", "token");
+        snapshot.putCourse("C1", "CS 146");
+        assertTrue(snapshot.save());
+        // A negative string length where the course id should be
+        byte[] bytes = Files.readAllBytes(snapshot.getFile());
+        ByteBuffer.wrap(bytes).putInt(20, -7);
+        Files.write(snapshot.getFile(), bytes);
+        assertFalse(snapshot.load());
+        assertEquals(Set.of(), snapshot.getCourseIds());
+
+        CourseCache cache = new CourseCache(directory, "https://canvas.example/api/graphql", "token", "query");
+        cache.write(List.of(new GetResponses.CourseData.Course("CS 146", "C1", null)));
+        bytes = Files.readAllBytes(cache.getFile());
+        ByteBuffer.wrap(bytes).putInt(20, -7);
+        Files.write(cache.getFile(), bytes);
+        assertNull(cache.read(Duration.ofMinutes(1)));
+        ByteBuffer.wrap(bytes).putInt(20, 6).putInt(16, Integer.MAX_VALUE);
+        Files.write(cache.getFile(), bytes);
+        assertNull(cache.read(Duration.ofMinutes(1)));
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.project1;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenManifestTests {
+
+    private static TokenManifest parse(String text) throws IOException {
+        return TokenManifest.parse(new BufferedReader(new StringReader(text)));
+    }
+
+    @Test
+    void readsTenantsSkippingCommentsAndBlankLines() throws IOException {
+        TokenManifest manifest = parse("# nightly export\n\nalice 1~abc\n  bob.smith\t2~def  \n");
+        assertEquals(2, manifest.getTenants().size());
+        assertEquals("alice", manifest.getTenants().get(0).getName());
+        assertEquals("1~abc", manifest.getTenants().get(0).getToken());
+        assertEquals("bob.smith", manifest.getTenants().get(1).getName());
+        assertEquals("2~def", manifest.getTenants().get(1).getToken());
+    }
+
+    @Test
+    void rejectsMalformedLinesUnsafeNamesAndDuplicates() {
+        assertThrows(IllegalArgumentException.class, () -> parse("alice\n"));
+        assertThrows(IllegalArgumentException.class, () -> parse("alice 1~abc extra\n"));
+        assertThrows(IllegalArgumentException.class, () -> parse("../alice 1~abc\n"));
+        assertThrows(IllegalArgumentException.class, () -> parse("alice 1~abc\nalice 2~def\n"));
+    }
+}